@@ -3,6 +3,7 @@
 ///////////////////////////////////////////////////////////////////////////////
 plugins {
     `java`
+    `java-test-fixtures`
     id("com.diffplug.spotless") version "5.10.2"
     id("org.sonarqube") version "3.1"
     jacoco
@@ -31,7 +32,9 @@ repositories {
 dependencies {
     implementation("org.eclipse.keyple:keyple-java-commons-api:2.0-SNAPSHOT")
     implementation("org.eclipse.keyple:keyple-java-utils:2.0.0-SNAPSHOT")
+    testFixturesImplementation("org.eclipse.keyple:keyple-java-utils:2.0.0-SNAPSHOT")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.google.code.gson:gson:2.8.6")
     testImplementation("org.assertj:assertj-core:3.15.0")
 }
 
@@ -45,6 +48,38 @@ java {
     withSourcesJar()
 }
 
+// Multi-release JAR: the classes of src/main/java9 replace their baseline version on Java 9 and
+// later. They must keep the signatures of the baseline classes and are only compiled with a Java 9+
+// JDK, the Java 6 baseline remaining unchanged.
+// On an older JDK the overlay is not compiled: the JAR is then built without the Multi-Release
+// attribute and must not be published.
+val isJava9OverlayCompiled = JavaVersion.current().isJava9Compatible
+if (!isJava9OverlayCompiled) {
+    logger.warn("WARNING: Java ${JavaVersion.current()} is used, the Java 9 overlay of the " +
+        "multi-release JAR is not compiled and the JAR only contains the baseline classes.")
+}
+gradle.taskGraph.whenReady {
+    if (!isJava9OverlayCompiled && allTasks.any { it.name.startsWith("publish") }) {
+        throw GradleException("The published JAR must contain the Java 9 overlay, " +
+            "a Java 9 or later JDK is required.")
+    }
+}
+val java9: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java9"))
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.32")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.32")
+}
+
 ///////////////////////////////////////////////////////////////////////////////
 //  TASKS CONFIGURATION
 ///////////////////////////////////////////////////////////////////////////////
@@ -64,6 +99,47 @@ tasks {
         }
         finalizedBy("jacocoTestReport")
     }
+    named<JavaCompile>("compileJava9Java") {
+        onlyIf { isJava9OverlayCompiled }
+        sourceCompatibility = "9"
+        targetCompatibility = "9"
+        options.release.set(9)
+    }
+    jar {
+        if (isJava9OverlayCompiled) {
+            manifest {
+                attributes("Multi-Release" to "true")
+            }
+            into("META-INF/versions/9") {
+                from(java9.output)
+            }
+        }
+    }
+    register<Test>("testMultiRelease") {
+        group = "verification"
+        description = "Runs the tests against the multi-release JAR, using the Java 9 overlay."
+        onlyIf { isJava9OverlayCompiled }
+        testClassesDirs = sourceSets.test.get().output.classesDirs
+        classpath = files(jar) + sourceSets.test.get().output +
+            configurations.testRuntimeClasspath.get()
+    }
+    check {
+        dependsOn("testMultiRelease")
+    }
+    named<JavaCompile>("compileJmhJava") {
+        // JMH requires Java 7 or later, the benchmarks are not part of the published artifact
+        sourceCompatibility = "1.8"
+        targetCompatibility = "1.8"
+    }
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks with the GC profiler (allocations per operation)."
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        args("-prof", "gc", "-rf", "json", "-rff", "$buildDir/reports/jmh/results.json")
+        project.findProperty("jmhIncludes")?.let { args(it) }
+        doFirst { file("$buildDir/reports/jmh").mkdirs() }
+    }
     jacocoTestReport {
         dependsOn("test")
         reports {
@@ -0,0 +1,81 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Construction of {@link ApduRequest} in the four ISO 7816 cases. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApduRequestBenchmark {
+
+  private final byte[] dataIn = new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+  private final ApduTemplate template =
+      new ApduTemplate((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0);
+  private final byte[] templateBuffer = new byte[template.getLength()];
+
+  @Benchmark
+  public ApduRequest case1() {
+    return new ApduRequest((byte) 0x00, (byte) 0x70, (byte) 0x80, (byte) 0x01, null, null);
+  }
+
+  @Benchmark
+  public ApduRequest case2() {
+    return new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0);
+  }
+
+  @Benchmark
+  public ApduRequest case3() {
+    return new ApduRequest((byte) 0x00, (byte) 0xD6, (byte) 0x00, (byte) 0x00, dataIn, null);
+  }
+
+  @Benchmark
+  public ApduRequest case4() {
+    return new ApduRequest((byte) 0x00, (byte) 0xA4, (byte) 0x04, (byte) 0x00, dataIn, (byte) 0);
+  }
+
+  @Benchmark
+  public ApduRequest case4WithSuccessfulStatusCode() {
+    return new ApduRequest((byte) 0x00, (byte) 0xA4, (byte) 0x04, (byte) 0x00, dataIn, (byte) 0)
+        .addSuccessfulStatusCode(0x6283);
+  }
+
+  @Benchmark
+  public ApduRequest templateWithNewBuffer() {
+    return template.createApduRequest((byte) 0x02, (byte) 0x0C);
+  }
+
+  @Benchmark
+  public ApduRequest templateWithCallerBuffer() {
+    return template.createApduRequest(templateBuffer, (byte) 0x02, (byte) 0x0C, null);
+  }
+
+  @Benchmark
+  public boolean isSuccessfulStatusCode() {
+    return template
+        .createApduRequest(templateBuffer, (byte) 0x02, (byte) 0x0C, null)
+        .isSuccessfulStatusCode(0x6A82);
+  }
+}
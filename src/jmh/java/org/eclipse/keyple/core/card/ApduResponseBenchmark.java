@@ -0,0 +1,76 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Status word parsing, creation and data-out access of {@link ApduResponse}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApduResponseBenchmark {
+
+  private final byte[] bytes = new byte[31];
+  private final ApduResponse apduResponse;
+
+  public ApduResponseBenchmark() {
+    for (int i = 0; i < bytes.length - 2; i++) {
+      bytes[i] = (byte) i;
+    }
+    bytes[29] = (byte) 0x90;
+    bytes[30] = (byte) 0x00;
+    apduResponse = new ApduResponse(bytes);
+  }
+
+  @Benchmark
+  public int statusCode() {
+    return new ApduResponse(bytes).getStatusCode();
+  }
+
+  @Benchmark
+  public ApduResponse newStatusOnly() {
+    return new ApduResponse(new byte[] {(byte) 0x90, (byte) 0x00});
+  }
+
+  @Benchmark
+  public ApduResponse valueOfStatusOnly() {
+    return ApduResponse.valueOf(bytes, 29, 2);
+  }
+
+  @Benchmark
+  public byte[] getDataOut() {
+    return apduResponse.getDataOut();
+  }
+
+  @Benchmark
+  public ByteBuffer getDataOutBuffer() {
+    return apduResponse.getDataOutBuffer();
+  }
+
+  @Benchmark
+  public int getDataOutInt() {
+    return apduResponse.getDataOutInt(4) + apduResponse.getDataOutShort(8);
+  }
+}
@@ -0,0 +1,80 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Assembly of {@link CardRequest} and {@link CardResponse} and their string conversion. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardRequestBenchmark {
+
+  @Param({"1", "8"})
+  private int apduCount;
+
+  private final byte[] responseBytes =
+      new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, (byte) 0x90, 0x00};
+  private CardRequest cardRequest;
+  private CardResponse cardResponse;
+
+  @Setup
+  public void setup() {
+    cardRequest = cardRequest();
+    cardResponse = cardResponse();
+  }
+
+  @Benchmark
+  public CardRequest cardRequest() {
+    List<ApduRequest> apduRequests = new ArrayList<ApduRequest>(apduCount);
+    for (int i = 0; i < apduCount; i++) {
+      apduRequests.add(
+          new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) i, (byte) 0x0C, null, (byte) 0));
+    }
+    return new CardRequest(apduRequests, true);
+  }
+
+  @Benchmark
+  public CardResponse cardResponse() {
+    List<ApduResponse> apduResponses = new ArrayList<ApduResponse>(apduCount);
+    for (int i = 0; i < apduCount; i++) {
+      apduResponses.add(new ApduResponse(responseBytes));
+    }
+    return new CardResponse(apduResponses, true, true);
+  }
+
+  @Benchmark
+  public String cardRequestToString() {
+    return cardRequest.toString();
+  }
+
+  @Benchmark
+  public String cardResponseToString() {
+    return cardResponse.toString();
+  }
+}
@@ -15,10 +15,15 @@
  * Generic exception carrying response data received from the card until a communication failure
  * occurs or an unexpected APDU status code is received.
  *
+ * <p>The capture of the stack trace can be disabled for the whole hierarchy (see {@link
+ * #setStackTraceEnabled(boolean)}) when these exceptions are part of a nominal processing.
+ *
  * @since 2.0
  */
 public class AbstractApduException extends Exception {
 
+  private static volatile boolean isStackTraceEnabled = true;
+
   private final CardResponse cardResponse;
 
   /**
@@ -46,6 +51,42 @@ public AbstractApduException(CardResponse cardResponse, String message, Throwabl
     this.cardResponse = cardResponse;
   }
 
+  /**
+   * Enables or disables the capture of the stack trace when an exception of this hierarchy is
+   * built.
+   *
+   * <p>The stack trace is captured by default. Disabling it significantly reduces the construction
+   * cost of the exceptions, at the expense of diagnostics.
+   *
+   * @param isEnabled true to capture the stack trace, false otherwise.
+   * @since 2.0
+   */
+  public static void setStackTraceEnabled(boolean isEnabled) {
+    isStackTraceEnabled = isEnabled;
+  }
+
+  /**
+   * Indicates if the stack trace is captured when an exception of this hierarchy is built.
+   *
+   * @return true if the stack trace is captured.
+   * @since 2.0
+   */
+  public static boolean isStackTraceEnabled() {
+    return isStackTraceEnabled;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Does nothing if the capture of the stack trace is disabled.
+   *
+   * @since 2.0
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return isStackTraceEnabled ? super.fillInStackTrace() : this;
+  }
+
   /**
    * Gets the response data received so far.
    *
@@ -11,6 +11,7 @@
  ************************************************************************************** */
 package org.eclipse.keyple.core.card;
 
+import java.util.Arrays;
 import org.eclipse.keyple.core.util.Assert;
 
 /**
@@ -22,10 +23,16 @@
  * reconstructed ATR for a PC/SC reader, low-level protocol information for other card readers,
  * etc).
  *
+ * <p>The ISO 7816-3 structure of the bytes (TS, T0, interface bytes, historical bytes and TCK) is
+ * parsed once, on first access to one of its elements, then cached.
+ *
+ * @see AtrMatcher
  * @since 2.0
  */
 public class AnswerToReset {
   private final byte[] bytes;
+  // lazily parsed from the bytes, not serialized
+  private transient Structure structure;
 
   /**
    * Constructor.
@@ -48,4 +55,213 @@ public AnswerToReset(byte[] bytes) {
   public byte[] getBytes() {
     return bytes;
   }
+
+  /**
+   * Indicates if the bytes follow the ISO 7816-3 structure, i.e. if their length is consistent with
+   * the interface bytes, the number of historical bytes and the presence of the TCK announced by T0
+   * and the TDi bytes.
+   *
+   * <p>The elements parsed before an inconsistency are still available.
+   *
+   * @return true if the structure is consistent.
+   * @since 2.0
+   */
+  public boolean isWellFormed() {
+    return getStructure().isWellFormed;
+  }
+
+  /**
+   * Gets the initial character TS.
+   *
+   * @return An int from 0 to {@code FFh}.
+   * @since 2.0
+   */
+  public int getTs() {
+    return bytes[0] & 0xFF;
+  }
+
+  /**
+   * Gets the format byte T0.
+   *
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getT0() {
+    return bytes.length > 1 ? bytes[1] & 0xFF : -1;
+  }
+
+  /**
+   * Gets the interface byte TAi.
+   *
+   * @param i The index of the interface bytes group, starting at 1.
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getTa(int i) {
+    return getStructure().getInterfaceByte(i, 0);
+  }
+
+  /**
+   * Gets the interface byte TBi.
+   *
+   * @param i The index of the interface bytes group, starting at 1.
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getTb(int i) {
+    return getStructure().getInterfaceByte(i, 1);
+  }
+
+  /**
+   * Gets the interface byte TCi.
+   *
+   * @param i The index of the interface bytes group, starting at 1.
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getTc(int i) {
+    return getStructure().getInterfaceByte(i, 2);
+  }
+
+  /**
+   * Gets the interface byte TDi.
+   *
+   * @param i The index of the interface bytes group, starting at 1.
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getTd(int i) {
+    return getStructure().getInterfaceByte(i, 3);
+  }
+
+  /**
+   * Gets the offset of the historical bytes in the array returned by {@link #getBytes()}, which
+   * allows parsing them in place.
+   *
+   * @return A positive int.
+   * @since 2.0
+   */
+  public int getHistoricalBytesOffset() {
+    return getStructure().historicalBytesOffset;
+  }
+
+  /**
+   * Gets the number of historical bytes actually present.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int getHistoricalBytesLength() {
+    return getStructure().historicalBytesLength;
+  }
+
+  /**
+   * Gets a copy of the historical bytes.
+   *
+   * @return A not null array, empty if there is no historical byte.
+   * @since 2.0
+   */
+  public byte[] getHistoricalBytes() {
+    Structure s = getStructure();
+    return Arrays.copyOfRange(
+        bytes, s.historicalBytesOffset, s.historicalBytesOffset + s.historicalBytesLength);
+  }
+
+  /**
+   * Gets the check byte TCK.
+   *
+   * @return An int from 0 to {@code FFh}, -1 if absent.
+   * @since 2.0
+   */
+  public int getTck() {
+    return getStructure().tck;
+  }
+
+  /**
+   * (private)<br>
+   * Gets the parsed structure, parsing it on first access.
+   *
+   * <p>The structure being immutable, a concurrent first access at worst parses it twice.
+   *
+   * @return A not null reference.
+   */
+  private Structure getStructure() {
+    Structure s = structure;
+    if (s == null) {
+      s = new Structure(bytes);
+      structure = s;
+    }
+    return s;
+  }
+
+  /**
+   * (private)<br>
+   * Immutable result of the parsing of the ISO 7816-3 structure.
+   */
+  private static final class Structure {
+
+    /** Interface bytes by group, in the order TA, TB, TC, TD, -1 when absent. */
+    private final int[] interfaceBytes;
+
+    private final int historicalBytesOffset;
+    private final int historicalBytesLength;
+    private final int tck;
+    private final boolean isWellFormed;
+
+    /**
+     * (private)<br>
+     * Parses the ATR bytes.
+     *
+     * @param bytes The ATR bytes.
+     */
+    private Structure(byte[] bytes) {
+      // each group holds at most 4 bytes, one per remaining byte is an upper bound
+      int[] groups = new int[4 * Math.max(bytes.length, 1)];
+      Arrays.fill(groups, -1);
+      int groupCount = 0;
+      int position = 2;
+      boolean isTckPresent = false;
+      boolean isTruncated = bytes.length < 2;
+      int indicator = isTruncated ? 0 : (bytes[1] & 0xF0) >> 4;
+      int historicalBytesCount = isTruncated ? 0 : bytes[1] & 0x0F;
+      while (indicator != 0 && !isTruncated) {
+        for (int type = 0; type < 4; type++) {
+          if ((indicator & (1 << type)) != 0) {
+            if (position >= bytes.length) {
+              isTruncated = true;
+              break;
+            }
+            groups[4 * groupCount + type] = bytes[position++] & 0xFF;
+          }
+        }
+        int td = groups[4 * groupCount + 3];
+        groupCount++;
+        if (isTruncated || td == -1) {
+          break;
+        }
+        indicator = (td & 0xF0) >> 4;
+        // any protocol other than T=0 requires the check byte
+        isTckPresent |= (td & 0x0F) != 0;
+      }
+      interfaceBytes = Arrays.copyOf(groups, 4 * groupCount);
+      historicalBytesOffset = Math.min(position, bytes.length);
+      historicalBytesLength = Math.min(historicalBytesCount, bytes.length - historicalBytesOffset);
+      int end = historicalBytesOffset + historicalBytesCount;
+      tck = isTckPresent && end < bytes.length ? bytes[end] & 0xFF : -1;
+      isWellFormed = !isTruncated && bytes.length == end + (isTckPresent ? 1 : 0);
+    }
+
+    /**
+     * (private)<br>
+     * Gets an interface byte.
+     *
+     * @param i The group index, starting at 1.
+     * @param type 0 for TA, 1 for TB, 2 for TC, 3 for TD.
+     * @return -1 if absent.
+     */
+    private int getInterfaceByte(int i, int type) {
+      int index = 4 * (i - 1) + type;
+      return i >= 1 && index < interfaceBytes.length ? interfaceBytes[index] : -1;
+    }
+  }
 }
@@ -0,0 +1,51 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * Stage of an {@link ApduInterceptorChain}, transforming in place the bytes of the APDUs exchanged
+ * by an {@link InterceptableProxyReader} (e.g. secure messaging wrapping, logging).
+ *
+ * <p>The bytes are provided in the transmission buffers of the reader, which are shared by all the
+ * stages and reused from one APDU to the next: an interceptor must neither keep a reference to them
+ * nor write beyond their capacity.
+ *
+ * <p>The methods are invoked synchronously from the thread performing the transmission.
+ *
+ * @since 2.0
+ */
+public interface ApduInterceptor {
+
+  /**
+   * Invoked before an APDU is sent to the card.
+   *
+   * @param apduRequest The APDU request at the origin of the command, which must not be modified.
+   * @param command The buffer containing the command bytes from index 0.
+   * @param length The number of command bytes.
+   * @return The number of command bytes after transformation, within the buffer capacity and at
+   *     least 4.
+   * @since 2.0
+   */
+  int interceptRequest(ApduRequest apduRequest, byte[] command, int length);
+
+  /**
+   * Invoked after a response has been received from the card.
+   *
+   * @param apduRequest The APDU request at the origin of the command, which must not be modified.
+   * @param response The buffer containing the response bytes (including SW1SW2) from index 0.
+   * @param length The number of response bytes.
+   * @return The number of response bytes after transformation, within the buffer capacity and at
+   *     least 2.
+   * @since 2.0
+   */
+  int interceptResponse(ApduRequest apduRequest, byte[] response, int length);
+}
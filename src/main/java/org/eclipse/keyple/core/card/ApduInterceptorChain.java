@@ -0,0 +1,121 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Immutable ordered chain of {@link ApduInterceptor}s applied by an {@link
+ * InterceptableProxyReader} to each APDU exchange.
+ *
+ * <p>The commands go through the interceptors in the order of the list, the responses in the
+ * reverse order. The first interceptor is therefore the closest to the card extension and the last
+ * one the closest to the card, which is where a secure messaging stage is expected.
+ *
+ * <p>All the stages work on the same buffers, so stacking several interceptors does not add any
+ * copy.
+ *
+ * @see InterceptableProxyReader#setApduInterceptorChain(ApduInterceptorChain)
+ * @since 2.0
+ */
+public final class ApduInterceptorChain {
+
+  private final ApduInterceptor[] interceptors;
+
+  /**
+   * Builds a chain from the provided interceptors.
+   *
+   * @param interceptors A not empty list, copied by the constructor.
+   * @throws IllegalArgumentException If the list is null or empty or contains null elements.
+   * @since 2.0
+   */
+  public ApduInterceptorChain(List<ApduInterceptor> interceptors) {
+    Assert.getInstance().notEmpty(interceptors, "interceptors");
+    this.interceptors = interceptors.toArray(new ApduInterceptor[interceptors.size()]);
+    for (ApduInterceptor interceptor : this.interceptors) {
+      Assert.getInstance().notNull(interceptor, "interceptor");
+    }
+  }
+
+  /**
+   * Builds a new chain made of the interceptors of this chain followed by the provided one, which
+   * thus becomes the closest to the card.
+   *
+   * @param interceptor The interceptor to add.
+   * @return A new chain.
+   * @throws IllegalArgumentException If the interceptor is null.
+   * @since 2.0
+   */
+  public ApduInterceptorChain append(ApduInterceptor interceptor) {
+    List<ApduInterceptor> chain = new ArrayList<ApduInterceptor>(Arrays.asList(interceptors));
+    chain.add(interceptor);
+    return new ApduInterceptorChain(chain);
+  }
+
+  /**
+   * Applies the interceptors to a command, in the order of the chain.
+   *
+   * @param apduRequest The APDU request at the origin of the command.
+   * @param command The transmission buffer containing the command bytes from index 0.
+   * @param length The number of command bytes.
+   * @return The number of command bytes after transformation.
+   * @throws IllegalStateException If an interceptor returned a length out of the buffer bounds or
+   *     less than 4 (the length of the command header).
+   * @since 2.0
+   */
+  public int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+    for (ApduInterceptor interceptor : interceptors) {
+      length = checkLength(interceptor.interceptRequest(apduRequest, command, length), 4, command);
+    }
+    return length;
+  }
+
+  /**
+   * Applies the interceptors to a response, in the reverse order of the chain.
+   *
+   * @param apduRequest The APDU request at the origin of the command.
+   * @param response The reception buffer containing the response bytes from index 0.
+   * @param length The number of response bytes.
+   * @return The number of response bytes after transformation.
+   * @throws IllegalStateException If an interceptor returned a length out of the buffer bounds or
+   *     less than 2.
+   * @since 2.0
+   */
+  public int interceptResponse(ApduRequest apduRequest, byte[] response, int length) {
+    for (int i = interceptors.length - 1; i >= 0; i--) {
+      length =
+          checkLength(
+              interceptors[i].interceptResponse(apduRequest, response, length), 2, response);
+    }
+    return length;
+  }
+
+  /**
+   * (private)<br>
+   * Checks a length returned by an interceptor.
+   *
+   * @param length The length.
+   * @param minLength The minimum length.
+   * @param buffer The buffer holding the bytes.
+   * @return The length.
+   * @throws IllegalStateException If the length is out of range.
+   */
+  private static int checkLength(int length, int minLength, byte[] buffer) {
+    if (length < minLength || length > buffer.length) {
+      throw new IllegalStateException("Invalid length returned by an interceptor: " + length);
+    }
+    return length;
+  }
+}
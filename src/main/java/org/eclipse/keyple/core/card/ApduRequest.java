@@ -11,10 +11,12 @@
  ************************************************************************************** */
 package org.eclipse.keyple.core.card;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains a set of data related to an ISO-7816 APDU command.
@@ -22,7 +24,10 @@
  * <ul>
  *   <li>A byte array containing the raw APDU data.
  *   <li>A flag indicating if the APDU is of type 4 (ingoing and outgoing data).
+ *   <li>A flag indicating if the APDU uses the extended length encoding of Lc and Le.
  *   <li>An optional set of integers corresponding to valid status codes in response to this APDU.
+ *   <li>Optional flow control rules conditioning the execution of the APDU and of the following
+ *       ones to the status codes received (see {@link CardRequest}).
  * </ul>
  *
  * Attaching an optional name to the request facilitates the enhancement of the application logs
@@ -32,12 +37,29 @@
  */
 public final class ApduRequest {
 
-  private static final int DEFAULT_SUCCESSFUL_CODE = 0x9000;
+  /** Shared by all requests until a status code is added, must never be modified. */
+  private static final int[] DEFAULT_SUCCESSFUL_STATUS_CODES = new int[] {0x9000};
+
+  private static final int[] NO_STATUS_CODE_JUMPS = new int[0];
 
   private final byte[] bytes;
   private final boolean isCase4;
-  private final Set<Integer> successfulStatusCodes;
+  private final boolean isExtendedLength;
+  private int[] successfulStatusCodes;
+  // false if the status codes were filled by a deserializer bypassing the constructors
+  private transient boolean isSuccessfulStatusCodesSorted;
+  private ChainingPolicy chainingPolicy;
+  // the absent flow control rules are represented by the default values (false, null, 0), which are
+  // also those left by a deserializer bypassing the constructors
+  private boolean isSkipIfPreviousStatusCodeSet;
+  private int skipIfPreviousStatusCode;
+  private int[] statusCodeJumps;
+  // only relevant if maxRepetitions is not 0
+  private int repeatUntilStatusCode;
+  private int maxRepetitions;
   private String name;
+  // not serialized, a deserialized request being not frozen
+  private transient boolean isFrozen;
 
   /**
    * Builds an APDU request from its elements as defined by the ISO 7816 standard.
@@ -62,6 +84,9 @@ public final class ApduRequest {
    *
    * <p>If dataIn is not null and Le &gt; 0 an IllegalArgumentException is thrown.
    *
+   * <p>The APDU is encoded in the short form, the data field is therefore limited to 255 bytes (see
+   * {@link #ApduRequest(byte, byte, byte, byte, byte[], Integer, boolean)} for larger data).
+   *
    * @param cla The class byte.
    * @param instruction The instruction byte.
    * @param p1 The parameter 1.
@@ -79,6 +104,10 @@ public ApduRequest(byte cla, byte instruction, byte p1, byte p2, byte[] dataIn,
       throw new IllegalArgumentException(
           "Le must be equal to 0 when not null and ingoing data are present.");
     }
+    if (dataIn != null && dataIn.length > 255) {
+      throw new IllegalArgumentException(
+          "The data field length must not exceed 255 bytes in short form: " + dataIn.length);
+    }
 
     /* Buffer allocation */
     bytes = allocateBuffer(dataIn, le);
@@ -115,13 +144,119 @@ public ApduRequest(byte cla, byte instruction, byte p1, byte p2, byte[] dataIn,
       }
       isCase4 = false;
     }
-    this.successfulStatusCodes = new HashSet<Integer>();
-    this.successfulStatusCodes.add(DEFAULT_SUCCESSFUL_CODE);
+    this.isExtendedLength = false;
+    this.successfulStatusCodes = DEFAULT_SUCCESSFUL_STATUS_CODES;
+    this.isSuccessfulStatusCodesSorted = true;
+  }
+
+  /**
+   * Builds an APDU request from its elements as defined by the ISO 7816 standard, choosing between
+   * the short and the extended encoding of Lc and Le.
+   *
+   * <p>The ISO7816 case is determined from the provided arguments following the same rules as
+   * {@link #ApduRequest(byte, byte, byte, byte, byte[], Byte)}.
+   *
+   * <p>When extendedLength is true and the APDU is not of case 1, Lc and Le are encoded on 2 bytes
+   * preceded by a 00h byte, allowing data fields up to 65535 bytes and Le values up to 65535 (0
+   * meaning 65536). Otherwise, the short encoding is used and the values are limited to 255 (0
+   * meaning 256 for Le).
+   *
+   * <p>Extended length APDUs must only be sent if supported by both the reader and the card (see
+   * {@link ExtendedLengthProxyReader#isExtendedLengthSupported()}).
+   *
+   * @param cla The class byte.
+   * @param instruction The instruction byte.
+   * @param p1 The parameter 1.
+   * @param p2 The parameter 2.
+   * @param dataIn The data field of the command.
+   * @param le The maximum number of bytes expected in the data field of the response to the
+   *     command.
+   * @param extendedLength true to use the extended length encoding, false to use the short one.
+   * @throws IllegalArgumentException in case of inconsistencies in the input data.
+   * @since 2.0
+   */
+  public ApduRequest(
+      byte cla,
+      byte instruction,
+      byte p1,
+      byte p2,
+      byte[] dataIn,
+      Integer le,
+      boolean extendedLength) {
+
+    int maxLength = extendedLength ? 0xFFFF : 0xFF;
+
+    /* consistency check */
+    if (dataIn != null && le != null && le != 0) {
+      throw new IllegalArgumentException(
+          "Le must be equal to 0 when not null and ingoing data are present.");
+    }
+    if (le != null) {
+      Assert.getInstance().isInRange(le, 0, maxLength, "le");
+    }
+    if (dataIn != null) {
+      Assert.getInstance().isInRange(dataIn.length, 0, maxLength, "dataIn.length");
+    }
+
+    /* Buffer allocation: header, optional Lc field and data, optional Le field */
+    int lengthFieldSize = extendedLength ? 2 : 1;
+    int length = 4;
+    if (dataIn != null) {
+      length += lengthFieldSize + dataIn.length;
+    }
+    if (le != null) {
+      length += lengthFieldSize;
+    }
+    if (extendedLength && (dataIn != null || le != null)) {
+      length += 1; // leading 00h of the extended length fields
+    }
+    if (dataIn == null && le == null) {
+      length += 1; // case 1: P3 = 0
+    }
+    bytes = new byte[length];
+
+    /* Build APDU buffer from provided arguments */
+    bytes[0] = cla;
+    bytes[1] = instruction;
+    bytes[2] = p1;
+    bytes[3] = p2;
+
+    int offset = 4;
+    if (extendedLength && (dataIn != null || le != null)) {
+      bytes[offset++] = (byte) 0x00;
+    }
+    if (dataIn != null) {
+      /* append Lc and ingoing data */
+      if (extendedLength) {
+        bytes[offset++] = (byte) (dataIn.length >> 8);
+      }
+      bytes[offset++] = (byte) dataIn.length;
+      System.arraycopy(dataIn, 0, bytes, offset, dataIn.length);
+      offset += dataIn.length;
+    }
+    if (le != null) {
+      /* append Le, always 0 in case 4 (see Calypso Reader Recommendations - T84) */
+      if (extendedLength) {
+        bytes[offset++] = (byte) (le >> 8);
+      }
+      bytes[offset] = (byte) le.intValue();
+    }
+    /* case 1: P3 is already 0 */
+
+    this.isCase4 = dataIn != null && le != null;
+    this.isExtendedLength = extendedLength && (dataIn != null || le != null);
+    this.successfulStatusCodes = DEFAULT_SUCCESSFUL_STATUS_CODES;
+    this.isSuccessfulStatusCodesSorted = true;
   }
 
   /**
    * Builds an APDU request from a raw byte buffer and the indication of case 4.
    *
+   * <p>The APDU is considered to use the extended length encoding if its length matches the
+   * extended encoding of its case: a fifth byte of 00h followed by a 2-byte Le (case 2), by a
+   * 2-byte Lc and the data field (case 3), or by a 2-byte Lc, the data field and a 2-byte Le (case
+   * 4).
+   *
    * @param bytes The bytes of the APDU's body.
    * @param isCase4 true if the APDU is case 4, false if not.
    * @throws IllegalArgumentException if the provided buffer is empty or shorter than 5 bytes
@@ -131,8 +266,61 @@ public ApduRequest(byte[] bytes, boolean isCase4) {
     Assert.getInstance().notNull(bytes, "bytes").greaterOrEqual(bytes.length, 5, "bytes.length");
     this.bytes = bytes;
     this.isCase4 = isCase4;
-    this.successfulStatusCodes = new HashSet<Integer>();
-    this.successfulStatusCodes.add(DEFAULT_SUCCESSFUL_CODE);
+    this.isExtendedLength = isExtendedLengthEncoding(bytes, isCase4);
+    this.successfulStatusCodes = DEFAULT_SUCCESSFUL_STATUS_CODES;
+    this.isSuccessfulStatusCodesSorted = true;
+  }
+
+  /**
+   * (private)<br>
+   * Tells if the length of the provided APDU matches the extended encoding of Lc and Le.
+   *
+   * <p>A short APDU never matches it: its fifth byte is 00h only if it has no data field, in which
+   * case it is at most 6 bytes long.
+   *
+   * @param bytes The bytes of the APDU's body, at least 5 bytes long.
+   * @param isCase4 true if the APDU is case 4, false if not.
+   * @return true if the APDU uses the extended length encoding.
+   */
+  private static boolean isExtendedLengthEncoding(byte[] bytes, boolean isCase4) {
+    if (bytes.length < 7 || bytes[4] != 0) {
+      return false;
+    }
+    int length = ((bytes[5] & 0xFF) << 8) | (bytes[6] & 0xFF);
+    if (isCase4) {
+      return bytes.length == 9 + length;
+    }
+    // case 2 (Le only) or case 3 (Lc and data)
+    return bytes.length == 7 || bytes.length == 7 + length;
+  }
+
+  /**
+   * (package-private)<br>
+   * Builds an APDU request from already encoded bytes, taking the other properties from a prototype
+   * request.
+   *
+   * <p>No check is performed, the bytes are supposed to have the same structure as those of the
+   * prototype.
+   *
+   * @param prototype The request from which the properties are taken.
+   * @param bytes The bytes of the APDU's body.
+   * @since 2.0
+   */
+  ApduRequest(ApduRequest prototype, byte[] bytes) {
+    this.bytes = bytes;
+    this.isCase4 = prototype.isCase4;
+    this.isExtendedLength = prototype.isExtendedLength;
+    // safe to share, the array is copied on write
+    this.successfulStatusCodes = prototype.getSortedSuccessfulStatusCodes();
+    this.isSuccessfulStatusCodesSorted = true;
+    this.chainingPolicy = prototype.chainingPolicy;
+    this.isSkipIfPreviousStatusCodeSet = prototype.isSkipIfPreviousStatusCodeSet;
+    this.skipIfPreviousStatusCode = prototype.skipIfPreviousStatusCode;
+    // safe to share, the array is copied on write
+    this.statusCodeJumps = prototype.statusCodeJumps;
+    this.repeatUntilStatusCode = prototype.repeatUntilStatusCode;
+    this.maxRepetitions = prototype.maxRepetitions;
+    this.name = prototype.name;
   }
 
   /**
@@ -167,24 +355,102 @@ private byte[] allocateBuffer(byte[] data, Byte le) {
    * @param successfulStatusCode A positive int &le; {@code FFFFh}.
    * @return the object instance.
    * @throws IllegalArgumentException If successfulStatusCode is out of range.
+   * @throws IllegalStateException If the request is frozen.
    * @since 2.0
    */
   public ApduRequest addSuccessfulStatusCode(int successfulStatusCode) {
+    checkNotFrozen();
     Assert.getInstance().isInRange(successfulStatusCode, 0, 0xFFFF, "successfulStatusCode");
-    this.successfulStatusCodes.add(successfulStatusCode);
+    int[] sortedStatusCodes = getSortedSuccessfulStatusCodes();
+    int index = Arrays.binarySearch(sortedStatusCodes, successfulStatusCode);
+    if (index < 0) {
+      // copy on write, the array may be the shared default one
+      int insertionPoint = -index - 1;
+      int[] statusCodes = new int[sortedStatusCodes.length + 1];
+      System.arraycopy(sortedStatusCodes, 0, statusCodes, 0, insertionPoint);
+      statusCodes[insertionPoint] = successfulStatusCode;
+      System.arraycopy(
+          sortedStatusCodes,
+          insertionPoint,
+          statusCodes,
+          insertionPoint + 1,
+          sortedStatusCodes.length - insertionPoint);
+      successfulStatusCodes = statusCodes;
+    }
     return this;
   }
 
   /**
    * Gets the list of status codes that must be considered successful for the APDU.
    *
-   * @return null if no successful code has been set.
+   * <p>Note: the returned set is an unmodifiable snapshot built at each call, it is not updated by
+   * {@link #addSuccessfulStatusCode(int)} and any attempt to modify it throws an {@link
+   * UnsupportedOperationException}; status codes must be added with {@link
+   * #addSuccessfulStatusCode(int)}. {@link #isSuccessfulStatusCode(int)} should be preferred to
+   * check a status code.
+   *
+   * @return A not empty unmodifiable set.
    * @since 2.0
    */
   public Set<Integer> getSuccessfulStatusCodes() {
+    Set<Integer> statusCodes = new HashSet<Integer>();
+    for (int statusCode : getSortedSuccessfulStatusCodes()) {
+      statusCodes.add(statusCode);
+    }
+    return Collections.unmodifiableSet(statusCodes);
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the sorted array of the successful status codes, without copy.
+   *
+   * @return A not empty array, which must not be modified.
+   * @since 2.0
+   */
+  int[] getSuccessfulStatusCodesArray() {
+    return getSortedSuccessfulStatusCodes();
+  }
+
+  /**
+   * (private)<br>
+   * Gets the sorted array of the successful status codes, sorting it first if it was filled by a
+   * deserializer (e.g. from the JSON of a remote peer), possibly in any order.
+   *
+   * @return A not empty sorted array.
+   */
+  private int[] getSortedSuccessfulStatusCodes() {
+    if (!isSuccessfulStatusCodesSorted) {
+      int[] statusCodes;
+      if (successfulStatusCodes == null || successfulStatusCodes.length == 0) {
+        statusCodes = DEFAULT_SUCCESSFUL_STATUS_CODES;
+      } else {
+        statusCodes = successfulStatusCodes.clone();
+        Arrays.sort(statusCodes);
+      }
+      successfulStatusCodes = statusCodes;
+      isSuccessfulStatusCodesSorted = true;
+    }
     return successfulStatusCodes;
   }
 
+  /**
+   * Indicates if the provided status code must be considered successful for the APDU.
+   *
+   * <p>This method neither allocates memory nor boxes the status code.
+   *
+   * @param statusCode The status code to check.
+   * @return true if the status code is one of the successful status codes, false if not.
+   * @since 2.0
+   */
+  public boolean isSuccessfulStatusCode(int statusCode) {
+    int[] sortedStatusCodes = getSortedSuccessfulStatusCodes();
+    if (sortedStatusCodes.length == 1) {
+      // most common case, only one successful status code
+      return sortedStatusCodes[0] == statusCode;
+    }
+    return Arrays.binarySearch(sortedStatusCodes, statusCode) >= 0;
+  }
+
   /**
    * Indicates if the APDU is of type case 4.
    *
@@ -195,6 +461,193 @@ public boolean isCase4() {
     return isCase4;
   }
 
+  /**
+   * Indicates if the APDU uses the extended length encoding of Lc and Le.
+   *
+   * @return True if Lc and Le are encoded on 2 bytes, false if they are encoded on 1 byte.
+   * @since 2.0
+   */
+  public boolean isExtendedLength() {
+    return isExtendedLength;
+  }
+
+  /**
+   * Sets the chaining policy to apply to this APDU, overriding the one of the {@link CardRequest}.
+   *
+   * @param chainingPolicy The chaining policy, null to apply the one of the card request.
+   * @return The object instance.
+   * @throws IllegalStateException If the request is frozen.
+   * @since 2.0
+   */
+  public ApduRequest setChainingPolicy(ChainingPolicy chainingPolicy) {
+    checkNotFrozen();
+    this.chainingPolicy = chainingPolicy;
+    return this;
+  }
+
+  /**
+   * Gets the chaining policy specific to this APDU.
+   *
+   * @return null if the chaining policy of the {@link CardRequest} applies.
+   * @since 2.0
+   */
+  public ChainingPolicy getChainingPolicy() {
+    return chainingPolicy;
+  }
+
+  /**
+   * Requests the APDU to be skipped if the previous APDU executed in the {@link CardRequest}
+   * returned the provided status code.
+   *
+   * @param statusCode A positive int &le; {@code FFFFh}.
+   * @return The object instance.
+   * @throws IllegalArgumentException If statusCode is out of range.
+   * @throws IllegalStateException If the request is frozen.
+   * @since 2.0
+   */
+  public ApduRequest setSkipIfPreviousStatusCode(int statusCode) {
+    checkNotFrozen();
+    Assert.getInstance().isInRange(statusCode, 0, 0xFFFF, "statusCode");
+    this.isSkipIfPreviousStatusCodeSet = true;
+    this.skipIfPreviousStatusCode = statusCode;
+    return this;
+  }
+
+  /**
+   * Gets the status code of the previous APDU leading to skip this one.
+   *
+   * @return -1 if the APDU is never skipped.
+   * @since 2.0
+   */
+  public int getSkipIfPreviousStatusCode() {
+    return isSkipIfPreviousStatusCodeSet ? skipIfPreviousStatusCode : -1;
+  }
+
+  /**
+   * Requests the execution of the {@link CardRequest} to continue at the provided index when this
+   * APDU returns the provided status code.
+   *
+   * <p>Only forward jumps are allowed: the target index must be greater than the index of this APDU
+   * in the card request, the number of APDUs of the card request meaning the end of the execution.
+   * A status code triggering a jump is considered successful. The jump is checked when the card
+   * request is built and again when it is executed (see {@link CardRequest#getJumpTarget(int,
+   * int)}).
+   *
+   * @param statusCode A positive int &le; {@code FFFFh}.
+   * @param targetIndex The index of the next APDU to execute.
+   * @return The object instance.
+   * @throws IllegalArgumentException If statusCode is out of range or targetIndex negative.
+   * @throws IllegalStateException If the request is frozen.
+   * @since 2.0
+   */
+  public ApduRequest addStatusCodeJump(int statusCode, int targetIndex) {
+    checkNotFrozen();
+    Assert.getInstance()
+        .isInRange(statusCode, 0, 0xFFFF, "statusCode")
+        .greaterOrEqual(targetIndex, 0, "targetIndex");
+    // copy on write, the array may be shared
+    int[] currentJumps = getStatusCodeJumpsArray();
+    int[] jumps;
+    int i = 0;
+    while (i < currentJumps.length && currentJumps[i] != statusCode) {
+      i += 2;
+    }
+    if (i < currentJumps.length) {
+      jumps = currentJumps.clone();
+    } else {
+      jumps = new int[i + 2];
+      System.arraycopy(currentJumps, 0, jumps, 0, i);
+      jumps[i] = statusCode;
+    }
+    jumps[i + 1] = targetIndex;
+    statusCodeJumps = jumps;
+    return this;
+  }
+
+  /**
+   * Gets the index at which the execution of the {@link CardRequest} continues when this APDU
+   * returns the provided status code.
+   *
+   * @param statusCode The status code received.
+   * @return -1 if no jump is associated with the status code.
+   * @since 2.0
+   */
+  public int getJumpTarget(int statusCode) {
+    int[] jumps = getStatusCodeJumpsArray();
+    for (int i = 0; i < jumps.length; i += 2) {
+      if (jumps[i] == statusCode) {
+        return jumps[i + 1];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the status code jumps as consecutive status code and target index pairs, without copy.
+   *
+   * @return A not null array, which must not be modified.
+   * @since 2.0
+   */
+  int[] getStatusCodeJumpsArray() {
+    return statusCodeJumps != null ? statusCodeJumps : NO_STATUS_CODE_JUMPS;
+  }
+
+  /**
+   * Requests the APDU to be sent again until it returns the provided status code, within the limit
+   * of the provided number of repetitions.
+   *
+   * <p>Only the response to the last execution is retained.
+   *
+   * @param statusCode A positive int &le; {@code FFFFh}.
+   * @param maxRepetitions The maximum number of additional executions, at least 1.
+   * @return The object instance.
+   * @throws IllegalArgumentException If one of the arguments is out of range.
+   * @throws IllegalStateException If the request is frozen.
+   * @since 2.0
+   */
+  public ApduRequest setRepeatUntilStatusCode(int statusCode, int maxRepetitions) {
+    checkNotFrozen();
+    Assert.getInstance()
+        .isInRange(statusCode, 0, 0xFFFF, "statusCode")
+        .greaterOrEqual(maxRepetitions, 1, "maxRepetitions");
+    this.repeatUntilStatusCode = statusCode;
+    this.maxRepetitions = maxRepetitions;
+    return this;
+  }
+
+  /**
+   * Gets the status code ending the repetition of the APDU.
+   *
+   * @return -1 if the APDU is not repeated.
+   * @since 2.0
+   */
+  public int getRepeatUntilStatusCode() {
+    return maxRepetitions != 0 ? repeatUntilStatusCode : -1;
+  }
+
+  /**
+   * Gets the maximum number of additional executions of the APDU.
+   *
+   * @return 0 if the APDU is not repeated.
+   * @since 2.0
+   */
+  public int getMaxRepetitions() {
+    return maxRepetitions;
+  }
+
+  /**
+   * Indicates if flow control rules have been defined for the APDU.
+   *
+   * @return true if the APDU has a skip, jump or repeat rule.
+   * @since 2.0
+   */
+  public boolean hasFlowControl() {
+    return isSkipIfPreviousStatusCodeSet
+        || (statusCodeJumps != null && statusCodeJumps.length != 0)
+        || maxRepetitions != 0;
+  }
+
   /**
    * Names the APDU request.
    *
@@ -203,9 +656,11 @@ public boolean isCase4() {
    *
    * @param name The request name (free text).
    * @return The object instance.
+   * @throws IllegalStateException If the request is frozen.
    * @since 2.0
    */
   public ApduRequest setName(final String name) {
+    checkNotFrozen();
     this.name = name;
     return this;
   }
@@ -220,13 +675,110 @@ public String getName() {
     return name;
   }
 
+  /**
+   * Indicates if the request is frozen, i.e. part of a frozen {@link CardSelectionScenario} (see
+   * {@link CardSelectionScenario#freeze()}).
+   *
+   * <p>The properties of a frozen request can no longer be modified and {@link #getBytes()} returns
+   * a copy of its bytes. The frozen state is not serialized: a deserialized request is not frozen.
+   *
+   * @return true if the request is frozen.
+   * @since 2.0
+   */
+  public boolean isFrozen() {
+    return isFrozen;
+  }
+
+  /**
+   * (package-private)<br>
+   * Builds a frozen copy of the request, whose bytes are copied as well.
+   *
+   * @return A not null reference.
+   * @since 2.0
+   */
+  ApduRequest frozenCopy() {
+    ApduRequest apduRequest = new ApduRequest(this, bytes.clone());
+    apduRequest.isFrozen = true;
+    return apduRequest;
+  }
+
+  /**
+   * (private)<br>
+   * Throws an exception if the request is frozen.
+   *
+   * @throws IllegalStateException If the request is frozen.
+   */
+  private void checkNotFrozen() {
+    if (isFrozen) {
+      throw new IllegalStateException("The APDU request is frozen.");
+    }
+  }
+
   /**
    * Gets the APDU bytes to be sent to the card.
    *
+   * <p>The array is returned without copy, except for a frozen request (see {@link #isFrozen()}),
+   * for which a new copy is returned at each call so that the APDU cannot be modified. The bytes of
+   * a frozen request can be read without copy with {@link #getLength()} and {@link #getByte(int)},
+   * or through the view returned by {@link #getBuffer()}.
+   *
    * @return A not null array.
    * @since 2.0
    */
   public byte[] getBytes() {
+    return isFrozen ? this.bytes.clone() : this.bytes;
+  }
+
+  /**
+   * Gets the length of the APDU to be sent to the card.
+   *
+   * @return A positive int.
+   * @since 2.0
+   */
+  public int getLength() {
+    return this.bytes.length;
+  }
+
+  /**
+   * Gets the byte located at the provided index of the APDU to be sent to the card.
+   *
+   * <p>Unlike {@link #getBytes()}, the bytes of a frozen request are not copied.
+   *
+   * @param index The index of the byte.
+   * @return A byte.
+   * @throws IndexOutOfBoundsException If the index is out of the APDU.
+   * @since 2.0
+   */
+  public byte getByte(int index) {
+    if (index < 0 || index >= this.bytes.length) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", length: " + this.bytes.length);
+    }
+    return this.bytes[index];
+  }
+
+  /**
+   * Gets a read-only view of the APDU to be sent to the card.
+   *
+   * <p>Unlike {@link #getBytes()}, the bytes of a frozen request are not copied. The position of
+   * the returned buffer is 0 and its limit is the APDU length; its bulk {@code get(byte[], int,
+   * int)} copies the APDU into a buffer owned by the caller. Each call returns a new buffer with
+   * its own position.
+   *
+   * @return A not null read-only buffer.
+   * @since 2.0
+   */
+  public ByteBuffer getBuffer() {
+    return ByteBuffer.wrap(this.bytes).asReadOnlyBuffer();
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the APDU bytes without copy, even for a frozen request.
+   *
+   * @return A not null array, which must not be modified.
+   * @since 2.0
+   */
+  byte[] getBytesArray() {
     return this.bytes;
   }
 
@@ -238,6 +790,6 @@ public byte[] getBytes() {
    */
   @Override
   public String toString() {
-    return "APDU_REQUEST = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("APDU_REQUEST = "), this).toString();
   }
 }
@@ -12,19 +12,51 @@
 package org.eclipse.keyple.core.card;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains a set of data related to an ISO-7816 APDU response.
  *
+ * <p>The factory methods {@link #valueOf(int)} and {@link #valueOf(byte[], int, int)} return shared
+ * instances for the most common status-only responses. To protect them, {@link #getBytes()} returns
+ * a copy of their bytes; {@link #getStatusCode()} and the other in-place getters should be
+ * preferred on hot paths.
+ *
+ * <p>The data part can be read in place in two ways: with the absolute getters {@link
+ * #getDataOutByte(int)}, {@link #getDataOutShort(int)} and {@link #getDataOutInt(int)}, or
+ * sequentially with the relative getters of the buffer returned by {@link #getDataOutBuffer()}.
+ * The relative getters are deliberately not provided by this class: a read position would make the
+ * instance mutable and could not be shared between threads, nor kept in the shared instances.
+ *
  * @since 2.0
  */
 public final class ApduResponse implements Serializable {
 
+  /** Sorted status codes for which a shared status-only instance exists. */
+  private static final int[] SHARED_STATUS_CODES =
+      new int[] {
+        0x6282, 0x6283, 0x6300, 0x6581, 0x6700, 0x6982, 0x6983, 0x6985, 0x6986, 0x6A80, 0x6A81,
+        0x6A82, 0x6A83, 0x6A86, 0x6A88, 0x6B00, 0x6D00, 0x6E00, 0x6F00, 0x9000
+      };
+
+  private static final ApduResponse[] SHARED_INSTANCES =
+      new ApduResponse[SHARED_STATUS_CODES.length];
+
+  static {
+    for (int i = 0; i < SHARED_STATUS_CODES.length; i++) {
+      SHARED_INSTANCES[i] =
+          new ApduResponse(
+              new byte[] {(byte) (SHARED_STATUS_CODES[i] >> 8), (byte) SHARED_STATUS_CODES[i]},
+              true);
+    }
+  }
+
   private final byte[] bytes;
   private final int statusCode;
+  // not serialized, a deserialized response being never shared
+  private final transient boolean isShared;
 
   /**
    * Builds an APDU response from an array of bytes from the card, computes the status code.
@@ -35,10 +67,68 @@ public final class ApduResponse implements Serializable {
    */
   public ApduResponse(byte[] bytes) {
 
+    this(bytes, false);
+  }
+
+  /**
+   * (private)<br>
+   * Builds an APDU response, possibly shared.
+   *
+   * @param bytes A byte array.
+   * @param isShared true if the instance is shared, its bytes being then copied by {@link
+   *     #getBytes()}.
+   * @throws IllegalArgumentException if the provided byte array is null or less than 2 bytes long.
+   */
+  private ApduResponse(byte[] bytes, boolean isShared) {
     Assert.getInstance().notNull(bytes, "bytes").greaterOrEqual(bytes.length, 2, "bytes.length");
     this.bytes = bytes;
-    statusCode =
-        ((bytes[bytes.length - 2] & 0x000000FF) << 8) + (bytes[bytes.length - 1] & 0x000000FF);
+    this.statusCode = BigEndian.getUnsignedShort(bytes, bytes.length - 2);
+    this.isShared = isShared;
+  }
+
+  /**
+   * Gets a status-only APDU response, without data.
+   *
+   * <p>A shared instance is returned for the most common status codes (e.g. {@code 9000h}, {@code
+   * 6282h}, {@code 6A82h}), a new one otherwise.
+   *
+   * @param statusCode A positive int &le; {@code FFFFh}.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If statusCode is out of range.
+   * @since 2.0
+   */
+  public static ApduResponse valueOf(int statusCode) {
+    Assert.getInstance().isInRange(statusCode, 0, 0xFFFF, "statusCode");
+    int index = Arrays.binarySearch(SHARED_STATUS_CODES, statusCode);
+    if (index >= 0) {
+      return SHARED_INSTANCES[index];
+    }
+    return new ApduResponse(new byte[] {(byte) (statusCode >> 8), (byte) statusCode});
+  }
+
+  /**
+   * Gets an APDU response from a slice of a receive buffer (including SW1SW2).
+   *
+   * <p>A status-only slice is resolved with {@link #valueOf(int)}, without copy. Otherwise the
+   * slice is copied once, so the buffer can be reused as soon as the method returns.
+   *
+   * @param buffer The receive buffer.
+   * @param offset The offset of the response in the buffer.
+   * @param length The length of the response, at least 2.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the buffer is null or if the slice is out of its bounds or
+   *     less than 2 bytes long.
+   * @since 2.0
+   */
+  public static ApduResponse valueOf(byte[] buffer, int offset, int length) {
+    Assert.getInstance()
+        .notNull(buffer, "buffer")
+        .isInRange(offset, 0, buffer.length, "offset")
+        .isInRange(length, 2, buffer.length - offset, "length");
+    if (length == 2) {
+      return valueOf(BigEndian.getUnsignedShort(buffer, offset));
+    }
+    return new ApduResponse(Arrays.copyOfRange(buffer, offset, offset + length));
   }
 
   /**
@@ -54,11 +144,14 @@ public int getStatusCode() {
   /**
    * Gets the raw data received from the card (including SW1SW2).
    *
+   * <p>The array is returned without copy, except for the shared instances returned by {@link
+   * #valueOf(int)}, for which a new copy is returned at each call.
+   *
    * @return A not null byte array.
    * @since 2.0
    */
   public byte[] getBytes() {
-    return this.bytes;
+    return isShared ? this.bytes.clone() : this.bytes;
   }
 
   /**
@@ -71,6 +164,92 @@ public byte[] getDataOut() {
     return Arrays.copyOfRange(this.bytes, 0, this.bytes.length - 2);
   }
 
+  /**
+   * Gets the length of the data part received from the card response (excluding SW1SW2).
+   *
+   * <p>The data part occupies the first bytes of the array returned by {@link #getBytes()}, which
+   * allows parsing it in place without calling {@link #getDataOut()}.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int getDataOutLength() {
+    return this.bytes.length - 2;
+  }
+
+  /**
+   * Gets a read-only view of the data part received from the card response (excluding SW1SW2).
+   *
+   * <p>Unlike {@link #getDataOut()}, the data is not copied. The position of the returned buffer is
+   * 0 and its limit is the data length.
+   *
+   * <p>The buffer is the cursor of the sequential parsing of the data: its relative getters ({@code
+   * get()}, {@code getShort()}, {@code getInt()}) read the big-endian values one after the other.
+   * Each call returns a new buffer with its own position.
+   *
+   * @return A not null read-only buffer.
+   * @since 2.0
+   */
+  public ByteBuffer getDataOutBuffer() {
+    return ByteBuffer.wrap(this.bytes, 0, this.bytes.length - 2).asReadOnlyBuffer();
+  }
+
+  /**
+   * Gets the byte located at the provided index of the data part of the response.
+   *
+   * @param index The index of the byte in the data part.
+   * @return A byte.
+   * @throws IndexOutOfBoundsException If the index is out of the data part.
+   * @since 2.0
+   */
+  public byte getDataOutByte(int index) {
+    checkDataOutIndex(index, 1);
+    return this.bytes[index];
+  }
+
+  /**
+   * Gets the big-endian 2-byte value located at the provided index of the data part of the
+   * response.
+   *
+   * @param index The index of the first byte in the data part.
+   * @return A short.
+   * @throws IndexOutOfBoundsException If the 2 bytes are not entirely within the data part.
+   * @since 2.0
+   */
+  public short getDataOutShort(int index) {
+    checkDataOutIndex(index, 2);
+    return BigEndian.getShort(this.bytes, index);
+  }
+
+  /**
+   * Gets the big-endian 4-byte value located at the provided index of the data part of the
+   * response.
+   *
+   * @param index The index of the first byte in the data part.
+   * @return An int.
+   * @throws IndexOutOfBoundsException If the 4 bytes are not entirely within the data part.
+   * @since 2.0
+   */
+  public int getDataOutInt(int index) {
+    checkDataOutIndex(index, 4);
+    return BigEndian.getInt(this.bytes, index);
+  }
+
+  /**
+   * (private)<br>
+   * Checks that the range of bytes to read is entirely within the data part of the response.
+   *
+   * @param index The index of the first byte.
+   * @param size The number of bytes to read.
+   * @throws IndexOutOfBoundsException If the range is out of the data part.
+   */
+  private void checkDataOutIndex(int index, int size) {
+    if (index < 0 || index > this.bytes.length - 2 - size) {
+      throw new IndexOutOfBoundsException(
+          "Index: " + index + ", size: " + size + ", data length: " + (this.bytes.length - 2));
+    }
+  }
+
   /**
    * Converts the APDU response into a string where the data is encoded in a json format.
    *
@@ -79,6 +258,6 @@ public byte[] getDataOut() {
    */
   @Override
   public String toString() {
-    return "APDU_RESPONSE = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("APDU_RESPONSE = "), this).toString();
   }
 }
@@ -0,0 +1,38 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * Receives each {@link ApduResponse} as soon as it has been received from the card, during the
+ * processing of a {@link CardRequest}.
+ *
+ * <p>The listener is invoked from the thread performing the transmission, before the next APDU is
+ * sent. Implementations should therefore return quickly.
+ *
+ * @see StreamingProxyReader#transmitCardRequest(CardRequest, ChannelControl, ApduResponseListener)
+ * @since 2.0
+ */
+public interface ApduResponseListener {
+
+  /**
+   * Invoked for each APDU response received from the card, in the order of the requests.
+   *
+   * <p>The status code check policy of the card request is applied after the notification.
+   *
+   * @param index The index of the {@link ApduRequest} in the card request.
+   * @param apduRequest The APDU request that has been sent.
+   * @param apduResponse The APDU response received from the card.
+   * @return true to continue the processing of the card request, false to stop it.
+   * @since 2.0
+   */
+  boolean onApduResponse(int index, ApduRequest apduRequest, ApduResponse apduResponse);
+}
@@ -0,0 +1,211 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * This class contains a precompiled APDU command from which {@link ApduRequest} instances differing
+ * only by P1, P2 or the content of the data field can be produced at low cost.
+ *
+ * <p>The arguments are checked and the APDU is encoded once when the template is built. The
+ * creation of a request then only copies the encoded APDU and patches the varying fields, without
+ * any further check.
+ *
+ * <p>The template can be shared between threads once configured.
+ *
+ * @since 2.0
+ */
+public final class ApduTemplate {
+
+  private final ApduRequest prototype;
+  private final int dataOffset;
+  private final int dataLength;
+
+  /**
+   * Builds an APDU template from its elements as defined by the ISO 7816 standard.
+   *
+   * <p>The rules are the same as for {@link ApduRequest#ApduRequest(byte, byte, byte, byte, byte[],
+   * Byte)}. When provided, dataIn sets both the length and the default content of the data field.
+   *
+   * @param cla The class byte.
+   * @param instruction The instruction byte.
+   * @param p1 The default parameter 1.
+   * @param p2 The default parameter 2.
+   * @param dataIn The default data field of the command.
+   * @param le The maximum number of bytes expected in the data field of the response to the
+   *     command.
+   * @throws IllegalArgumentException in case of inconsistencies in the input data.
+   * @since 2.0
+   */
+  public ApduTemplate(byte cla, byte instruction, byte p1, byte p2, byte[] dataIn, Byte le) {
+    this(new ApduRequest(cla, instruction, p1, p2, dataIn, le), dataIn);
+  }
+
+  /**
+   * Builds an APDU template from its elements as defined by the ISO 7816 standard, choosing between
+   * the short and the extended encoding of Lc and Le.
+   *
+   * <p>The rules are the same as for {@link ApduRequest#ApduRequest(byte, byte, byte, byte, byte[],
+   * Integer, boolean)}. When provided, dataIn sets both the length and the default content of the
+   * data field.
+   *
+   * @param cla The class byte.
+   * @param instruction The instruction byte.
+   * @param p1 The default parameter 1.
+   * @param p2 The default parameter 2.
+   * @param dataIn The default data field of the command.
+   * @param le The maximum number of bytes expected in the data field of the response to the
+   *     command.
+   * @param extendedLength true to use the extended length encoding, false to use the short one.
+   * @throws IllegalArgumentException in case of inconsistencies in the input data.
+   * @since 2.0
+   */
+  public ApduTemplate(
+      byte cla,
+      byte instruction,
+      byte p1,
+      byte p2,
+      byte[] dataIn,
+      Integer le,
+      boolean extendedLength) {
+    this(new ApduRequest(cla, instruction, p1, p2, dataIn, le, extendedLength), dataIn);
+  }
+
+  /**
+   * (private)<br>
+   * Builds the template from its prototype request.
+   *
+   * @param prototype The encoded request.
+   * @param dataIn The data field of the request (could be null).
+   */
+  private ApduTemplate(ApduRequest prototype, byte[] dataIn) {
+    this.prototype = prototype;
+    if (dataIn != null) {
+      // the data field follows Lc, encoded on 1 byte or on 3 bytes in extended form
+      this.dataOffset = prototype.isExtendedLength() ? 7 : 5;
+      this.dataLength = dataIn.length;
+    } else {
+      this.dataOffset = -1;
+      this.dataLength = 0;
+    }
+  }
+
+  /**
+   * Adds a status code to the list of those that should be considered successful for the APDU
+   * requests created from this template.
+   *
+   * @param successfulStatusCode A positive int &le; {@code FFFFh}.
+   * @return The object instance.
+   * @throws IllegalArgumentException If successfulStatusCode is out of range.
+   * @see ApduRequest#addSuccessfulStatusCode(int)
+   * @since 2.0
+   */
+  public ApduTemplate addSuccessfulStatusCode(int successfulStatusCode) {
+    prototype.addSuccessfulStatusCode(successfulStatusCode);
+    return this;
+  }
+
+  /**
+   * Names the APDU requests created from this template.
+   *
+   * @param name The request name (free text).
+   * @return The object instance.
+   * @see ApduRequest#setName(String)
+   * @since 2.0
+   */
+  public ApduTemplate setName(final String name) {
+    prototype.setName(name);
+    return this;
+  }
+
+  /**
+   * Gets the length of the encoded APDU.
+   *
+   * @return A positive int.
+   * @since 2.0
+   */
+  public int getLength() {
+    return prototype.getBytesArray().length;
+  }
+
+  /**
+   * Gets the length of the data field.
+   *
+   * @return 0 if the APDU has no data field.
+   * @since 2.0
+   */
+  public int getDataLength() {
+    return dataLength;
+  }
+
+  /**
+   * Creates an APDU request from the template with the provided P1 and P2 values.
+   *
+   * @param p1 The parameter 1.
+   * @param p2 The parameter 2.
+   * @return A new APDU request.
+   * @since 2.0
+   */
+  public ApduRequest createApduRequest(byte p1, byte p2) {
+    return createApduRequest(new byte[getLength()], p1, p2, null);
+  }
+
+  /**
+   * Creates an APDU request from the template with the provided P1, P2 and data field values.
+   *
+   * @param p1 The parameter 1.
+   * @param p2 The parameter 2.
+   * @param dataIn The data field, having the length defined by the template.
+   * @return A new APDU request.
+   * @throws IllegalArgumentException If the length of dataIn differs from the template one.
+   * @since 2.0
+   */
+  public ApduRequest createApduRequest(byte p1, byte p2, byte[] dataIn) {
+    return createApduRequest(new byte[getLength()], p1, p2, dataIn);
+  }
+
+  /**
+   * Creates an APDU request from the template, encoding it into the provided buffer.
+   *
+   * <p>The buffer becomes the APDU bytes of the returned request (see {@link
+   * ApduRequest#getBytes()}), it must therefore not be reused before the request has been
+   * transmitted.
+   *
+   * @param buffer The buffer, having the length of the template (see {@link #getLength()}).
+   * @param p1 The parameter 1.
+   * @param p2 The parameter 2.
+   * @param dataIn The data field, having the length defined by the template, or null to keep the
+   *     default content.
+   * @return A new APDU request.
+   * @throws IllegalArgumentException If the length of the buffer or of dataIn differs from the
+   *     template one.
+   * @since 2.0
+   */
+  public ApduRequest createApduRequest(byte[] buffer, byte p1, byte p2, byte[] dataIn) {
+    byte[] bytes = prototype.getBytesArray();
+    Assert.getInstance()
+        .notNull(buffer, "buffer")
+        .isEqual(buffer.length, bytes.length, "buffer.length");
+    System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+    buffer[2] = p1;
+    buffer[3] = p2;
+    if (dataIn != null) {
+      if (dataIn.length != dataLength || dataOffset < 0) {
+        throw new IllegalArgumentException(
+            "dataIn.length must be equal to " + dataLength + ": " + dataIn.length);
+      }
+      System.arraycopy(dataIn, 0, buffer, dataOffset, dataLength);
+    }
+    return new ApduRequest(prototype, buffer);
+  }
+}
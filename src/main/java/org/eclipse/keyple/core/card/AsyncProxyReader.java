@@ -0,0 +1,44 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} able to transmit card requests asynchronously.
+ *
+ * @see CardResponseCallback
+ * @since 2.0
+ */
+public interface AsyncProxyReader extends ProxyReader {
+
+  /**
+   * Transmits a {@link CardRequest} asynchronously, applies the provided {@link ChannelControl}
+   * policy and notifies the provided {@link CardResponseCallback} of the result.
+   *
+   * <p>This method returns immediately without waiting for the end of the exchanges with the card.
+   * The processing is the same as for {@link #transmitCardRequest(CardRequest, ChannelControl)},
+   * the {@link CardResponse} or the {@link AbstractApduException} being passed to the callback
+   * instead of being returned or thrown. Any other error raised during the processing is passed to
+   * the callback as described in {@link CardResponseCallback#onFailure(AbstractApduException)}, so
+   * that the callback is always notified.
+   *
+   * <p>Card requests submitted to the same reader are processed one after the other, in the order
+   * of submission.
+   *
+   * @param cardRequest The card request.
+   * @param channelControl The channel control policy to apply.
+   * @param callback The callback to be notified of the result.
+   * @throws IllegalArgumentException If one of the arguments is null.
+   * @since 2.0
+   */
+  void transmitCardRequestAsync(
+      CardRequest cardRequest, ChannelControl channelControl, CardResponseCallback callback);
+}
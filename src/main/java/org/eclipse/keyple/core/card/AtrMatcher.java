@@ -0,0 +1,314 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Set of ATR patterns compiled into a byte-level trie, classifying an ATR against all the patterns
+ * in a single pass over its bytes.
+ *
+ * <p>A pattern is a value/mask pair: an ATR matches it if it is at least as long as the value and
+ * if all its first bytes are equal to those of the value once masked, as with {@link
+ * CardResourceProfileMatchCriteria#matchesAtr(byte[])}. A pattern shorter than the ATRs is thus a
+ * prefix pattern.
+ *
+ * <p>The patterns sharing the same first masked bytes share the same trie nodes, so the cost of a
+ * classification depends on the length of the ATR and the number of distinct masks rather than on
+ * the number of patterns. The subtrees which cannot contain a pattern added before the best match
+ * found so far are skipped by {@link #match(byte[])}, which does not allocate memory.
+ *
+ * <p>The patterns must all be added before the matcher is shared between threads.
+ *
+ * @param <T> The type of the elements associated with the patterns (e.g. product identifiers).
+ * @since 2.0
+ */
+public final class AtrMatcher<T> {
+
+  private final Node<T> root = new Node<T>();
+  private int patternCount;
+
+  /**
+   * Adds a pattern.
+   *
+   * @param atrValue The expected value of the first ATR bytes.
+   * @param atrMask The mask applied to the ATR bytes and the value before comparison, of the same
+   *     length as the value, null to compare all the bits.
+   * @param element The element associated with the pattern.
+   * @return The object instance.
+   * @throws IllegalArgumentException If the value or the element is null or if the mask length
+   *     differs from the value length.
+   * @since 2.0
+   */
+  public AtrMatcher<T> add(byte[] atrValue, byte[] atrMask, T element) {
+    Assert.getInstance().notNull(atrValue, "atrValue").notNull(element, "element");
+    if (atrMask != null) {
+      Assert.getInstance().isEqual(atrMask.length, atrValue.length, "atrMask.length");
+    }
+    int index = patternCount++;
+    Node<T> node = root;
+    if (node.firstIndex == -1) {
+      node.firstIndex = index;
+    }
+    for (int i = 0; i < atrValue.length; i++) {
+      int mask = atrMask != null ? atrMask[i] & 0xFF : 0xFF;
+      node = node.getOrCreateChild(mask, atrValue[i] & mask);
+      if (node.firstIndex == -1) {
+        node.firstIndex = index;
+      }
+    }
+    node.entries.add(new Entry<T>(index, element));
+    return this;
+  }
+
+  /**
+   * Gets the element of the first added pattern matching the provided ATR.
+   *
+   * <p>The classification does not allocate memory.
+   *
+   * @param atr The ATR bytes.
+   * @return Null if no pattern matches.
+   * @throws IllegalArgumentException If the ATR is null.
+   * @since 2.0
+   */
+  public T match(byte[] atr) {
+    Assert.getInstance().notNull(atr, "atr");
+    Entry<T> first = findFirst(root, atr, 0, null);
+    return first != null ? first.element : null;
+  }
+
+  /**
+   * Gets the elements of all the patterns matching the provided ATR.
+   *
+   * @param atr The ATR bytes.
+   * @return A not null list, in the order in which the patterns have been added.
+   * @throws IllegalArgumentException If the ATR is null.
+   * @since 2.0
+   */
+  public List<T> matchAll(byte[] atr) {
+    Assert.getInstance().notNull(atr, "atr");
+    List<Entry<T>> entries = new ArrayList<Entry<T>>();
+    collect(root, atr, 0, entries);
+    Collections.sort(entries);
+    List<T> elements = new ArrayList<T>(entries.size());
+    for (Entry<T> entry : entries) {
+      elements.add(entry.element);
+    }
+    return elements;
+  }
+
+  /**
+   * Gets the number of patterns added.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int size() {
+    return patternCount;
+  }
+
+  /**
+   * (private)<br>
+   * Finds the entry of lowest rank among the nodes reached by the ATR bytes from the provided node.
+   *
+   * <p>The walk follows the last matching child of each node in a loop and only recurses into the
+   * other ones, skipping the subtrees which cannot contain an entry of lower rank than the best one
+   * found so far.
+   *
+   * @param node The current node.
+   * @param atr The ATR bytes.
+   * @param depth The index of the ATR byte to compare with the children of the node.
+   * @param first The best entry found so far, null if none.
+   * @return The best entry, null if none.
+   */
+  private static <T> Entry<T> findFirst(Node<T> node, byte[] atr, int depth, Entry<T> first) {
+    while (node != null && (first == null || node.firstIndex < first.index)) {
+      if (!node.entries.isEmpty()) {
+        // the entries of a node are sorted by rank
+        Entry<T> entry = node.entries.get(0);
+        if (first == null || entry.index < first.index) {
+          first = entry;
+        }
+      }
+      if (depth == atr.length) {
+        break;
+      }
+      int b = atr[depth] & 0xFF;
+      Node<T> next = null;
+      for (int mask : node.masks) {
+        Node<T> child = node.getChild((mask << 8) | (b & mask));
+        if (child != null) {
+          if (next != null) {
+            first = findFirst(next, atr, depth + 1, first);
+          }
+          next = child;
+        }
+      }
+      node = next;
+      depth++;
+    }
+    return first;
+  }
+
+  /**
+   * (private)<br>
+   * Collects the entries of the nodes reached by the ATR bytes from the provided node.
+   *
+   * <p>The walk follows the last matching child of each node in a loop and only recurses into the
+   * other ones.
+   *
+   * @param node The current node.
+   * @param atr The ATR bytes.
+   * @param depth The index of the ATR byte to compare with the children of the node.
+   * @param entries The destination list.
+   */
+  private static <T> void collect(Node<T> node, byte[] atr, int depth, List<Entry<T>> entries) {
+    while (node != null) {
+      entries.addAll(node.entries);
+      if (depth == atr.length) {
+        return;
+      }
+      int b = atr[depth] & 0xFF;
+      Node<T> next = null;
+      for (int mask : node.masks) {
+        Node<T> child = node.getChild((mask << 8) | (b & mask));
+        if (child != null) {
+          if (next != null) {
+            collect(next, atr, depth + 1, entries);
+          }
+          next = child;
+        }
+      }
+      node = next;
+      depth++;
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Trie node, whose children are indexed by mask and masked value of the next byte.
+   *
+   * <p>The children are kept in an array sorted by key ({@code mask << 8 | maskedValue}) and
+   * searched by dichotomy, so that the classification neither boxes the keys nor allocates memory.
+   */
+  private static final class Node<T> {
+
+    private int[] masks = new int[0];
+    private int[] keys = new int[0];
+    private Node<T>[] children = newNodeArray(0);
+    // rank of the first pattern added to the subtree, which is the lowest one
+    private int firstIndex = -1;
+    private final List<Entry<T>> entries = new ArrayList<Entry<T>>(0);
+
+    /**
+     * (private)<br>
+     * Gets the child associated with a key.
+     *
+     * @param key The mask and the masked value, as {@code mask << 8 | maskedValue}.
+     * @return Null if there is no such child.
+     */
+    private Node<T> getChild(int key) {
+      int i = Arrays.binarySearch(keys, key);
+      return i >= 0 ? children[i] : null;
+    }
+
+    /**
+     * (private)<br>
+     * Gets the child associated with a mask and a masked value, creating it if needed.
+     *
+     * @param mask The mask.
+     * @param maskedValue The masked value.
+     * @return A not null reference.
+     */
+    private Node<T> getOrCreateChild(int mask, int maskedValue) {
+      int key = (mask << 8) | maskedValue;
+      int i = Arrays.binarySearch(keys, key);
+      if (i >= 0) {
+        return children[i];
+      }
+      i = -i - 1;
+      Node<T> child = new Node<T>();
+      int[] newKeys = new int[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, i);
+      System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+      newKeys[i] = key;
+      Node<T>[] newChildren = newNodeArray(children.length + 1);
+      System.arraycopy(children, 0, newChildren, 0, i);
+      System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+      newChildren[i] = child;
+      keys = newKeys;
+      children = newChildren;
+      boolean isNewMask = true;
+      for (int m : masks) {
+        if (m == mask) {
+          isNewMask = false;
+          break;
+        }
+      }
+      if (isNewMask) {
+        int[] newMasks = new int[masks.length + 1];
+        System.arraycopy(masks, 0, newMasks, 0, masks.length);
+        newMasks[masks.length] = mask;
+        masks = newMasks;
+      }
+      return child;
+    }
+
+    /**
+     * (private)<br>
+     * Creates an array of nodes.
+     *
+     * @param length The array length.
+     * @return A not null array.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodeArray(int length) {
+      return (Node<T>[]) new Node<?>[length];
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Element associated with a pattern, with the rank of the pattern.
+   */
+  private static final class Entry<T> implements Comparable<Entry<T>> {
+
+    private final int index;
+    private final T element;
+
+    /**
+     * (private)<br>
+     * Builds an entry.
+     *
+     * @param index The rank of the pattern.
+     * @param element The element.
+     */
+    private Entry(int index, T element) {
+      this.index = index;
+      this.element = element;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Orders the entries by pattern rank.
+     */
+    @Override
+    public int compareTo(Entry<T> o) {
+      return index < o.index ? -1 : (index == o.index ? 0 : 1);
+    }
+  }
+}
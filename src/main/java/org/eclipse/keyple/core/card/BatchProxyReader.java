@@ -0,0 +1,56 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.List;
+
+/**
+ * {@link ProxyReader} able to transmit a batch of independent card requests.
+ *
+ * @since 2.0
+ */
+public interface BatchProxyReader extends ProxyReader {
+
+  /**
+   * Transmits a batch of independent {@link CardRequest}s and returns their {@link
+   * CardRequestOutcome}s, allowing the reader implementation to pipeline or parallelize them in its
+   * driver.
+   *
+   * <p>The card requests are processed as with {@link
+   * OutcomeProxyReader#transmitCardRequest(CardRequest, ChannelControl, CardRequestOutcome)}, the
+   * provided {@link ChannelControl} policy being applied after the last one. An unexpected status
+   * code does not interrupt the batch: it is reported by the outcome of the card request concerned,
+   * with the index of the APDU and the status code.
+   *
+   * <p>A card communication failure interrupts the batch, since the card may have been removed. It
+   * is reported by the outcome of the card request concerned, with status {@link
+   * CardRequestOutcome.Status#CARD_COMMUNICATION_FAILURE}; the outcomes of the following card
+   * requests, which are not transmitted, have status {@link CardRequestOutcome.Status#NONE}.
+   *
+   * <p>The card requests may target different logical channels through the class byte of their
+   * APDUs (see {@link LogicalChannelManager#encodeChannelNumber(byte, int)}). They are all sent
+   * through this reader, the cards of several slots being reached through their own readers (see
+   * {@link CardRequestBatchExecutor}).
+   *
+   * @param cardRequests A not empty list of card requests.
+   * @param channelControl The channel control policy to apply after the last card request.
+   * @return A not null list containing the outcome of each card request, in the same order.
+   * @throws IllegalArgumentException If the list is null or empty.
+   * @throws ReaderCommunicationException If the communication with the reader has failed, which
+   *     interrupts the whole batch; the exception then carries the partial response of the card
+   *     request being processed.
+   * @since 2.0
+   */
+  List<CardRequestOutcome> transmitCardRequests(
+      List<CardRequest> cardRequests, ChannelControl channelControl)
+      throws ReaderCommunicationException;
+}
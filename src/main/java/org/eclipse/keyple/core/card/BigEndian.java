@@ -0,0 +1,73 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * (package-private)<br>
+ * Reads big-endian values from byte arrays.
+ *
+ * <p>This baseline implementation is replaced on Java 9 and later by an implementation based on
+ * byte array view var handles, provided in {@code META-INF/versions/9} of the multi-release JAR.
+ * Both implementations must keep the same signatures.
+ *
+ * @since 2.0
+ */
+final class BigEndian {
+
+  /**
+   * (private)<br>
+   * Constructor.
+   */
+  private BigEndian() {}
+
+  /**
+   * (package-private)<br>
+   * Reads a signed 16-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return The value.
+   * @since 2.0
+   */
+  static short getShort(byte[] bytes, int index) {
+    return (short) ((bytes[index] << 8) | (bytes[index + 1] & 0xFF));
+  }
+
+  /**
+   * (package-private)<br>
+   * Reads an unsigned 16-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return A positive int &le; {@code FFFFh}.
+   * @since 2.0
+   */
+  static int getUnsignedShort(byte[] bytes, int index) {
+    return ((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF);
+  }
+
+  /**
+   * (package-private)<br>
+   * Reads a signed 32-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return The value.
+   * @since 2.0
+   */
+  static int getInt(byte[] bytes, int index) {
+    return (bytes[index] << 24)
+        | ((bytes[index + 1] & 0xFF) << 16)
+        | ((bytes[index + 2] & 0xFF) << 8)
+        | (bytes[index + 3] & 0xFF);
+  }
+}
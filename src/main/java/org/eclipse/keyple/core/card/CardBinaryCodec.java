@@ -0,0 +1,659 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.core.common.KeypleCardSelector;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Compact binary codec for the card requests and responses, intended for the communication with
+ * remote readers.
+ *
+ * <p>Each encoded object starts with a format version byte ({@value #FORMAT_VERSION}), checked when
+ * decoding. Lengths and counts are encoded as unsigned variable-length integers (7 bits per byte,
+ * most significant bit set on all bytes but the last), byte arrays are written as is.
+ *
+ * <p>The objects are encoded directly into the caller-supplied {@link ByteBuffer}, starting at its
+ * current position. A {@link java.nio.BufferOverflowException} is thrown if the buffer is too small
+ * and a {@link java.nio.BufferUnderflowException} if the data to be decoded is truncated. The
+ * decoded lengths and counts are checked against the remaining data before any allocation, an
+ * {@link IllegalArgumentException} being thrown if they exceed it.
+ *
+ * <p>Card selectors being defined outside of this API, their encoding is delegated to a {@link
+ * CardSelectorCodec} provided by the caller.
+ *
+ * @since 2.0
+ */
+public final class CardBinaryCodec {
+
+  /**
+   * Version of the binary format: {@value}
+   *
+   * @since 2.0
+   */
+  public static final byte FORMAT_VERSION = 1;
+
+  private static final String CHARSET = "UTF-8";
+
+  private static final int APDU_REQUEST_CASE_4 = 0x01;
+  private static final int APDU_REQUEST_NAME = 0x02;
+  private static final int APDU_REQUEST_CHAINING_POLICY = 0x04;
+  private static final int APDU_REQUEST_FLOW_CONTROL = 0x08;
+  private static final int CARD_REQUEST_STATUS_CODES_VERIFICATION = 0x01;
+  private static final int CARD_RESPONSE_LOGICAL_CHANNEL_OPEN = 0x01;
+  private static final int CARD_RESPONSE_COMPLETE = 0x02;
+  private static final int SELECTION_STATUS_ATR = 0x01;
+  private static final int SELECTION_STATUS_FCI = 0x02;
+  private static final int SELECTION_STATUS_MATCHED = 0x04;
+
+  /**
+   * Encodes and decodes the {@link KeypleCardSelector} of the card selection requests.
+   *
+   * @since 2.0
+   */
+  public interface CardSelectorCodec {
+
+    /**
+     * Encodes the provided card selector into the buffer.
+     *
+     * @param cardSelector The card selector.
+     * @param buffer The destination buffer.
+     * @since 2.0
+     */
+    void encode(KeypleCardSelector cardSelector, ByteBuffer buffer);
+
+    /**
+     * Decodes a card selector from the buffer.
+     *
+     * @param buffer The source buffer.
+     * @return A not null reference.
+     * @since 2.0
+     */
+    KeypleCardSelector decode(ByteBuffer buffer);
+  }
+
+  /** Private constructor */
+  private CardBinaryCodec() {}
+
+  /**
+   * Encodes an {@link ApduRequest}.
+   *
+   * @param apduRequest The APDU request.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(ApduRequest apduRequest, ByteBuffer buffer) {
+    buffer.put(FORMAT_VERSION);
+    writeApduRequest(apduRequest, buffer);
+  }
+
+  /**
+   * Decodes an {@link ApduRequest}.
+   *
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static ApduRequest decodeApduRequest(ByteBuffer buffer) {
+    checkVersion(buffer);
+    return readApduRequest(buffer);
+  }
+
+  /**
+   * Encodes a {@link CardRequest}.
+   *
+   * @param cardRequest The card request.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(CardRequest cardRequest, ByteBuffer buffer) {
+    buffer.put(FORMAT_VERSION);
+    writeCardRequest(cardRequest, buffer);
+  }
+
+  /**
+   * Decodes a {@link CardRequest}.
+   *
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static CardRequest decodeCardRequest(ByteBuffer buffer) {
+    checkVersion(buffer);
+    return readCardRequest(buffer);
+  }
+
+  /**
+   * Encodes a {@link CardResponse}.
+   *
+   * @param cardResponse The card response.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(CardResponse cardResponse, ByteBuffer buffer) {
+    buffer.put(FORMAT_VERSION);
+    writeCardResponse(cardResponse, buffer);
+  }
+
+  /**
+   * Decodes a {@link CardResponse}.
+   *
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static CardResponse decodeCardResponse(ByteBuffer buffer) {
+    checkVersion(buffer);
+    return readCardResponse(buffer);
+  }
+
+  /**
+   * Encodes a {@link CardSelectionRequest}.
+   *
+   * @param cardSelectionRequest The card selection request.
+   * @param cardSelectorCodec The codec of the card selector.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(
+      CardSelectionRequest cardSelectionRequest,
+      CardSelectorCodec cardSelectorCodec,
+      ByteBuffer buffer) {
+    buffer.put(FORMAT_VERSION);
+    writeCardSelectionRequest(cardSelectionRequest, cardSelectorCodec, buffer);
+  }
+
+  /**
+   * Decodes a {@link CardSelectionRequest}.
+   *
+   * @param cardSelectorCodec The codec of the card selector.
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static CardSelectionRequest decodeCardSelectionRequest(
+      CardSelectorCodec cardSelectorCodec, ByteBuffer buffer) {
+    checkVersion(buffer);
+    return readCardSelectionRequest(cardSelectorCodec, buffer);
+  }
+
+  /**
+   * Encodes a {@link CardSelectionResponse}.
+   *
+   * @param cardSelectionResponse The card selection response.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(CardSelectionResponse cardSelectionResponse, ByteBuffer buffer) {
+    buffer.put(FORMAT_VERSION);
+    writeCardSelectionResponse(cardSelectionResponse, buffer);
+  }
+
+  /**
+   * Decodes a {@link CardSelectionResponse}.
+   *
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static CardSelectionResponse decodeCardSelectionResponse(ByteBuffer buffer) {
+    checkVersion(buffer);
+    return readCardSelectionResponse(buffer);
+  }
+
+  /**
+   * Encodes a {@link CardSelectionScenario}.
+   *
+   * <p>The binary form of a scenario frozen with the same selector codec is copied as is (see
+   * {@link CardSelectionScenario#freeze(CardSelectorCodec)}).
+   *
+   * @param cardSelectionScenario The card selection scenario.
+   * @param cardSelectorCodec The codec of the card selectors.
+   * @param buffer The destination buffer.
+   * @since 2.0
+   */
+  public static void encode(
+      CardSelectionScenario cardSelectionScenario,
+      CardSelectorCodec cardSelectorCodec,
+      ByteBuffer buffer) {
+    byte[] encodedForm = cardSelectionScenario.getEncodedForm(cardSelectorCodec);
+    if (encodedForm != null) {
+      buffer.put(encodedForm);
+      return;
+    }
+    buffer.put(FORMAT_VERSION);
+    buffer.put((byte) cardSelectionScenario.getMultiSelectionProcessing().ordinal());
+    buffer.put((byte) cardSelectionScenario.getChannelControl().ordinal());
+    List<CardSelectionRequest> cardSelectionRequests =
+        cardSelectionScenario.getCardSelectionRequests();
+    writeLength(cardSelectionRequests.size(), buffer);
+    for (CardSelectionRequest cardSelectionRequest : cardSelectionRequests) {
+      writeCardSelectionRequest(cardSelectionRequest, cardSelectorCodec, buffer);
+    }
+  }
+
+  /**
+   * Decodes a {@link CardSelectionScenario}.
+   *
+   * @param cardSelectorCodec The codec of the card selectors.
+   * @param buffer The source buffer.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the format version or the data is invalid.
+   * @since 2.0
+   */
+  public static CardSelectionScenario decodeCardSelectionScenario(
+      CardSelectorCodec cardSelectorCodec, ByteBuffer buffer) {
+    checkVersion(buffer);
+    MultiSelectionProcessing multiSelectionProcessing =
+        readEnum(MultiSelectionProcessing.values(), buffer);
+    ChannelControl channelControl = readEnum(ChannelControl.values(), buffer);
+    int count = readCount(buffer, 1);
+    List<CardSelectionRequest> cardSelectionRequests = new ArrayList<CardSelectionRequest>(count);
+    for (int i = 0; i < count; i++) {
+      cardSelectionRequests.add(readCardSelectionRequest(cardSelectorCodec, buffer));
+    }
+    return new CardSelectionScenario(
+        cardSelectionRequests, multiSelectionProcessing, channelControl);
+  }
+
+  /**
+   * (private)<br>
+   * Reads and checks the format version.
+   *
+   * @param buffer The source buffer.
+   * @throws IllegalArgumentException If the version is not supported.
+   */
+  private static void checkVersion(ByteBuffer buffer) {
+    byte version = buffer.get();
+    if (version != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unsupported format version: " + version);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Writes an APDU request without format version.
+   */
+  private static void writeApduRequest(ApduRequest apduRequest, ByteBuffer buffer) {
+    int flags = 0;
+    if (apduRequest.isCase4()) {
+      flags |= APDU_REQUEST_CASE_4;
+    }
+    if (apduRequest.getName() != null) {
+      flags |= APDU_REQUEST_NAME;
+    }
+    if (apduRequest.getChainingPolicy() != null) {
+      flags |= APDU_REQUEST_CHAINING_POLICY;
+    }
+    if (apduRequest.hasFlowControl()) {
+      flags |= APDU_REQUEST_FLOW_CONTROL;
+    }
+    buffer.put((byte) flags);
+    writeBytes(apduRequest.getBytesArray(), buffer);
+    int[] successfulStatusCodes = apduRequest.getSuccessfulStatusCodesArray();
+    writeLength(successfulStatusCodes.length, buffer);
+    for (int successfulStatusCode : successfulStatusCodes) {
+      buffer.putShort((short) successfulStatusCode);
+    }
+    if (apduRequest.getChainingPolicy() != null) {
+      buffer.put((byte) apduRequest.getChainingPolicy().ordinal());
+    }
+    if (apduRequest.hasFlowControl()) {
+      writeFlowControl(apduRequest, buffer);
+    }
+    if (apduRequest.getName() != null) {
+      writeString(apduRequest.getName(), buffer);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Writes the flow control rules of an APDU request, the absent status codes being encoded as
+   * {@code FFFFFFFFh}.
+   */
+  private static void writeFlowControl(ApduRequest apduRequest, ByteBuffer buffer) {
+    buffer.putInt(apduRequest.getSkipIfPreviousStatusCode());
+    int[] statusCodeJumps = apduRequest.getStatusCodeJumpsArray();
+    writeLength(statusCodeJumps.length / 2, buffer);
+    for (int i = 0; i < statusCodeJumps.length; i += 2) {
+      buffer.putShort((short) statusCodeJumps[i]);
+      writeLength(statusCodeJumps[i + 1], buffer);
+    }
+    buffer.putInt(apduRequest.getRepeatUntilStatusCode());
+    writeLength(apduRequest.getMaxRepetitions(), buffer);
+  }
+
+  /**
+   * (private)<br>
+   * Reads the flow control rules of an APDU request.
+   */
+  private static void readFlowControl(ApduRequest apduRequest, ByteBuffer buffer) {
+    int skipIfPreviousStatusCode = buffer.getInt();
+    if (skipIfPreviousStatusCode != -1) {
+      apduRequest.setSkipIfPreviousStatusCode(skipIfPreviousStatusCode);
+    }
+    // a jump is encoded on at least 3 bytes
+    int count = readCount(buffer, 3);
+    for (int i = 0; i < count; i++) {
+      int statusCode = buffer.getShort() & 0xFFFF;
+      apduRequest.addStatusCodeJump(statusCode, readLength(buffer));
+    }
+    int repeatUntilStatusCode = buffer.getInt();
+    int maxRepetitions = readLength(buffer);
+    if (repeatUntilStatusCode != -1) {
+      apduRequest.setRepeatUntilStatusCode(repeatUntilStatusCode, maxRepetitions);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads an APDU request without format version.
+   */
+  private static ApduRequest readApduRequest(ByteBuffer buffer) {
+    int flags = buffer.get();
+    ApduRequest apduRequest =
+        new ApduRequest(readBytes(buffer), (flags & APDU_REQUEST_CASE_4) != 0);
+    int count = readCount(buffer, 2);
+    for (int i = 0; i < count; i++) {
+      apduRequest.addSuccessfulStatusCode(buffer.getShort() & 0xFFFF);
+    }
+    if ((flags & APDU_REQUEST_CHAINING_POLICY) != 0) {
+      apduRequest.setChainingPolicy(readEnum(ChainingPolicy.values(), buffer));
+    }
+    if ((flags & APDU_REQUEST_FLOW_CONTROL) != 0) {
+      readFlowControl(apduRequest, buffer);
+    }
+    if ((flags & APDU_REQUEST_NAME) != 0) {
+      apduRequest.setName(readString(buffer));
+    }
+    return apduRequest;
+  }
+
+  /**
+   * (private)<br>
+   * Writes a card request without format version.
+   */
+  private static void writeCardRequest(CardRequest cardRequest, ByteBuffer buffer) {
+    buffer.put(
+        (byte)
+            (cardRequest.isStatusCodesVerificationEnabled()
+                ? CARD_REQUEST_STATUS_CODES_VERIFICATION
+                : 0));
+    buffer.put((byte) cardRequest.getChainingPolicy().ordinal());
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    writeLength(apduRequests.size(), buffer);
+    for (ApduRequest apduRequest : apduRequests) {
+      writeApduRequest(apduRequest, buffer);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads a card request without format version.
+   */
+  private static CardRequest readCardRequest(ByteBuffer buffer) {
+    int flags = buffer.get();
+    ChainingPolicy chainingPolicy = readEnum(ChainingPolicy.values(), buffer);
+    int count = readCount(buffer, 1);
+    List<ApduRequest> apduRequests = new ArrayList<ApduRequest>(count);
+    for (int i = 0; i < count; i++) {
+      apduRequests.add(readApduRequest(buffer));
+    }
+    return new CardRequest(
+        apduRequests, (flags & CARD_REQUEST_STATUS_CODES_VERIFICATION) != 0, chainingPolicy);
+  }
+
+  /**
+   * (private)<br>
+   * Writes a card response without format version.
+   */
+  private static void writeCardResponse(CardResponse cardResponse, ByteBuffer buffer) {
+    int flags = 0;
+    if (cardResponse.isLogicalChannelOpen()) {
+      flags |= CARD_RESPONSE_LOGICAL_CHANNEL_OPEN;
+    }
+    if (cardResponse.isComplete()) {
+      flags |= CARD_RESPONSE_COMPLETE;
+    }
+    buffer.put((byte) flags);
+    List<ApduResponse> apduResponses = cardResponse.getApduResponses();
+    writeLength(apduResponses.size(), buffer);
+    for (ApduResponse apduResponse : apduResponses) {
+      writeBytes(apduResponse.getBytes(), buffer);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads a card response without format version.
+   */
+  private static CardResponse readCardResponse(ByteBuffer buffer) {
+    int flags = buffer.get();
+    int count = readCount(buffer, 1);
+    List<ApduResponse> apduResponses = new ArrayList<ApduResponse>(count);
+    for (int i = 0; i < count; i++) {
+      apduResponses.add(readApduResponse(buffer));
+    }
+    return new CardResponse(
+        apduResponses,
+        (flags & CARD_RESPONSE_LOGICAL_CHANNEL_OPEN) != 0,
+        (flags & CARD_RESPONSE_COMPLETE) != 0);
+  }
+
+  /**
+   * (private)<br>
+   * Writes a card selection request without format version.
+   */
+  private static void writeCardSelectionRequest(
+      CardSelectionRequest cardSelectionRequest,
+      CardSelectorCodec cardSelectorCodec,
+      ByteBuffer buffer) {
+    Assert.getInstance().notNull(cardSelectorCodec, "cardSelectorCodec");
+    cardSelectorCodec.encode(cardSelectionRequest.getCardSelector(), buffer);
+    CardRequest cardRequest = cardSelectionRequest.getCardRequest();
+    if (cardRequest != null) {
+      buffer.put((byte) 1);
+      writeCardRequest(cardRequest, buffer);
+    } else {
+      buffer.put((byte) 0);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads a card selection request without format version.
+   */
+  private static CardSelectionRequest readCardSelectionRequest(
+      CardSelectorCodec cardSelectorCodec, ByteBuffer buffer) {
+    Assert.getInstance().notNull(cardSelectorCodec, "cardSelectorCodec");
+    KeypleCardSelector cardSelector = cardSelectorCodec.decode(buffer);
+    CardRequest cardRequest = buffer.get() != 0 ? readCardRequest(buffer) : null;
+    return new CardSelectionRequest(cardSelector, cardRequest);
+  }
+
+  /**
+   * (private)<br>
+   * Writes a card selection response without format version.
+   */
+  private static void writeCardSelectionResponse(
+      CardSelectionResponse cardSelectionResponse, ByteBuffer buffer) {
+    SelectionStatus selectionStatus = cardSelectionResponse.getSelectionStatus();
+    int flags = 0;
+    if (selectionStatus.getAtr() != null) {
+      flags |= SELECTION_STATUS_ATR;
+    }
+    if (selectionStatus.getFci() != null) {
+      flags |= SELECTION_STATUS_FCI;
+    }
+    if (selectionStatus.hasMatched()) {
+      flags |= SELECTION_STATUS_MATCHED;
+    }
+    buffer.put((byte) flags);
+    if (selectionStatus.getAtr() != null) {
+      writeBytes(selectionStatus.getAtr().getBytes(), buffer);
+    }
+    if (selectionStatus.getFci() != null) {
+      writeBytes(selectionStatus.getFci().getBytes(), buffer);
+    }
+    CardResponse cardResponse = cardSelectionResponse.getCardResponse();
+    if (cardResponse != null) {
+      buffer.put((byte) 1);
+      writeCardResponse(cardResponse, buffer);
+    } else {
+      buffer.put((byte) 0);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads a card selection response without format version.
+   */
+  private static CardSelectionResponse readCardSelectionResponse(ByteBuffer buffer) {
+    int flags = buffer.get();
+    AnswerToReset atr =
+        (flags & SELECTION_STATUS_ATR) != 0 ? new AnswerToReset(readBytes(buffer)) : null;
+    ApduResponse fci = (flags & SELECTION_STATUS_FCI) != 0 ? readApduResponse(buffer) : null;
+    SelectionStatus selectionStatus =
+        new SelectionStatus(atr, fci, (flags & SELECTION_STATUS_MATCHED) != 0);
+    CardResponse cardResponse = buffer.get() != 0 ? readCardResponse(buffer) : null;
+    return new CardSelectionResponse(selectionStatus, cardResponse);
+  }
+
+  /**
+   * (private)<br>
+   * Writes a byte array preceded by its length.
+   */
+  private static void writeBytes(byte[] bytes, ByteBuffer buffer) {
+    writeLength(bytes.length, buffer);
+    buffer.put(bytes);
+  }
+
+  /**
+   * (private)<br>
+   * Reads a byte array preceded by its length.
+   */
+  private static byte[] readBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[readCount(buffer, 1)];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * (private)<br>
+   * Reads an APDU response encoded as a length prefixed byte array, the status-only responses being
+   * resolved with {@link ApduResponse#valueOf(int)}.
+   */
+  private static ApduResponse readApduResponse(ByteBuffer buffer) {
+    int length = readCount(buffer, 1);
+    if (length == 2) {
+      return ApduResponse.valueOf(buffer.getShort() & 0xFFFF);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new ApduResponse(bytes);
+  }
+
+  /**
+   * (private)<br>
+   * Writes a string encoded in UTF-8 preceded by its length.
+   */
+  private static void writeString(String string, ByteBuffer buffer) {
+    try {
+      writeBytes(string.getBytes(CHARSET), buffer);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(CHARSET + " not supported.", e);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Reads a string encoded in UTF-8 preceded by its length.
+   */
+  private static String readString(ByteBuffer buffer) {
+    try {
+      return new String(readBytes(buffer), CHARSET);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(CHARSET + " not supported.", e);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Writes an unsigned variable-length integer.
+   */
+  private static void writeLength(int length, ByteBuffer buffer) {
+    while ((length & ~0x7F) != 0) {
+      buffer.put((byte) ((length & 0x7F) | 0x80));
+      length >>>= 7;
+    }
+    buffer.put((byte) length);
+  }
+
+  /**
+   * (private)<br>
+   * Reads an unsigned variable-length integer.
+   */
+  private static int readLength(ByteBuffer buffer) {
+    int length = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buffer.get();
+      length |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (length < 0) {
+          break;
+        }
+        return length;
+      }
+    }
+    throw new IllegalArgumentException("Invalid length encoding.");
+  }
+
+  /**
+   * (private)<br>
+   * Reads a length or a count of elements and checks it against the remaining data.
+   *
+   * @param buffer The source buffer.
+   * @param minElementSize The minimum size in bytes of an element.
+   * @return A positive int.
+   * @throws IllegalArgumentException If the encoding is invalid or if the elements cannot fit in
+   *     the remaining data.
+   */
+  private static int readCount(ByteBuffer buffer, int minElementSize) {
+    int count = readLength(buffer);
+    if (count > buffer.remaining() / minElementSize) {
+      throw new IllegalArgumentException(
+          "Length exceeding the remaining data: " + count + " > " + buffer.remaining());
+    }
+    return count;
+  }
+
+  /**
+   * (private)<br>
+   * Reads an enum constant from its ordinal.
+   */
+  private static <E extends Enum<E>> E readEnum(E[] values, ByteBuffer buffer) {
+    int ordinal = buffer.get() & 0xFF;
+    if (ordinal >= values.length) {
+      throw new IllegalArgumentException("Invalid enum ordinal: " + ordinal);
+    }
+    return values[ordinal];
+  }
+}
@@ -0,0 +1,447 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link CardExchangeObserver} collecting latency histograms and counters on the exchanges of one
+ * or more readers.
+ *
+ * <p>The collected data are:
+ *
+ * <ul>
+ *   <li>The APDU latency histograms by INS byte.
+ *   <li>The APDU latency histograms by APDU request name (see {@link ApduRequest#getName()}),
+ *       exported under a distinct metric name so that aggregating one metric counts each APDU once.
+ *       Up to {@value #MAX_NAME_COUNT} distinct names are tracked, the APDUs having other names
+ *       being counted under the name {@value #OTHER_NAME}.
+ *   <li>The card request latency histogram.
+ *   <li>The number of bytes sent to and received from the card.
+ *   <li>The number of failures by exception type, the unexpected status codes reported through a
+ *       {@link CardRequestOutcome} being counted as {@link UnexpectedStatusCodeException}.
+ * </ul>
+ *
+ * <p>The histograms have {@value #BUCKET_COUNT} buckets with power of 2 inclusive upper bounds,
+ * from 1 &micro;s to about 4.2 s, the last bucket also counting all longer durations. A duration is
+ * counted in the first bucket whose upper bound is greater or equal to it, as required by the
+ * Prometheus {@code le} label. The sum of the durations is kept with each histogram.
+ *
+ * <p>The recording is lock-free and does not allocate memory, except the first time an APDU name is
+ * encountered. A snapshot of the collected data can be exported at any time in the Prometheus text
+ * exposition format with {@link #writeSnapshot(StringBuilder)}.
+ *
+ * @since 2.0
+ */
+public final class CardExchangeMetrics implements CardExchangeObserver {
+
+  /**
+   * Number of buckets of the latency histograms: {@value}
+   *
+   * @since 2.0
+   */
+  public static final int BUCKET_COUNT = 24;
+
+  /**
+   * Maximum number of distinct APDU request names having their own histogram: {@value}
+   *
+   * @since 2.0
+   */
+  public static final int MAX_NAME_COUNT = 256;
+
+  /**
+   * Name under which the APDUs are counted once {@value #MAX_NAME_COUNT} distinct names have been
+   * encountered: {@value}
+   *
+   * @since 2.0
+   */
+  public static final String OTHER_NAME = "_other";
+
+  private static final String APDU_METRIC = "keyple_card_apdu_duration_seconds";
+  private static final String NAMED_APDU_METRIC = "keyple_card_named_apdu_duration_seconds";
+  private static final String CARD_REQUEST_METRIC = "keyple_card_request_duration_seconds";
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  // the bucket counts of a histogram are followed by the sum of the durations in nanoseconds
+  private static final int HISTOGRAM_SIZE = BUCKET_COUNT + 1;
+
+  private final AtomicLongArray apduLatenciesByIns = new AtomicLongArray(256 * HISTOGRAM_SIZE);
+  private final ConcurrentMap<String, AtomicLongArray> apduLatenciesByName =
+      new ConcurrentHashMap<String, AtomicLongArray>();
+  private final AtomicInteger nameCount = new AtomicInteger();
+  private final AtomicLongArray otherNameLatencies = new AtomicLongArray(HISTOGRAM_SIZE);
+  private final AtomicLongArray cardRequestLatencies = new AtomicLongArray(HISTOGRAM_SIZE);
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong readerCommunicationFailures = new AtomicLong();
+  private final AtomicLong cardCommunicationFailures = new AtomicLong();
+  private final AtomicLong unexpectedStatusCodes = new AtomicLong();
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void onApduExchanged(
+      ApduRequest apduRequest, ApduResponse apduResponse, long durationNanos) {
+    int bucket = getBucket(durationNanos);
+    byte[] requestBytes = apduRequest.getBytesArray();
+    int offset = (requestBytes[1] & 0xFF) * HISTOGRAM_SIZE;
+    apduLatenciesByIns.incrementAndGet(offset + bucket);
+    apduLatenciesByIns.addAndGet(offset + BUCKET_COUNT, durationNanos);
+    String name = apduRequest.getName();
+    if (name != null) {
+      AtomicLongArray latencies = getNameLatencies(name);
+      latencies.incrementAndGet(bucket);
+      latencies.addAndGet(BUCKET_COUNT, durationNanos);
+    }
+    bytesSent.addAndGet(requestBytes.length);
+    bytesReceived.addAndGet(apduResponse.getDataOutLength() + 2);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void onCardRequestProcessed(CardRequest cardRequest, long durationNanos) {
+    cardRequestLatencies.incrementAndGet(getBucket(durationNanos));
+    cardRequestLatencies.addAndGet(BUCKET_COUNT, durationNanos);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void onFailure(AbstractApduException exception) {
+    if (exception instanceof ReaderCommunicationException) {
+      readerCommunicationFailures.incrementAndGet();
+    } else if (exception instanceof CardCommunicationException) {
+      cardCommunicationFailures.incrementAndGet();
+    } else if (exception instanceof UnexpectedStatusCodeException) {
+      unexpectedStatusCodes.incrementAndGet();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The status code is counted with the {@link UnexpectedStatusCodeException} observed.
+   *
+   * @since 2.0
+   */
+  @Override
+  public void onUnexpectedStatusCode(CardRequest cardRequest, int apduIndex, int statusCode) {
+    unexpectedStatusCodes.incrementAndGet();
+  }
+
+  /**
+   * Gets the number of bytes sent to the card.
+   *
+   * @return A positive long or 0.
+   * @since 2.0
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * Gets the number of bytes received from the card (including the status words).
+   *
+   * @return A positive long or 0.
+   * @since 2.0
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * Gets the number of {@link ReaderCommunicationException} observed.
+   *
+   * @return A positive long or 0.
+   * @since 2.0
+   */
+  public long getReaderCommunicationFailures() {
+    return readerCommunicationFailures.get();
+  }
+
+  /**
+   * Gets the number of {@link CardCommunicationException} observed.
+   *
+   * @return A positive long or 0.
+   * @since 2.0
+   */
+  public long getCardCommunicationFailures() {
+    return cardCommunicationFailures.get();
+  }
+
+  /**
+   * Gets the number of unexpected status codes observed, whether raised as an {@link
+   * UnexpectedStatusCodeException} or reported through a {@link CardRequestOutcome}.
+   *
+   * @return A positive long or 0.
+   * @since 2.0
+   */
+  public long getUnexpectedStatusCodes() {
+    return unexpectedStatusCodes.get();
+  }
+
+  /**
+   * Gets the number of APDU exchanges with the provided INS byte whose duration falls in the
+   * provided histogram bucket.
+   *
+   * @param ins The INS byte.
+   * @param bucket The bucket index, between 0 and {@value #BUCKET_COUNT} - 1.
+   * @return A positive long or 0.
+   * @throws IndexOutOfBoundsException If the bucket index is out of range.
+   * @since 2.0
+   */
+  public long getApduCount(byte ins, int bucket) {
+    if (bucket < 0 || bucket >= BUCKET_COUNT) {
+      throw new IndexOutOfBoundsException("Bucket: " + bucket);
+    }
+    return apduLatenciesByIns.get((ins & 0xFF) * HISTOGRAM_SIZE + bucket);
+  }
+
+  /**
+   * Gets the upper bound of a histogram bucket.
+   *
+   * @param bucket The bucket index, between 0 and {@value #BUCKET_COUNT} - 1.
+   * @return The upper bound in nanoseconds, {@link Long#MAX_VALUE} for the last bucket.
+   * @since 2.0
+   */
+  public static long getBucketUpperBoundNanos(int bucket) {
+    return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) * 1000L;
+  }
+
+  /**
+   * Writes a snapshot of the collected data in the Prometheus text exposition format.
+   *
+   * <p>The values are read one by one without global lock, a snapshot taken during the recording
+   * may therefore be slightly inconsistent.
+   *
+   * @param sb The destination.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public StringBuilder writeSnapshot(StringBuilder sb) {
+    sb.append("# TYPE ").append(APDU_METRIC).append(" histogram\n");
+    long[] histogram = new long[HISTOGRAM_SIZE];
+    for (int ins = 0; ins < 256; ins++) {
+      boolean isEmpty = true;
+      for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+        histogram[i] = apduLatenciesByIns.get(ins * HISTOGRAM_SIZE + i);
+        isEmpty &= histogram[i] == 0;
+      }
+      if (!isEmpty) {
+        String label = "ins=\"" + HEX_DIGITS[(ins >> 4) & 0x0F] + HEX_DIGITS[ins & 0x0F] + '"';
+        writeHistogram(sb, APDU_METRIC, label, histogram);
+      }
+    }
+    sb.append("# TYPE ").append(NAMED_APDU_METRIC).append(" histogram\n");
+    for (Map.Entry<String, AtomicLongArray> entry : apduLatenciesByName.entrySet()) {
+      copy(entry.getValue(), histogram);
+      writeHistogram(sb, NAMED_APDU_METRIC, "name=\"" + escape(entry.getKey()) + '"', histogram);
+    }
+    copy(otherNameLatencies, histogram);
+    if (getCount(histogram) != 0) {
+      writeHistogram(sb, NAMED_APDU_METRIC, "name=\"" + OTHER_NAME + '"', histogram);
+    }
+    sb.append("# TYPE ").append(CARD_REQUEST_METRIC).append(" histogram\n");
+    copy(cardRequestLatencies, histogram);
+    writeHistogram(sb, CARD_REQUEST_METRIC, null, histogram);
+    writeCounter(sb, "keyple_card_bytes_sent_total", null, bytesSent.get());
+    writeCounter(sb, "keyple_card_bytes_received_total", null, bytesReceived.get());
+    writeCounter(
+        sb,
+        "keyple_card_failures_total",
+        "type=\"ReaderCommunicationException\"",
+        readerCommunicationFailures.get());
+    writeCounter(
+        sb,
+        "keyple_card_failures_total",
+        "type=\"CardCommunicationException\"",
+        cardCommunicationFailures.get());
+    writeCounter(
+        sb,
+        "keyple_card_failures_total",
+        "type=\"UnexpectedStatusCodeException\"",
+        unexpectedStatusCodes.get());
+    return sb;
+  }
+
+  /**
+   * Resets all the collected data.
+   *
+   * @since 2.0
+   */
+  public void reset() {
+    for (int i = 0; i < apduLatenciesByIns.length(); i++) {
+      apduLatenciesByIns.set(i, 0);
+    }
+    apduLatenciesByName.clear();
+    nameCount.set(0);
+    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+      otherNameLatencies.set(i, 0);
+      cardRequestLatencies.set(i, 0);
+    }
+    bytesSent.set(0);
+    bytesReceived.set(0);
+    readerCommunicationFailures.set(0);
+    cardCommunicationFailures.set(0);
+    unexpectedStatusCodes.set(0);
+  }
+
+  /**
+   * (private)<br>
+   * Gets the histogram of an APDU request name, creating it if the maximum number of names has not
+   * been reached.
+   *
+   * @param name The APDU request name.
+   * @return The histogram of the name, or the one of {@value #OTHER_NAME}.
+   */
+  private AtomicLongArray getNameLatencies(String name) {
+    AtomicLongArray latencies = apduLatenciesByName.get(name);
+    if (latencies != null) {
+      return latencies;
+    }
+    if (nameCount.incrementAndGet() > MAX_NAME_COUNT) {
+      nameCount.decrementAndGet();
+      return otherNameLatencies;
+    }
+    latencies = new AtomicLongArray(HISTOGRAM_SIZE);
+    AtomicLongArray existingLatencies = apduLatenciesByName.putIfAbsent(name, latencies);
+    if (existingLatencies != null) {
+      // added concurrently by another thread
+      nameCount.decrementAndGet();
+      return existingLatencies;
+    }
+    return latencies;
+  }
+
+  /**
+   * (private)<br>
+   * Gets the index of the histogram bucket of a duration, that is the index of the first bucket
+   * whose upper bound is greater or equal to the duration.
+   *
+   * @param durationNanos The duration in nanoseconds.
+   * @return The bucket index.
+   */
+  private static int getBucket(long durationNanos) {
+    // rounded up, so that a duration is never counted below its value
+    long micros = durationNanos / 1000L + (durationNanos % 1000L > 0 ? 1 : 0);
+    if (micros <= 0) {
+      return 0;
+    }
+    // index of the smallest power of 2 greater or equal to the duration in microseconds
+    int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+    return bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1;
+  }
+
+  /**
+   * (private)<br>
+   * Writes the cumulative buckets, the sum and the count of a histogram.
+   *
+   * @param sb The destination.
+   * @param metric The metric name.
+   * @param label The label identifying the histogram, null if none.
+   * @param histogram The count of each bucket followed by the sum of the durations.
+   */
+  private static void writeHistogram(
+      StringBuilder sb, String metric, String label, long[] histogram) {
+    long cumulativeCount = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      cumulativeCount += histogram[bucket];
+      sb.append(metric).append("_bucket{");
+      if (label != null) {
+        sb.append(label).append(',');
+      }
+      sb.append("le=\"");
+      if (bucket == BUCKET_COUNT - 1) {
+        sb.append("+Inf");
+      } else {
+        sb.append(getBucketUpperBoundNanos(bucket) / 1e9);
+      }
+      sb.append("\"} ").append(cumulativeCount).append('\n');
+    }
+    sb.append(metric).append("_sum");
+    if (label != null) {
+      sb.append('{').append(label).append('}');
+    }
+    sb.append(' ').append(histogram[BUCKET_COUNT] / 1e9).append('\n');
+    writeCounter(sb, metric + "_count", label, cumulativeCount);
+  }
+
+  /**
+   * (private)<br>
+   * Copies a histogram.
+   *
+   * @param source The histogram being recorded.
+   * @param destination The destination array.
+   */
+  private static void copy(AtomicLongArray source, long[] destination) {
+    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+      destination[i] = source.get(i);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Gets the total count of a histogram.
+   *
+   * @param histogram The count of each bucket followed by the sum of the durations.
+   * @return A positive long or 0.
+   */
+  private static long getCount(long[] histogram) {
+    long count = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      count += histogram[bucket];
+    }
+    return count;
+  }
+
+  /**
+   * (private)<br>
+   * Writes a single value.
+   *
+   * @param sb The destination.
+   * @param metric The metric name.
+   * @param label The label identifying the value, null if none.
+   * @param value The value.
+   */
+  private static void writeCounter(StringBuilder sb, String metric, String label, long value) {
+    sb.append(metric);
+    if (label != null) {
+      sb.append('{').append(label).append('}');
+    }
+    sb.append(' ').append(value).append('\n');
+  }
+
+  /**
+   * (private)<br>
+   * Escapes a label value.
+   *
+   * @param value The label value.
+   * @return The escaped value.
+   */
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
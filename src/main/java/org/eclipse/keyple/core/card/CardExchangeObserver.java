@@ -0,0 +1,67 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * Observer of the exchanges performed by an {@link ObservableProxyReader}, intended for
+ * instrumentation purposes.
+ *
+ * <p>The methods are invoked synchronously from the thread performing the transmission, they must
+ * therefore return quickly and never throw exceptions.
+ *
+ * @see ObservableProxyReader#setCardExchangeObserver(CardExchangeObserver)
+ * @see CardExchangeMetrics
+ * @since 2.0
+ */
+public interface CardExchangeObserver {
+
+  /**
+   * Invoked after each APDU exchange with the card.
+   *
+   * @param apduRequest The APDU request sent.
+   * @param apduResponse The APDU response received.
+   * @param durationNanos The duration of the exchange in nanoseconds.
+   * @since 2.0
+   */
+  void onApduExchanged(ApduRequest apduRequest, ApduResponse apduResponse, long durationNanos);
+
+  /**
+   * Invoked after the processing of a card request, whether successful or not.
+   *
+   * @param cardRequest The card request.
+   * @param durationNanos The duration of the processing in nanoseconds.
+   * @since 2.0
+   */
+  void onCardRequestProcessed(CardRequest cardRequest, long durationNanos);
+
+  /**
+   * Invoked when the processing of a card request is interrupted by an exception.
+   *
+   * @param exception The {@link ReaderCommunicationException}, {@link CardCommunicationException}
+   *     or {@link UnexpectedStatusCodeException} raised.
+   * @since 2.0
+   */
+  void onFailure(AbstractApduException exception);
+
+  /**
+   * Invoked when an unexpected status code is reported through a {@link CardRequestOutcome}
+   * instead of being raised as an {@link UnexpectedStatusCodeException}, in which case {@link
+   * #onFailure(AbstractApduException)} is not invoked.
+   *
+   * @param cardRequest The card request.
+   * @param apduIndex The index of the APDU request having received the status code.
+   * @param statusCode The unexpected status code.
+   * @see OutcomeProxyReader
+   * @since 2.0
+   */
+  void onUnexpectedStatusCode(CardRequest cardRequest, int apduIndex, int statusCode);
+}
@@ -0,0 +1,329 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.List;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+
+/**
+ * Writes the JSON representation of the card model objects directly into a caller-supplied {@link
+ * StringBuilder}, without reflection.
+ *
+ * <p>Byte arrays are written as hexadecimal strings, status codes as 4-digit hexadecimal strings
+ * and null fields are omitted. The card selectors being defined outside of this API, they are the
+ * only part still converted with {@link JsonUtil}.
+ *
+ * <p>The {@code toString} methods of the model objects rely on this writer. Since the JSON is only
+ * rendered when {@code toString} is invoked, the model objects should be passed as is to the
+ * logging frameworks (e.g. {@code logger.debug("{}", cardRequest)}) so that the rendering only
+ * occurs when the log level is enabled.
+ *
+ * @since 2.0
+ */
+public final class CardJsonWriter {
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /** Private constructor */
+  private CardJsonWriter() {}
+
+  /**
+   * Appends the JSON representation of an {@link ApduRequest}.
+   *
+   * @param sb The destination.
+   * @param apduRequest The APDU request.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, ApduRequest apduRequest) {
+    sb.append("{\"bytes\":");
+    appendHex(sb, apduRequest.getBytesArray());
+    sb.append(",\"isCase4\":").append(apduRequest.isCase4());
+    sb.append(",\"isExtendedLength\":").append(apduRequest.isExtendedLength());
+    sb.append(",\"successfulStatusCodes\":[");
+    int[] successfulStatusCodes = apduRequest.getSuccessfulStatusCodesArray();
+    for (int i = 0; i < successfulStatusCodes.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      appendStatusCode(sb, successfulStatusCodes[i]);
+    }
+    sb.append(']');
+    if (apduRequest.getChainingPolicy() != null) {
+      sb.append(",\"chainingPolicy\":\"").append(apduRequest.getChainingPolicy()).append('"');
+    }
+    if (apduRequest.getSkipIfPreviousStatusCode() != -1) {
+      sb.append(",\"skipIfPreviousStatusCode\":");
+      appendStatusCode(sb, apduRequest.getSkipIfPreviousStatusCode());
+    }
+    int[] statusCodeJumps = apduRequest.getStatusCodeJumpsArray();
+    if (statusCodeJumps.length != 0) {
+      sb.append(",\"statusCodeJumps\":{");
+      for (int i = 0; i < statusCodeJumps.length; i += 2) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        appendStatusCode(sb, statusCodeJumps[i]);
+        sb.append(':').append(statusCodeJumps[i + 1]);
+      }
+      sb.append('}');
+    }
+    if (apduRequest.getRepeatUntilStatusCode() != -1) {
+      sb.append(",\"repeatUntilStatusCode\":");
+      appendStatusCode(sb, apduRequest.getRepeatUntilStatusCode());
+      sb.append(",\"maxRepetitions\":").append(apduRequest.getMaxRepetitions());
+    }
+    if (apduRequest.getName() != null) {
+      sb.append(",\"name\":");
+      appendString(sb, apduRequest.getName());
+    }
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of an {@link ApduResponse}.
+   *
+   * @param sb The destination.
+   * @param apduResponse The APDU response.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, ApduResponse apduResponse) {
+    sb.append("{\"bytes\":");
+    appendHex(sb, apduResponse.getBytes());
+    sb.append(",\"statusCode\":");
+    appendStatusCode(sb, apduResponse.getStatusCode());
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardRequest}.
+   *
+   * @param sb The destination.
+   * @param cardRequest The card request.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, CardRequest cardRequest) {
+    sb.append("{\"apduRequests\":[");
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    for (int i = 0; i < apduRequests.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      append(sb, apduRequests.get(i));
+    }
+    sb.append("],\"isStatusCodesVerificationEnabled\":")
+        .append(cardRequest.isStatusCodesVerificationEnabled());
+    sb.append(",\"chainingPolicy\":\"").append(cardRequest.getChainingPolicy()).append('"');
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardResponse}.
+   *
+   * @param sb The destination.
+   * @param cardResponse The card response.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, CardResponse cardResponse) {
+    sb.append("{\"apduResponses\":[");
+    List<ApduResponse> apduResponses = cardResponse.getApduResponses();
+    for (int i = 0; i < apduResponses.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      append(sb, apduResponses.get(i));
+    }
+    sb.append("],\"isLogicalChannelOpen\":").append(cardResponse.isLogicalChannelOpen());
+    sb.append(",\"isComplete\":").append(cardResponse.isComplete());
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardRequestOutcome}.
+   *
+   * @param sb The destination.
+   * @param cardRequestOutcome The card request outcome.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, CardRequestOutcome cardRequestOutcome) {
+    sb.append("{\"status\":\"").append(cardRequestOutcome.getStatus()).append('"');
+    if (cardRequestOutcome.getStatus() == CardRequestOutcome.Status.UNEXPECTED_STATUS_CODE) {
+      sb.append(",\"apduIndex\":").append(cardRequestOutcome.getApduIndex());
+      sb.append(",\"statusCode\":");
+      appendStatusCode(sb, cardRequestOutcome.getStatusCode());
+    }
+    if (cardRequestOutcome.getCardResponse() != null) {
+      sb.append(",\"cardResponse\":");
+      append(sb, cardRequestOutcome.getCardResponse());
+    }
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of an {@link AnswerToReset}.
+   *
+   * @param sb The destination.
+   * @param answerToReset The answer to reset.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, AnswerToReset answerToReset) {
+    sb.append("{\"bytes\":");
+    appendHex(sb, answerToReset.getBytes());
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link SelectionStatus}.
+   *
+   * @param sb The destination.
+   * @param selectionStatus The selection status.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, SelectionStatus selectionStatus) {
+    sb.append('{');
+    if (selectionStatus.getAtr() != null) {
+      sb.append("\"atr\":");
+      append(sb, selectionStatus.getAtr());
+      sb.append(',');
+    }
+    if (selectionStatus.getFci() != null) {
+      sb.append("\"fci\":");
+      append(sb, selectionStatus.getFci());
+      sb.append(',');
+    }
+    sb.append("\"hasMatched\":").append(selectionStatus.hasMatched());
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardSelectionRequest}.
+   *
+   * @param sb The destination.
+   * @param cardSelectionRequest The card selection request.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(StringBuilder sb, CardSelectionRequest cardSelectionRequest) {
+    sb.append("{\"cardSelector\":").append(JsonUtil.toJson(cardSelectionRequest.getCardSelector()));
+    if (cardSelectionRequest.getCardRequest() != null) {
+      sb.append(",\"cardRequest\":");
+      append(sb, cardSelectionRequest.getCardRequest());
+    }
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardSelectionResponse}.
+   *
+   * @param sb The destination.
+   * @param cardSelectionResponse The card selection response.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(
+      StringBuilder sb, CardSelectionResponse cardSelectionResponse) {
+    sb.append("{\"selectionStatus\":");
+    append(sb, cardSelectionResponse.getSelectionStatus());
+    if (cardSelectionResponse.getCardResponse() != null) {
+      sb.append(",\"cardResponse\":");
+      append(sb, cardSelectionResponse.getCardResponse());
+    }
+    return sb.append('}');
+  }
+
+  /**
+   * Appends the JSON representation of a {@link CardSelectionScenario}.
+   *
+   * @param sb The destination.
+   * @param cardSelectionScenario The card selection scenario.
+   * @return The provided destination.
+   * @since 2.0
+   */
+  public static StringBuilder append(
+      StringBuilder sb, CardSelectionScenario cardSelectionScenario) {
+    sb.append("{\"cardSelectionRequests\":[");
+    List<CardSelectionRequest> cardSelectionRequests =
+        cardSelectionScenario.getCardSelectionRequests();
+    for (int i = 0; i < cardSelectionRequests.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      append(sb, cardSelectionRequests.get(i));
+    }
+    sb.append("],\"multiSelectionProcessing\":\"")
+        .append(cardSelectionScenario.getMultiSelectionProcessing())
+        .append('"');
+    sb.append(",\"channelControl\":\"")
+        .append(cardSelectionScenario.getChannelControl())
+        .append('"');
+    return sb.append('}');
+  }
+
+  /**
+   * (private)<br>
+   * Appends a byte array as a quoted hexadecimal string.
+   *
+   * @param sb The destination.
+   * @param bytes The byte array.
+   */
+  private static void appendHex(StringBuilder sb, byte[] bytes) {
+    sb.append('"');
+    for (byte b : bytes) {
+      sb.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+    }
+    sb.append('"');
+  }
+
+  /**
+   * (private)<br>
+   * Appends a status code as a quoted 4-digit hexadecimal string.
+   *
+   * @param sb The destination.
+   * @param statusCode The status code.
+   */
+  private static void appendStatusCode(StringBuilder sb, int statusCode) {
+    sb.append('"')
+        .append(HEX_DIGITS[(statusCode >> 12) & 0x0F])
+        .append(HEX_DIGITS[(statusCode >> 8) & 0x0F])
+        .append(HEX_DIGITS[(statusCode >> 4) & 0x0F])
+        .append(HEX_DIGITS[statusCode & 0x0F])
+        .append('"');
+  }
+
+  /**
+   * (private)<br>
+   * Appends a quoted string, escaping the characters as required by JSON.
+   *
+   * @param sb The destination.
+   * @param string The string.
+   */
+  private static void appendString(StringBuilder sb, String string) {
+    sb.append('"');
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append("\\u00").append(HEX_DIGITS[(c >> 4) & 0x0F]).append(HEX_DIGITS[c & 0x0F]);
+      } else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+}
@@ -13,11 +13,31 @@
 
 import java.util.List;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains an ordered list of {@link ApduRequest} and the associated status code check
- * policy.
+ * and chaining policies.
+ *
+ * <p>By default, the APDUs are executed one after the other. When flow control rules are defined on
+ * the APDUs (see {@link ApduRequest#hasFlowControl()}), the card request becomes a script executed
+ * entirely by the reader, each APDU being processed as follows:
+ *
+ * <ol>
+ *   <li>The APDU is skipped if the previous executed APDU returned its skip status code (see {@link
+ *       ApduRequest#setSkipIfPreviousStatusCode(int)}).
+ *   <li>The APDU is sent, then sent again while it does not return its repeat status code, within
+ *       the limit of its maximum number of repetitions (see {@link
+ *       ApduRequest#setRepeatUntilStatusCode(int, int)}).
+ *   <li>If the final status code is associated with a jump (see {@link
+ *       ApduRequest#addStatusCodeJump(int, int)}), the execution continues at the target index.
+ *       Otherwise the status code is verified according to the policy and the execution continues
+ *       with the next APDU.
+ * </ol>
+ *
+ * <p>The jumps being forward only, the execution always ends. The jumps are checked when the card
+ * request is built and again during the execution (see {@link #getJumpTarget(int, int)}), since the
+ * APDUs may be modified in between. The {@link CardResponse} contains one response per executed
+ * APDU, in the order of execution.
  *
  * @see CardResponse
  * @since 2.0
@@ -26,6 +46,8 @@ public final class CardRequest {
 
   private final List<ApduRequest> apduRequests;
   private final boolean isStatusCodesVerificationEnabled;
+  // null if deserialized from a version preceding the chaining policies
+  private final ChainingPolicy chainingPolicy;
 
   /**
    * Builds a card request with a list of {@link ApduRequest } and the flag indicating the expected
@@ -39,9 +61,43 @@ public final class CardRequest {
    * @since 2.0
    */
   public CardRequest(List<ApduRequest> apduRequests, boolean isStatusCodesVerificationEnabled) {
-    Assert.getInstance().notEmpty(apduRequests, "apduRequests");
+    this(apduRequests, isStatusCodesVerificationEnabled, ChainingPolicy.NONE);
+  }
+
+  /**
+   * Builds a card request with a list of {@link ApduRequest }, the flag indicating the expected
+   * response checking behavior and the {@link ChainingPolicy} to apply to the APDUs.
+   *
+   * <p>The chaining policy applies to all APDUs for which no specific policy has been set (see
+   * {@link ApduRequest#setChainingPolicy(ChainingPolicy)}). The status code verification applies to
+   * the final status code obtained once the chaining exchanges are complete.
+   *
+   * @param apduRequests A not empty list.
+   * @param isStatusCodesVerificationEnabled true or false.
+   * @param chainingPolicy The chaining policy.
+   * @throws IllegalArgumentException If the list is null or empty, if the chaining policy is null
+   *     or if an APDU defines a jump to a previous APDU or beyond the end of the list.
+   * @since 2.0
+   */
+  public CardRequest(
+      List<ApduRequest> apduRequests,
+      boolean isStatusCodesVerificationEnabled,
+      ChainingPolicy chainingPolicy) {
+    Assert.getInstance()
+        .notEmpty(apduRequests, "apduRequests")
+        .notNull(chainingPolicy, "chainingPolicy");
     this.apduRequests = apduRequests;
     this.isStatusCodesVerificationEnabled = isStatusCodesVerificationEnabled;
+    this.chainingPolicy = chainingPolicy;
+    for (int i = 0; i < apduRequests.size(); i++) {
+      int[] statusCodeJumps = apduRequests.get(i).getStatusCodeJumpsArray();
+      for (int j = 1; j < statusCodeJumps.length; j += 2) {
+        if (!isValidJumpTarget(i, statusCodeJumps[j])) {
+          throw new IllegalArgumentException(
+              "Invalid jump target for APDU " + i + ": " + statusCodeJumps[j]);
+        }
+      }
+    }
   }
 
   /**
@@ -64,6 +120,72 @@ public boolean isStatusCodesVerificationEnabled() {
     return isStatusCodesVerificationEnabled;
   }
 
+  /**
+   * Indicates if at least one of the APDUs defines flow control rules, making the card request a
+   * script.
+   *
+   * <p>The APDUs are inspected at each call, so that the result reflects their current rules.
+   *
+   * @return true if the APDUs are not simply executed one after the other.
+   * @since 2.0
+   */
+  public boolean hasFlowControl() {
+    for (ApduRequest apduRequest : apduRequests) {
+      if (apduRequest.hasFlowControl()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the index at which the execution continues when the APDU at the provided index returns the
+   * provided status code, checking that the jump is still a forward jump within the card request.
+   *
+   * <p>The reader implementations must use this method rather than {@link
+   * ApduRequest#getJumpTarget(int)} to guarantee that the execution ends.
+   *
+   * @param apduIndex The index of the executed APDU.
+   * @param statusCode The status code received.
+   * @return -1 if no jump is associated with the status code.
+   * @throws IllegalStateException If the APDU has been modified since the card request was built
+   *     and now defines a jump to a previous APDU or beyond the end of the list.
+   * @since 2.0
+   */
+  public int getJumpTarget(int apduIndex, int statusCode) {
+    int jumpTarget = apduRequests.get(apduIndex).getJumpTarget(statusCode);
+    if (jumpTarget != -1 && !isValidJumpTarget(apduIndex, jumpTarget)) {
+      throw new IllegalStateException(
+          "Invalid jump target for APDU " + apduIndex + ": " + jumpTarget);
+    }
+    return jumpTarget;
+  }
+
+  /**
+   * (private)<br>
+   * Checks that a jump is a forward jump within the card request.
+   *
+   * @param apduIndex The index of the APDU defining the jump.
+   * @param jumpTarget The target index.
+   * @return true if the target follows the APDU and does not exceed the number of APDUs.
+   */
+  private boolean isValidJumpTarget(int apduIndex, int jumpTarget) {
+    return jumpTarget > apduIndex && jumpTarget <= apduRequests.size();
+  }
+
+  /**
+   * Gets the chaining policy applying to the APDUs for which no specific policy has been set.
+   *
+   * <p>A request deserialized from a version not providing it has the {@link
+   * ChainingPolicy#NONE} policy.
+   *
+   * @return A not null reference.
+   * @since 2.0
+   */
+  public ChainingPolicy getChainingPolicy() {
+    return chainingPolicy != null ? chainingPolicy : ChainingPolicy.NONE;
+  }
+
   /**
    * Converts the card request into a string where the data is encoded in a json format.
    *
@@ -72,6 +194,6 @@ public boolean isStatusCodesVerificationEnabled() {
    */
   @Override
   public String toString() {
-    return "CARD_REQUEST = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("CARD_REQUEST = "), this).toString();
   }
 }
@@ -0,0 +1,102 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Transmits batches of independent {@link CardRequest}s concurrently on several {@link
+ * BatchProxyReader}s (e.g. the slots of a multi-slot SAM board), each card request being sent to
+ * the card of the reader it is associated with.
+ *
+ * <p>The card requests of each reader are transmitted as a single batch with {@link
+ * BatchProxyReader#transmitCardRequests(List, ChannelControl)}, in a task submitted to the provided
+ * {@link ExecutorService}, independently of the other readers.
+ *
+ * @since 2.0
+ */
+public final class CardRequestBatchExecutor {
+
+  private final ExecutorService executorService;
+
+  /**
+   * Builds an executor using the provided thread pool.
+   *
+   * <p>The executor service is not shut down by this class.
+   *
+   * @param executorService The thread pool transmitting the batches.
+   * @throws IllegalArgumentException If the executor service is null.
+   * @since 2.0
+   */
+  public CardRequestBatchExecutor(ExecutorService executorService) {
+    Assert.getInstance().notNull(executorService, "executorService");
+    this.executorService = executorService;
+  }
+
+  /**
+   * Submits the transmission of the card requests of each reader and returns without waiting for
+   * their completion.
+   *
+   * <p>The result of each reader is obtained with {@link Future#get()}, which returns the list of
+   * {@link CardRequestOutcome}s of its card requests, in the same order, or throws an {@link
+   * java.util.concurrent.ExecutionException} whose cause is the {@link
+   * ReaderCommunicationException} raised by the reader. A failure on one reader does not affect the
+   * others.
+   *
+   * @param cardRequestsByReader The not empty lists of card requests to transmit, keyed by the
+   *     reader through which they are to be transmitted.
+   * @param channelControl The channel control policy to apply after the last card request of each
+   *     reader.
+   * @return A not null map of the results, keyed by reader, in the iteration order of the provided
+   *     map.
+   * @throws IllegalArgumentException If one of the arguments is null, if the map is empty or if it
+   *     contains a null reader or a null or empty list. Nothing is submitted in this case.
+   * @since 2.0
+   */
+  public Map<BatchProxyReader, Future<List<CardRequestOutcome>>> execute(
+      Map<? extends BatchProxyReader, List<CardRequest>> cardRequestsByReader,
+      final ChannelControl channelControl) {
+    Assert.getInstance()
+        .notNull(cardRequestsByReader, "cardRequestsByReader")
+        .notEmpty(cardRequestsByReader.keySet(), "cardRequestsByReader")
+        .notNull(channelControl, "channelControl");
+    for (Map.Entry<? extends BatchProxyReader, List<CardRequest>> entry :
+        cardRequestsByReader.entrySet()) {
+      Assert.getInstance()
+          .notNull(entry.getKey(), "reader")
+          .notEmpty(entry.getValue(), "cardRequests");
+    }
+    Map<BatchProxyReader, Future<List<CardRequestOutcome>>> results =
+        new LinkedHashMap<BatchProxyReader, Future<List<CardRequestOutcome>>>();
+    for (Map.Entry<? extends BatchProxyReader, List<CardRequest>> entry :
+        cardRequestsByReader.entrySet()) {
+      final BatchProxyReader reader = entry.getKey();
+      final List<CardRequest> cardRequests = entry.getValue();
+      results.put(
+          reader,
+          executorService.submit(
+              new Callable<List<CardRequestOutcome>>() {
+                @Override
+                public List<CardRequestOutcome> call() throws ReaderCommunicationException {
+                  return reader.transmitCardRequests(cardRequests, channelControl);
+                }
+              }));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,210 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.List;
+
+/**
+ * Reusable holder of the outcome of a {@link CardRequest} transmitted with {@link
+ * OutcomeProxyReader#transmitCardRequest(CardRequest, ChannelControl, CardRequestOutcome)}.
+ *
+ * <p>An unexpected status code is reported by the outcome status instead of an {@link
+ * UnexpectedStatusCodeException}, which avoids building an exception when such status codes are
+ * part of the nominal processing.
+ *
+ * <p>The outcomes returned by {@link BatchProxyReader#transmitCardRequests(List, ChannelControl)}
+ * additionally report the card communication failures, which interrupt the batch.
+ *
+ * <p>The same instance can be reused for successive transmissions, each one overwriting the
+ * previous outcome. It is not thread safe and should be confined to a single thread.
+ *
+ * @since 2.0
+ */
+public final class CardRequestOutcome {
+
+  /**
+   * Classification of the outcome of a card request.
+   *
+   * @since 2.0
+   */
+  public enum Status {
+    /**
+     * No outcome has been set yet, or the card request has not been transmitted.
+     *
+     * @since 2.0
+     */
+    NONE,
+    /**
+     * All the APDUs have been processed without unexpected status code.
+     *
+     * @since 2.0
+     */
+    SUCCESS,
+    /**
+     * The processing was interrupted by an unexpected status code.
+     *
+     * @since 2.0
+     */
+    UNEXPECTED_STATUS_CODE,
+    /**
+     * The processing was interrupted by a card communication failure.
+     *
+     * @since 2.0
+     */
+    CARD_COMMUNICATION_FAILURE
+  }
+
+  private Status status = Status.NONE;
+  private CardResponse cardResponse;
+  private int apduIndex = -1;
+  private int statusCode = -1;
+  private CardCommunicationException cardCommunicationException;
+
+  /**
+   * Sets a successful outcome.
+   *
+   * @param cardResponse The card response.
+   * @return The object instance.
+   * @since 2.0
+   */
+  public CardRequestOutcome setSuccess(CardResponse cardResponse) {
+    this.status = Status.SUCCESS;
+    this.cardResponse = cardResponse;
+    this.apduIndex = -1;
+    this.statusCode = -1;
+    this.cardCommunicationException = null;
+    return this;
+  }
+
+  /**
+   * Sets an outcome interrupted by an unexpected status code.
+   *
+   * @param cardResponse The card responses received so far, including the one carrying the
+   *     unexpected status code.
+   * @param apduIndex The index of the APDU in the card request.
+   * @param statusCode The unexpected status code.
+   * @return The object instance.
+   * @since 2.0
+   */
+  public CardRequestOutcome setUnexpectedStatusCode(
+      CardResponse cardResponse, int apduIndex, int statusCode) {
+    this.status = Status.UNEXPECTED_STATUS_CODE;
+    this.cardResponse = cardResponse;
+    this.apduIndex = apduIndex;
+    this.statusCode = statusCode;
+    this.cardCommunicationException = null;
+    return this;
+  }
+
+  /**
+   * Sets an outcome interrupted by a card communication failure.
+   *
+   * @param cardCommunicationException The exception, carrying the card responses received so far.
+   * @return The object instance.
+   * @since 2.0
+   */
+  public CardRequestOutcome setCardCommunicationFailure(
+      CardCommunicationException cardCommunicationException) {
+    this.status = Status.CARD_COMMUNICATION_FAILURE;
+    this.cardResponse = cardCommunicationException.getCardResponse();
+    this.apduIndex = -1;
+    this.statusCode = -1;
+    this.cardCommunicationException = cardCommunicationException;
+    return this;
+  }
+
+  /**
+   * Clears the outcome.
+   *
+   * @return The object instance.
+   * @since 2.0
+   */
+  public CardRequestOutcome reset() {
+    this.status = Status.NONE;
+    this.cardResponse = null;
+    this.apduIndex = -1;
+    this.statusCode = -1;
+    this.cardCommunicationException = null;
+    return this;
+  }
+
+  /**
+   * Gets the outcome classification.
+   *
+   * @return A not null reference.
+   * @since 2.0
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Indicates if the card request has been processed without unexpected status code.
+   *
+   * @return true if the status is {@link Status#SUCCESS}.
+   * @since 2.0
+   */
+  public boolean isSuccessful() {
+    return status == Status.SUCCESS;
+  }
+
+  /**
+   * Gets the card response, complete or partial depending on the status.
+   *
+   * @return Null if no outcome has been set.
+   * @since 2.0
+   */
+  public CardResponse getCardResponse() {
+    return cardResponse;
+  }
+
+  /**
+   * Gets the index in the card request of the APDU having returned an unexpected status code.
+   *
+   * @return -1 if the status is not {@link Status#UNEXPECTED_STATUS_CODE}.
+   * @since 2.0
+   */
+  public int getApduIndex() {
+    return apduIndex;
+  }
+
+  /**
+   * Gets the unexpected status code.
+   *
+   * @return -1 if the status is not {@link Status#UNEXPECTED_STATUS_CODE}.
+   * @since 2.0
+   */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Gets the card communication failure.
+   *
+   * @return Null if the status is not {@link Status#CARD_COMMUNICATION_FAILURE}.
+   * @since 2.0
+   */
+  public CardCommunicationException getCardCommunicationException() {
+    return cardCommunicationException;
+  }
+
+  /**
+   * Converts the card request outcome into a string where the data is encoded in a json format.
+   *
+   * @return A not empty String
+   * @since 2.0
+   */
+  @Override
+  public String toString() {
+    return CardJsonWriter.append(new StringBuilder("CARD_REQUEST_OUTCOME = "), this).toString();
+  }
+}
@@ -0,0 +1,217 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.keyple.core.card.spi.CardResourceProfileExtensionSpi;
+import org.eclipse.keyple.core.card.spi.IndexableCardResourceProfileExtensionSpi;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Index of card resource profiles, providing for a reader the profiles worth probing with {@link
+ * CardResourceProfileExtensionSpi#matches(ProxyReader)}.
+ *
+ * <p>Profiles implementing {@link IndexableCardResourceProfileExtensionSpi} are filtered using
+ * their {@link CardResourceProfileMatchCriteria}, the others are always candidates.
+ *
+ * <p>The reader name criteria are evaluated once per reader name, the result being cached for a
+ * bounded number of reader names. The ATR criteria of the profiles retained for a reader name are
+ * compiled into an {@link AtrMatcher}, so that a lookup classifies the ATR against all of them in a
+ * single pass over its bytes. The compiled criteria are shared by the reader names retaining the
+ * same profiles, and are therefore built at most once per distinct outcome of the reader name
+ * criteria.
+ *
+ * <p>The index is thread-safe.
+ *
+ * @since 2.0
+ */
+public final class CardResourceProfileIndex {
+
+  // beyond this number of reader names, the cache is cleared to bound its size
+  private static final int MAX_CACHED_READER_NAMES = 1024;
+
+  private final List<CardResourceProfileExtensionSpi> profiles;
+  // null for the profiles without criteria
+  private final List<CardResourceProfileMatchCriteria> criteriaList;
+  private final ConcurrentMap<String, ReaderProfiles> profilesByReaderName;
+  private final ConcurrentMap<BitSet, ReaderProfiles> profilesByRetainedSet;
+
+  /**
+   * Builds an index of the provided profiles.
+   *
+   * @param profiles The profiles, in order of preference.
+   * @throws IllegalArgumentException If the collection is null.
+   * @since 2.0
+   */
+  public CardResourceProfileIndex(Collection<? extends CardResourceProfileExtensionSpi> profiles) {
+    Assert.getInstance().notNull(profiles, "profiles");
+    this.profiles =
+        Collections.unmodifiableList(new ArrayList<CardResourceProfileExtensionSpi>(profiles));
+    this.criteriaList = new ArrayList<CardResourceProfileMatchCriteria>(this.profiles.size());
+    for (CardResourceProfileExtensionSpi profile : this.profiles) {
+      criteriaList.add(
+          profile instanceof IndexableCardResourceProfileExtensionSpi
+              ? ((IndexableCardResourceProfileExtensionSpi) profile).getMatchCriteria()
+              : null);
+    }
+    this.profilesByReaderName = new ConcurrentHashMap<String, ReaderProfiles>();
+    this.profilesByRetainedSet = new ConcurrentHashMap<BitSet, ReaderProfiles>();
+  }
+
+  /**
+   * Gets the profiles whose criteria are met by the provided reader name and ATR.
+   *
+   * @param readerName The name of the reader.
+   * @param atr The ATR of the card present in the reader, null if unknown.
+   * @return A not null list, in the order of the indexed profiles.
+   * @throws IllegalArgumentException If the reader name is null.
+   * @since 2.0
+   */
+  public List<CardResourceProfileExtensionSpi> getCandidates(String readerName, byte[] atr) {
+    Assert.getInstance().notNull(readerName, "readerName");
+    ReaderProfiles readerProfiles = profilesByReaderName.get(readerName);
+    if (readerProfiles == null) {
+      readerProfiles = getReaderProfiles(getRetainedSet(readerName));
+      if (profilesByReaderName.size() >= MAX_CACHED_READER_NAMES) {
+        profilesByReaderName.clear();
+      }
+      profilesByReaderName.put(readerName, readerProfiles);
+    }
+    return readerProfiles.getCandidates(atr);
+  }
+
+  /**
+   * (private)<br>
+   * Gets the indexes of the profiles meeting the reader name criterion.
+   *
+   * @param readerName The reader name.
+   * @return A not null set.
+   */
+  private BitSet getRetainedSet(String readerName) {
+    BitSet retainedSet = new BitSet(profiles.size());
+    for (int i = 0; i < profiles.size(); i++) {
+      CardResourceProfileMatchCriteria criteria = criteriaList.get(i);
+      if (criteria == null || criteria.matchesReaderName(readerName)) {
+        retainedSet.set(i);
+      }
+    }
+    return retainedSet;
+  }
+
+  /**
+   * (private)<br>
+   * Gets the retained profiles and their compiled ATR criteria, building them on the first request
+   * for the provided set.
+   *
+   * @param retainedSet The indexes of the retained profiles.
+   * @return A not null reference.
+   */
+  private ReaderProfiles getReaderProfiles(BitSet retainedSet) {
+    ReaderProfiles readerProfiles = profilesByRetainedSet.get(retainedSet);
+    if (readerProfiles == null) {
+      readerProfiles = new ReaderProfiles(profiles, criteriaList, retainedSet);
+      ReaderProfiles existing = profilesByRetainedSet.putIfAbsent(retainedSet, readerProfiles);
+      if (existing != null) {
+        readerProfiles = existing;
+      }
+    }
+    return readerProfiles;
+  }
+
+  /**
+   * Gets all the indexed profiles.
+   *
+   * @return A not null unmodifiable list.
+   * @since 2.0
+   */
+  public List<CardResourceProfileExtensionSpi> getProfiles() {
+    return profiles;
+  }
+
+  /**
+   * (private)<br>
+   * Profiles retained for one or more reader names, with their compiled ATR criteria.
+   */
+  private static final class ReaderProfiles {
+
+    private final List<CardResourceProfileExtensionSpi> profiles;
+    private final int[] unconstrainedIndexes;
+    private final AtrMatcher<Integer> atrMatcher;
+
+    /**
+     * (private)<br>
+     * Retains the provided profiles and compiles their ATR criteria.
+     *
+     * @param allProfiles All the indexed profiles.
+     * @param allCriteria The criteria of all the indexed profiles, null for those without any.
+     * @param retainedSet The indexes of the retained profiles.
+     */
+    private ReaderProfiles(
+        List<CardResourceProfileExtensionSpi> allProfiles,
+        List<CardResourceProfileMatchCriteria> allCriteria,
+        BitSet retainedSet) {
+      profiles = new ArrayList<CardResourceProfileExtensionSpi>(retainedSet.cardinality());
+      atrMatcher = new AtrMatcher<Integer>();
+      List<Integer> unconstrained = new ArrayList<Integer>();
+      for (int i = retainedSet.nextSetBit(0); i >= 0; i = retainedSet.nextSetBit(i + 1)) {
+        CardResourceProfileMatchCriteria criteria = allCriteria.get(i);
+        int index = profiles.size();
+        profiles.add(allProfiles.get(i));
+        if (criteria != null && criteria.getAtrValue() != null) {
+          atrMatcher.add(criteria.getAtrValue(), criteria.getAtrMask(), index);
+        } else {
+          unconstrained.add(index);
+        }
+      }
+      unconstrainedIndexes = new int[unconstrained.size()];
+      for (int i = 0; i < unconstrainedIndexes.length; i++) {
+        unconstrainedIndexes[i] = unconstrained.get(i);
+      }
+    }
+
+    /**
+     * (private)<br>
+     * Gets the retained profiles whose ATR criterion is met.
+     *
+     * @param atr The ATR, null if unknown.
+     * @return A not null list, in the order of the indexed profiles.
+     */
+    private List<CardResourceProfileExtensionSpi> getCandidates(byte[] atr) {
+      if (atr == null) {
+        return new ArrayList<CardResourceProfileExtensionSpi>(profiles);
+      }
+      // both index lists are sorted: merge them to preserve the order of the profiles
+      List<Integer> matchedIndexes = atrMatcher.matchAll(atr);
+      List<CardResourceProfileExtensionSpi> candidates =
+          new ArrayList<CardResourceProfileExtensionSpi>(
+              unconstrainedIndexes.length + matchedIndexes.size());
+      int i = 0;
+      int j = 0;
+      while (i < unconstrainedIndexes.length || j < matchedIndexes.size()) {
+        if (j == matchedIndexes.size()
+            || (i < unconstrainedIndexes.length
+                && unconstrainedIndexes[i] < matchedIndexes.get(j))) {
+          candidates.add(profiles.get(unconstrainedIndexes[i++]));
+        } else {
+          candidates.add(profiles.get(matchedIndexes.get(j++)));
+        }
+      }
+      return candidates;
+    }
+  }
+}
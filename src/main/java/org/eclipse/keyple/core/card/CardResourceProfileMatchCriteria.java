@@ -0,0 +1,141 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.regex.Pattern;
+import org.eclipse.keyple.core.card.spi.IndexableCardResourceProfileExtensionSpi;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * This POJO contains declarative criteria that a reader and its card must meet for a card resource
+ * profile to be worth probing.
+ *
+ * <p>The criteria are necessary conditions only: a reader meeting them is still probed with {@link
+ * org.eclipse.keyple.core.card.spi.CardResourceProfileExtensionSpi#matches(ProxyReader)}.
+ *
+ * <p>It comprises:
+ *
+ * <ul>
+ *   <li>An optional regular expression that the reader name must match.
+ *   <li>An optional ATR value and mask: the ATR matches if it is at least as long as the value and
+ *       if {@code (atr[i] & mask[i]) == (value[i] & mask[i])} for each byte of the value.
+ * </ul>
+ *
+ * @see IndexableCardResourceProfileExtensionSpi
+ * @since 2.0
+ */
+public final class CardResourceProfileMatchCriteria {
+
+  private final Pattern readerNamePattern;
+  private final byte[] atrValue;
+  private final byte[] atrMask;
+
+  /**
+   * Builds match criteria from a reader name regular expression and an ATR value and mask.
+   *
+   * @param readerNameRegex The regular expression the reader name must match, null to accept any
+   *     reader name.
+   * @param atrValue The expected ATR bytes, null to accept any ATR (copied by the constructor).
+   * @param atrMask The mask to apply to the ATR bytes, null to compare all bits (copied by the
+   *     constructor). It must be null if atrValue is null.
+   * @throws IllegalArgumentException If the regular expression is invalid, if a mask is provided
+   *     without value or if the mask and the value do not have the same length.
+   * @since 2.0
+   */
+  public CardResourceProfileMatchCriteria(String readerNameRegex, byte[] atrValue, byte[] atrMask) {
+    if (readerNameRegex != null) {
+      try {
+        readerNamePattern = Pattern.compile(readerNameRegex);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid reader name regex: " + readerNameRegex, e);
+      }
+    } else {
+      readerNamePattern = null;
+    }
+    if (atrMask != null) {
+      if (atrValue == null) {
+        throw new IllegalArgumentException("An ATR mask requires an ATR value.");
+      }
+      Assert.getInstance().isEqual(atrMask.length, atrValue.length, "atrMask.length");
+    }
+    this.atrValue = atrValue != null ? atrValue.clone() : null;
+    this.atrMask = atrMask != null ? atrMask.clone() : null;
+  }
+
+  /**
+   * Indicates if a criterion applies to the reader name.
+   *
+   * @return true if the reader name is constrained.
+   * @since 2.0
+   */
+  public boolean hasReaderNameCriterion() {
+    return readerNamePattern != null;
+  }
+
+  /**
+   * Checks the reader name criterion.
+   *
+   * @param readerName The reader name.
+   * @return true if no criterion applies to the reader name or if the name matches it.
+   * @since 2.0
+   */
+  public boolean matchesReaderName(String readerName) {
+    return readerNamePattern == null
+        || (readerName != null && readerNamePattern.matcher(readerName).matches());
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the expected ATR bytes.
+   *
+   * @return Null if no criterion applies to the ATR, an array which must not be modified otherwise.
+   * @since 2.0
+   */
+  byte[] getAtrValue() {
+    return atrValue;
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the mask applied to the ATR bytes.
+   *
+   * @return Null if all bits are compared, an array which must not be modified otherwise.
+   * @since 2.0
+   */
+  byte[] getAtrMask() {
+    return atrMask;
+  }
+
+  /**
+   * Checks the ATR criterion.
+   *
+   * @param atr The ATR bytes, null if unknown.
+   * @return true if no criterion applies to the ATR, if the ATR is unknown or if it matches the
+   *     criterion.
+   * @since 2.0
+   */
+  public boolean matchesAtr(byte[] atr) {
+    if (atrValue == null || atr == null) {
+      return true;
+    }
+    if (atr.length < atrValue.length) {
+      return false;
+    }
+    for (int i = 0; i < atrValue.length; i++) {
+      int mask = atrMask != null ? atrMask[i] : 0xFF;
+      if (((atr[i] ^ atrValue[i]) & mask) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
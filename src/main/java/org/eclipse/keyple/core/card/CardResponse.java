@@ -14,7 +14,6 @@
 import java.io.Serializable;
 import java.util.List;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains an ordered list of the responses received following a card request and
@@ -89,6 +88,6 @@ public boolean isComplete() {
    */
   @Override
   public String toString() {
-    return "CARD_RESPONSE = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("CARD_RESPONSE = "), this).toString();
   }
 }
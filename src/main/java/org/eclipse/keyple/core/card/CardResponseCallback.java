@@ -0,0 +1,50 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * Receives the result of an asynchronous card request transmission.
+ *
+ * <p>Exactly one of the two methods is invoked once the transmission has been processed, from a
+ * thread managed by the reader implementation. Implementations should return quickly and must not
+ * block, since the invoking thread may be shared between several readers.
+ *
+ * @see AsyncProxyReader#transmitCardRequestAsync(CardRequest, ChannelControl, CardResponseCallback)
+ * @since 2.0
+ */
+public interface CardResponseCallback {
+
+  /**
+   * Invoked when the card request has been fully processed.
+   *
+   * @param cardResponse The card response.
+   * @since 2.0
+   */
+  void onCardResponse(CardResponse cardResponse);
+
+  /**
+   * Invoked when the processing of the card request has been interrupted.
+   *
+   * <p>The provided exception is one of {@link ReaderCommunicationException}, {@link
+   * CardCommunicationException} or {@link UnexpectedStatusCodeException}, with the same meaning as
+   * for the synchronous transmission. The responses received so far are available with {@link
+   * AbstractApduException#getCardResponse()}.
+   *
+   * <p>Any other error raised during the processing (e.g. a runtime exception thrown by an {@link
+   * ApduInterceptor} or by a {@link CardExchangeObserver}) is reported as a {@link
+   * ReaderCommunicationException} having this error as cause and an empty incomplete card response.
+   *
+   * @param exception The exception describing the failure.
+   * @since 2.0
+   */
+  void onFailure(AbstractApduException exception);
+}
@@ -13,7 +13,6 @@
 
 import org.eclipse.keyple.core.common.KeypleCardSelector;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains the data used to define a selection case.
@@ -90,6 +89,6 @@ public CardRequest getCardRequest() {
    */
   @Override
   public String toString() {
-    return "CARD_SELECTION_REQUEST = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("CARD_SELECTION_REQUEST = "), this).toString();
   }
 }
@@ -13,7 +13,6 @@
 
 import org.eclipse.keyple.core.common.KeypleCardSelectionResponse;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains the data from a card obtained in response to a card selection request.
@@ -73,6 +72,6 @@ public CardResponse getCardResponse() {
    */
   @Override
   public String toString() {
-    return "CARD_SELECTION_RESPONSE = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("CARD_SELECTION_RESPONSE = "), this).toString();
   }
 }
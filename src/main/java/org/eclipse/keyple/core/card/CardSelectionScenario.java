@@ -11,9 +11,12 @@
  ************************************************************************************** */
 package org.eclipse.keyple.core.card;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.eclipse.keyple.core.util.Assert;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 
 /**
  * This POJO contains a selection scenario composed of one or more card selection requests and
@@ -29,13 +32,27 @@
  *       selection process.
  * </ul>
  *
+ * <p>A scenario executed repeatedly (e.g. on each card insertion) can be frozen once with {@link
+ * #freeze()} into an immutable copy, which can then be shared between threads and readers. The
+ * copy is deep except for the card selectors: these are provided by the card extensions through
+ * {@link org.eclipse.keyple.core.common.KeypleCardSelector}, which offers no way to copy them, and
+ * are therefore shared with the original scenario. They must not be modified once the scenario is
+ * frozen.
+ *
  * @since 2.0
  */
 public final class CardSelectionScenario {
 
+  // far above the length of any realistic scenario, only reached with a faulty selector codec
+  private static final int MAX_ENCODED_LENGTH = 1 << 24;
+
   private final List<CardSelectionRequest> cardSelectionRequests;
   private final MultiSelectionProcessing multiSelectionProcessing;
   private final ChannelControl channelControl;
+  // not serialized, a deserialized scenario being neither frozen nor encoded
+  private final transient boolean isFrozen;
+  private final transient CardBinaryCodec.CardSelectorCodec cardSelectorCodec;
+  private final transient byte[] encodedForm;
 
   /**
    * Builds a card selection scenario from a list of selection cases and two enum constants guiding
@@ -65,6 +82,153 @@ public CardSelectionScenario(
     this.cardSelectionRequests = cardSelectionRequests;
     this.multiSelectionProcessing = multiSelectionProcessing;
     this.channelControl = channelControl;
+    this.isFrozen = false;
+    this.cardSelectorCodec = null;
+    this.encodedForm = null;
+  }
+
+  /**
+   * (private)<br>
+   * Builds a frozen deep copy of a scenario, encoded with the provided codec if any.
+   *
+   * <p>The card selectors cannot be copied and are shared with the original scenario.
+   *
+   * @param scenario The scenario to copy.
+   * @param cardSelectorCodec The codec of the card selectors, null to skip the encoding.
+   */
+  private CardSelectionScenario(
+      CardSelectionScenario scenario, CardBinaryCodec.CardSelectorCodec cardSelectorCodec) {
+    List<CardSelectionRequest> frozenCardSelectionRequests =
+        new ArrayList<CardSelectionRequest>(scenario.cardSelectionRequests.size());
+    for (CardSelectionRequest cardSelectionRequest : scenario.cardSelectionRequests) {
+      CardRequest cardRequest = cardSelectionRequest.getCardRequest();
+      frozenCardSelectionRequests.add(
+          new CardSelectionRequest(
+              cardSelectionRequest.getCardSelector(),
+              cardRequest != null ? freeze(cardRequest) : null));
+    }
+    this.cardSelectionRequests = Collections.unmodifiableList(frozenCardSelectionRequests);
+    this.multiSelectionProcessing = scenario.multiSelectionProcessing;
+    this.channelControl = scenario.channelControl;
+    this.isFrozen = true;
+    this.cardSelectorCodec = cardSelectorCodec;
+    this.encodedForm = cardSelectorCodec != null ? encode(this, cardSelectorCodec) : null;
+  }
+
+  /**
+   * (private)<br>
+   * Builds a frozen deep copy of a card request.
+   *
+   * @param cardRequest The card request to copy.
+   * @return A not null reference.
+   */
+  private static CardRequest freeze(CardRequest cardRequest) {
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    List<ApduRequest> frozenApduRequests = new ArrayList<ApduRequest>(apduRequests.size());
+    for (ApduRequest apduRequest : apduRequests) {
+      frozenApduRequests.add(apduRequest.frozenCopy());
+    }
+    return new CardRequest(
+        Collections.unmodifiableList(frozenApduRequests),
+        cardRequest.isStatusCodesVerificationEnabled(),
+        cardRequest.getChainingPolicy());
+  }
+
+  /**
+   * (private)<br>
+   * Encodes a scenario with {@link CardBinaryCodec}, in a buffer enlarged as needed up to {@value
+   * #MAX_ENCODED_LENGTH} bytes.
+   *
+   * @param scenario The scenario.
+   * @param cardSelectorCodec The codec of the card selectors.
+   * @return A not empty array.
+   * @throws IllegalStateException If the encoded form exceeds the maximum length.
+   */
+  private static byte[] encode(
+      CardSelectionScenario scenario, CardBinaryCodec.CardSelectorCodec cardSelectorCodec) {
+    int capacity = 1024;
+    while (true) {
+      ByteBuffer buffer = ByteBuffer.allocate(capacity);
+      try {
+        CardBinaryCodec.encode(scenario, cardSelectorCodec, buffer);
+      } catch (BufferOverflowException e) {
+        if (capacity >= MAX_ENCODED_LENGTH) {
+          throw new IllegalStateException(
+              "The encoded scenario exceeds "
+                  + MAX_ENCODED_LENGTH
+                  + " bytes, the card selector codec may be faulty.",
+              e);
+        }
+        capacity *= 2;
+        continue;
+      }
+      byte[] bytes = new byte[buffer.position()];
+      buffer.flip();
+      buffer.get(bytes);
+      return bytes;
+    }
+  }
+
+  /**
+   * Gets an immutable deep copy of the scenario, which can be shared between threads and readers.
+   *
+   * <p>The card requests and APDU requests of the copy can no longer be modified (see {@link
+   * ApduRequest#isFrozen()}), the APDU requests returning a copy of their bytes, and their lists
+   * are unmodifiable. The card selectors are not copied but shared with the original scenario, and
+   * must therefore not be modified afterwards.
+   *
+   * @return The current instance if it is already frozen, a new one otherwise.
+   * @since 2.0
+   */
+  public CardSelectionScenario freeze() {
+    return isFrozen ? this : new CardSelectionScenario(this, null);
+  }
+
+  /**
+   * Gets an immutable deep copy of the scenario as with {@link #freeze()}, additionally encoded
+   * once with {@link CardBinaryCodec}.
+   *
+   * <p>The encoded form is then reused by {@link CardBinaryCodec#encode(CardSelectionScenario,
+   * CardBinaryCodec.CardSelectorCodec, ByteBuffer)} when invoked with the same selector codec.
+   *
+   * @param cardSelectorCodec The codec of the card selectors.
+   * @return The current instance if it is already frozen and encoded with the same codec, a new one
+   *     otherwise.
+   * @throws IllegalArgumentException If the codec is null.
+   * @throws IllegalStateException If the encoded form exceeds 16 MB, which denotes a faulty codec
+   *     (e.g. throwing a {@link BufferOverflowException} whatever the buffer size).
+   * @since 2.0
+   */
+  public CardSelectionScenario freeze(CardBinaryCodec.CardSelectorCodec cardSelectorCodec) {
+    Assert.getInstance().notNull(cardSelectorCodec, "cardSelectorCodec");
+    return isFrozen && this.cardSelectorCodec == cardSelectorCodec
+        ? this
+        : new CardSelectionScenario(this, cardSelectorCodec);
+  }
+
+  /**
+   * Indicates if the scenario is frozen.
+   *
+   * <p>The frozen state is not serialized: a deserialized scenario is not frozen.
+   *
+   * @return true if the scenario has been obtained with {@link #freeze()}.
+   * @since 2.0
+   */
+  public boolean isFrozen() {
+    return isFrozen;
+  }
+
+  /**
+   * (package-private)<br>
+   * Gets the binary form of the scenario obtained at freezing time.
+   *
+   * @param cardSelectorCodec The codec of the card selectors.
+   * @return Null if the scenario has not been encoded with the provided codec. The array must not
+   *     be modified.
+   * @since 2.0
+   */
+  byte[] getEncodedForm(CardBinaryCodec.CardSelectorCodec cardSelectorCodec) {
+    return cardSelectorCodec == this.cardSelectorCodec ? encodedForm : null;
   }
 
   /**
@@ -105,6 +269,6 @@ public final ChannelControl getChannelControl() {
    */
   @Override
   public String toString() {
-    return "CARD_SELECTION_SCENARIO = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("CARD_SELECTION_SCENARIO = "), this).toString();
   }
 }
@@ -0,0 +1,104 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Executes the same {@link CardSelectionScenario} concurrently on several {@link
+ * SelectionScenarioProxyReader}s (e.g. the slots of a SAM rack or the antennas of a validator).
+ *
+ * <p>Each reader processes the scenario as with {@link
+ * SelectionScenarioProxyReader#transmitCardSelectionScenario(CardSelectionScenario)}, thus applying
+ * its {@link MultiSelectionProcessing} and {@link ChannelControl} policies independently of the
+ * other readers, in a task submitted to the provided {@link ExecutorService}.
+ *
+ * <p>The scenario is only read during the execution and can therefore be shared between the
+ * readers, provided that it is not modified meanwhile.
+ *
+ * @since 2.0
+ */
+public final class CardSelectionScenarioExecutor {
+
+  private final ExecutorService executorService;
+
+  /**
+   * Builds an executor using the provided thread pool.
+   *
+   * <p>The executor service is not shut down by this class.
+   *
+   * @param executorService The thread pool executing the scenarios.
+   * @throws IllegalArgumentException If the executor service is null.
+   * @since 2.0
+   */
+  public CardSelectionScenarioExecutor(ExecutorService executorService) {
+    Assert.getInstance().notNull(executorService, "executorService");
+    this.executorService = executorService;
+  }
+
+  /**
+   * Submits the execution of the scenario on each of the provided readers and returns without
+   * waiting for their completion.
+   *
+   * <p>The result of each reader is obtained with {@link Future#get()}, which returns the list of
+   * {@link CardSelectionResponse} or throws an {@link java.util.concurrent.ExecutionException}
+   * whose cause is the {@link AbstractApduException} raised by the reader. A failure on one reader
+   * does not affect the others.
+   *
+   * @param cardSelectionScenario The card selection scenario.
+   * @param readers The readers on which the scenario is to be executed.
+   * @return A not null map of the results, keyed by reader, in the iteration order of the provided
+   *     collection.
+   * @throws IllegalArgumentException If one of the arguments is null, if the reader collection is
+   *     empty or if it contains null or duplicate readers. Nothing is submitted in this case.
+   * @since 2.0
+   */
+  public Map<SelectionScenarioProxyReader, Future<List<CardSelectionResponse>>> execute(
+      final CardSelectionScenario cardSelectionScenario,
+      Collection<? extends SelectionScenarioProxyReader> readers) {
+    Assert.getInstance()
+        .notNull(cardSelectionScenario, "cardSelectionScenario")
+        .notEmpty(readers, "readers");
+    // a reader processes a single scenario at a time
+    Set<SelectionScenarioProxyReader> distinctReaders =
+        new HashSet<SelectionScenarioProxyReader>(readers.size());
+    for (SelectionScenarioProxyReader reader : readers) {
+      Assert.getInstance().notNull(reader, "reader");
+      if (!distinctReaders.add(reader)) {
+        throw new IllegalArgumentException("Duplicate reader: " + reader);
+      }
+    }
+    Map<SelectionScenarioProxyReader, Future<List<CardSelectionResponse>>> results =
+        new LinkedHashMap<SelectionScenarioProxyReader, Future<List<CardSelectionResponse>>>();
+    for (final SelectionScenarioProxyReader reader : readers) {
+      results.put(
+          reader,
+          executorService.submit(
+              new Callable<List<CardSelectionResponse>>() {
+                @Override
+                public List<CardSelectionResponse> call() throws AbstractApduException {
+                  return reader.transmitCardSelectionScenario(cardSelectionScenario);
+                }
+              }));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,56 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * Defines how the ISO 7816-4 chaining mechanisms are handled by the reader during the transmission
+ * of a {@link CardRequest}.
+ *
+ * <p>The chaining exchanges performed by the reader are transparent for the card extension: a
+ * single {@link ApduResponse} is produced for each {@link ApduRequest}.
+ *
+ * @since 2.0
+ */
+public enum ChainingPolicy {
+
+  /**
+   * The responses are returned as received from the card, no additional command is sent.
+   *
+   * <p>Note: the recovery of the outgoing data of case 4 APDUs remains managed by the lower layer
+   * (see API plugin).
+   *
+   * @since 2.0
+   */
+  NONE,
+
+  /**
+   * The reader manages the response status words asking for additional exchanges:
+   *
+   * <ul>
+   *   <li>{@code 61xxh}: GET RESPONSE commands are sent until all the data has been retrieved, the
+   *       data being concatenated in a single response.
+   *   <li>{@code 6Cxxh}: the command is sent again with Le set to {@code xxh}.
+   * </ul>
+   *
+   * @since 2.0
+   */
+  RESPONSE_CHAINING,
+
+  /**
+   * In addition to {@link #RESPONSE_CHAINING}, the reader splits the data field of commands
+   * exceeding the capabilities of the reader or the card (e.g. extended length APDUs not supported)
+   * into a sequence of short commands chained using the CLA chaining bit ({@code 10h}).
+   *
+   * @since 2.0
+   */
+  FULL_CHAINING
+}
@@ -0,0 +1,31 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} able to tell if extended length APDUs can be transmitted.
+ *
+ * @since 2.0
+ */
+public interface ExtendedLengthProxyReader extends ProxyReader {
+
+  /**
+   * Indicates if both the reader and the card currently present support APDUs using the extended
+   * length encoding of Lc and Le (see {@link ApduRequest#isExtendedLength()}).
+   *
+   * <p>The card capabilities are usually retrieved from the historical bytes of its ATR.
+   *
+   * @return true if extended length APDUs can be transmitted, false if not or if unknown.
+   * @since 2.0
+   */
+  boolean isExtendedLengthSupported();
+}
@@ -0,0 +1,42 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} whose APDUs can be transformed by a chain of interceptors.
+ *
+ * @since 2.0
+ */
+public interface InterceptableProxyReader extends ProxyReader {
+
+  /**
+   * Sets the chain of interceptors transforming the bytes of the APDUs exchanged by this reader.
+   *
+   * <p>Each command is passed through the chain just before being sent to the card and each
+   * response just after being received, whatever the transmission method used. The {@link
+   * ApduRequest}s of the card requests are not modified and the {@link ApduResponse}s are built
+   * from the transformed bytes.
+   *
+   * @param apduInterceptorChain The chain, null to remove the current one.
+   * @since 2.0
+   */
+  void setApduInterceptorChain(ApduInterceptorChain apduInterceptorChain);
+
+  /**
+   * Gets the chain of interceptors currently set, so that an interceptor can be appended to it with
+   * {@link ApduInterceptorChain#append(ApduInterceptor)} rather than replacing it.
+   *
+   * @return Null if no chain is set.
+   * @since 2.0
+   */
+  ApduInterceptorChain getApduInterceptorChain();
+}
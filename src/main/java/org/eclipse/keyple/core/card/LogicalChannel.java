@@ -0,0 +1,122 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Logical channel handed out by a {@link LogicalChannelManager}, through which a card extension
+ * drives an application independently of the other channels.
+ *
+ * <p>A channel must be released or closed once the processing is complete; it can no longer be used
+ * afterwards.
+ *
+ * @since 2.0
+ */
+public final class LogicalChannel {
+
+  private final LogicalChannelManager manager;
+  private final int channelNumber;
+  private volatile boolean isValid = true;
+
+  /**
+   * (package-private)<br>
+   * Builds a logical channel.
+   *
+   * @param manager The manager having opened the channel.
+   * @param channelNumber The channel number, from 1 to 19.
+   * @since 2.0
+   */
+  LogicalChannel(LogicalChannelManager manager, int channelNumber) {
+    this.manager = manager;
+    this.channelNumber = channelNumber;
+  }
+
+  /**
+   * Gets the channel number assigned by the card.
+   *
+   * @return An int from 1 to 19.
+   * @since 2.0
+   */
+  public int getChannelNumber() {
+    return channelNumber;
+  }
+
+  /**
+   * Transmits a {@link CardRequest} on this channel and returns a {@link CardResponse}.
+   *
+   * <p>The APDUs are copied with the channel number encoded in their class byte, the provided card
+   * request is not modified. The channel remains open after the transmission.
+   *
+   * @param cardRequest The card request.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the card request is null.
+   * @throws IllegalStateException If the channel has been released or closed.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @throws UnexpectedStatusCodeException If any of the APDUs returned an unexpected status code
+   *     and the card request specified the need to check them.
+   * @since 2.0
+   */
+  public CardResponse transmitCardRequest(CardRequest cardRequest)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    Assert.getInstance().notNull(cardRequest, "cardRequest");
+    return manager.transmitCardRequest(this, cardRequest);
+  }
+
+  /**
+   * Returns the channel to the pool of its manager, without closing it.
+   *
+   * @throws IllegalStateException If the channel has already been released or closed.
+   * @since 2.0
+   */
+  public void release() {
+    manager.release(this);
+  }
+
+  /**
+   * Closes the channel with a MANAGE CHANNEL command.
+   *
+   * @throws IllegalStateException If the channel has already been released or closed.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @throws UnexpectedStatusCodeException If the card refused to close the channel.
+   * @since 2.0
+   */
+  public void close()
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    manager.close(this);
+  }
+
+  /**
+   * (package-private)<br>
+   * Indicates if the channel can still be used.
+   *
+   * @return true if the channel has been neither released nor closed.
+   * @since 2.0
+   */
+  boolean isValid() {
+    return isValid;
+  }
+
+  /**
+   * (package-private)<br>
+   * Prevents any further use of the channel.
+   *
+   * @since 2.0
+   */
+  void invalidate() {
+    isValid = false;
+  }
+}
@@ -0,0 +1,281 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Manages the ISO 7816-4 logical channels of the card present in a {@link ProxyReader}, allowing
+ * several card extensions to drive separate applications of the same card concurrently.
+ *
+ * <p>The logical channels are opened with the MANAGE CHANNEL command, the card assigning the
+ * channel number (1 to 19). A released channel is kept open in a pool and handed out again by the
+ * next call to {@link #openChannel()}; it is then up to the new user to select its application.
+ *
+ * <p>The APDUs transmitted through a {@link LogicalChannel} are copied with the channel number
+ * encoded in their class byte (see {@link #encodeChannelNumber(byte, int)}). The transmissions of
+ * all channels are serialized on the reader, each card request being processed as a whole with the
+ * {@link ChannelControl#KEEP_OPEN} policy.
+ *
+ * <p>The basic channel (0) is not managed by this class.
+ *
+ * @since 2.0
+ */
+public final class LogicalChannelManager {
+
+  private static final byte[] MANAGE_CHANNEL_OPEN =
+      new byte[] {(byte) 0x00, (byte) 0x70, (byte) 0x00, (byte) 0x00, (byte) 0x01};
+  private static final int MAX_CHANNEL_NUMBER = 19;
+
+  private final ProxyReader reader;
+  private final Object lock = new Object();
+  private final Deque<Integer> pooledChannelNumbers = new ArrayDeque<Integer>();
+  private final List<LogicalChannel> activeChannels = new ArrayList<LogicalChannel>();
+
+  /**
+   * Builds a manager of the logical channels of the card present in the provided reader.
+   *
+   * @param reader The reader.
+   * @throws IllegalArgumentException If the reader is null.
+   * @since 2.0
+   */
+  public LogicalChannelManager(ProxyReader reader) {
+    Assert.getInstance().notNull(reader, "reader");
+    this.reader = reader;
+  }
+
+  /**
+   * Encodes a logical channel number into a class byte, preserving its command chaining and secure
+   * messaging indications.
+   *
+   * <p>Channels 0 to 3 use the first interindustry coding (bits b2-b1), channels 4 to 19 the
+   * further interindustry coding ({@code 40h} | channel - 4, bits b4-b1). The bit b8 is preserved,
+   * the proprietary classes being assumed to follow the same coding as the interindustry ones.
+   *
+   * @param cla The class byte.
+   * @param channelNumber The channel number, from 0 to 19.
+   * @return The class byte addressing the channel.
+   * @throws IllegalArgumentException If the channel number is out of range.
+   * @since 2.0
+   */
+  public static byte encodeChannelNumber(byte cla, int channelNumber) {
+    Assert.getInstance().isInRange(channelNumber, 0, MAX_CHANNEL_NUMBER, "channelNumber");
+    boolean isFirstInterindustry = (cla & 0x40) == 0;
+    boolean isSecureMessaging = isFirstInterindustry ? (cla & 0x0C) != 0 : (cla & 0x20) != 0;
+    int result = (cla & 0x80) | (cla & 0x10);
+    if (channelNumber < 4) {
+      if (isFirstInterindustry) {
+        result |= cla & 0x0C;
+      } else if (isSecureMessaging) {
+        result |= 0x08;
+      }
+      result |= channelNumber;
+    } else {
+      result |= 0x40 | (channelNumber - 4);
+      if (isSecureMessaging) {
+        result |= 0x20;
+      }
+    }
+    return (byte) result;
+  }
+
+  /**
+   * Gets a logical channel, taken from the pool of released channels or opened with a MANAGE
+   * CHANNEL command.
+   *
+   * @return A not null reference.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed or if the card
+   *     returned an invalid channel number.
+   * @throws UnexpectedStatusCodeException If the card refused to open a new channel.
+   * @since 2.0
+   */
+  public LogicalChannel openChannel()
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    synchronized (lock) {
+      Integer channelNumber = pooledChannelNumbers.pollFirst();
+      if (channelNumber == null) {
+        CardResponse cardResponse =
+            reader.transmitCardRequest(
+                new CardRequest(
+                    Collections.singletonList(new ApduRequest(MANAGE_CHANNEL_OPEN.clone(), false)),
+                    true),
+                ChannelControl.KEEP_OPEN);
+        ApduResponse apduResponse = cardResponse.getApduResponses().get(0);
+        if (apduResponse.getDataOutLength() != 1
+            || apduResponse.getBytes()[0] < 1
+            || apduResponse.getBytes()[0] > MAX_CHANNEL_NUMBER) {
+          throw new CardCommunicationException(
+              cardResponse, "Invalid MANAGE CHANNEL response: " + apduResponse);
+        }
+        channelNumber = (int) apduResponse.getBytes()[0];
+      }
+      LogicalChannel logicalChannel = new LogicalChannel(this, channelNumber);
+      activeChannels.add(logicalChannel);
+      return logicalChannel;
+    }
+  }
+
+  /**
+   * Closes all the pooled channels with a MANAGE CHANNEL command and invalidates the active ones,
+   * which are closed as well.
+   *
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @throws UnexpectedStatusCodeException If the card refused to close a channel.
+   * @since 2.0
+   */
+  public void closeAll()
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    synchronized (lock) {
+      for (LogicalChannel logicalChannel : activeChannels) {
+        logicalChannel.invalidate();
+        pooledChannelNumbers.add(logicalChannel.getChannelNumber());
+      }
+      activeChannels.clear();
+      while (!pooledChannelNumbers.isEmpty()) {
+        sendManageChannelClose(pooledChannelNumbers.peekFirst());
+        pooledChannelNumbers.pollFirst();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of channels currently handed out.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int getActiveChannelCount() {
+    synchronized (lock) {
+      return activeChannels.size();
+    }
+  }
+
+  /**
+   * Gets the number of released channels kept open in the pool.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int getPooledChannelCount() {
+    synchronized (lock) {
+      return pooledChannelNumbers.size();
+    }
+  }
+
+  /**
+   * (package-private)<br>
+   * Transmits a card request on a logical channel.
+   *
+   * @param logicalChannel The channel.
+   * @param cardRequest The card request, whose APDUs are copied with the channel number.
+   * @return A not null reference.
+   * @throws IllegalStateException If the channel has been released or closed.
+   * @since 2.0
+   */
+  CardResponse transmitCardRequest(LogicalChannel logicalChannel, CardRequest cardRequest)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    List<ApduRequest> channelApduRequests = new ArrayList<ApduRequest>(apduRequests.size());
+    for (ApduRequest apduRequest : apduRequests) {
+      byte[] bytes = apduRequest.getBytesArray().clone();
+      bytes[0] = encodeChannelNumber(bytes[0], logicalChannel.getChannelNumber());
+      channelApduRequests.add(new ApduRequest(apduRequest, bytes));
+    }
+    CardRequest channelCardRequest =
+        new CardRequest(
+            channelApduRequests,
+            cardRequest.isStatusCodesVerificationEnabled(),
+            cardRequest.getChainingPolicy());
+    synchronized (lock) {
+      checkActive(logicalChannel);
+      return reader.transmitCardRequest(channelCardRequest, ChannelControl.KEEP_OPEN);
+    }
+  }
+
+  /**
+   * (package-private)<br>
+   * Returns a logical channel to the pool, without closing it.
+   *
+   * @param logicalChannel The channel.
+   * @throws IllegalStateException If the channel has already been released or closed.
+   * @since 2.0
+   */
+  void release(LogicalChannel logicalChannel) {
+    synchronized (lock) {
+      checkActive(logicalChannel);
+      deactivate(logicalChannel);
+      pooledChannelNumbers.addLast(logicalChannel.getChannelNumber());
+    }
+  }
+
+  /**
+   * (package-private)<br>
+   * Closes a logical channel with a MANAGE CHANNEL command.
+   *
+   * @param logicalChannel The channel.
+   * @throws IllegalStateException If the channel has already been released or closed.
+   * @since 2.0
+   */
+  void close(LogicalChannel logicalChannel)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    synchronized (lock) {
+      checkActive(logicalChannel);
+      deactivate(logicalChannel);
+      sendManageChannelClose(logicalChannel.getChannelNumber());
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Throws an exception if the channel is no longer handed out by this manager.
+   */
+  private void checkActive(LogicalChannel logicalChannel) {
+    if (!logicalChannel.isValid()) {
+      throw new IllegalStateException(
+          "Logical channel " + logicalChannel.getChannelNumber() + " released or closed.");
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Invalidates a channel and removes it from the active ones.
+   */
+  private void deactivate(LogicalChannel logicalChannel) {
+    logicalChannel.invalidate();
+    activeChannels.remove(logicalChannel);
+  }
+
+  /**
+   * (private)<br>
+   * Sends the MANAGE CHANNEL command closing the provided channel.
+   */
+  private void sendManageChannelClose(int channelNumber)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    byte[] command =
+        new byte[] {(byte) 0x00, (byte) 0x70, (byte) 0x80, (byte) channelNumber, (byte) 0x00};
+    reader.transmitCardRequest(
+        new CardRequest(Collections.singletonList(new ApduRequest(command, false)), true),
+        ChannelControl.KEEP_OPEN);
+  }
+}
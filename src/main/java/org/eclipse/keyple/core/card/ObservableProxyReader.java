@@ -0,0 +1,32 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} whose exchanges can be observed.
+ *
+ * @since 2.0
+ */
+public interface ObservableProxyReader extends ProxyReader {
+
+  /**
+   * Sets the observer to be notified of the exchanges performed by this reader.
+   *
+   * <p>The observer is notified of each APDU exchange, of the end of the processing of each card
+   * request and of each failure, whatever the transmission method used.
+   *
+   * @param cardExchangeObserver The observer, null to remove the current one.
+   * @see CardExchangeMetrics
+   * @since 2.0
+   */
+  void setCardExchangeObserver(CardExchangeObserver cardExchangeObserver);
+}
@@ -0,0 +1,44 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} able to report unexpected status codes through a reusable {@link
+ * CardRequestOutcome}.
+ *
+ * @since 2.0
+ */
+public interface OutcomeProxyReader extends ProxyReader {
+
+  /**
+   * Transmits a {@link CardRequest}, applies the provided {@link ChannelControl} policy and fills
+   * the provided {@link CardRequestOutcome} instead of throwing an {@link
+   * UnexpectedStatusCodeException}.
+   *
+   * <p>The processing is the same as for {@link #transmitCardRequest(CardRequest, ChannelControl)}
+   * except that when the status code verification is enabled and an APDU returns an unexpected
+   * status code, the processing is interrupted and the outcome is set to {@link
+   * CardRequestOutcome.Status#UNEXPECTED_STATUS_CODE} with the responses received so far.
+   * Communication failures are still reported by exceptions.
+   *
+   * @param cardRequest The card request.
+   * @param channelControl The channel control policy to apply.
+   * @param cardRequestOutcome The outcome to fill, overwritten by each call.
+   * @throws IllegalArgumentException If the outcome is null.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @since 2.0
+   */
+  void transmitCardRequest(
+      CardRequest cardRequest, ChannelControl channelControl, CardRequestOutcome cardRequestOutcome)
+      throws ReaderCommunicationException, CardCommunicationException;
+}
@@ -16,6 +16,10 @@
  *
  * <p>You can use this API by casting any reader object the Keyple Service API into a ProxyReader.
  *
+ * <p>Additional capabilities are optionally provided by the sub-interfaces implemented by the
+ * reader (e.g. {@link AsyncProxyReader}), to be checked with {@code instanceof}. They leave this
+ * interface unchanged, so that the existing implementations remain valid.
+ *
  * @since 2.0
  */
 public interface ProxyReader {
@@ -27,6 +31,9 @@ public interface ProxyReader {
    * <p>The APDUs ({@link ApduRequest}) contained in the {@link CardRequest} are sent to the card
    * their responses ({@link ApduResponse}) are added to a new list.
    *
+   * <p>When the card request defines flow control rules, the APDUs are executed as a script within
+   * this single call, as described in {@link CardRequest}.
+   *
    * <p><b>Note:</b> in case of a communication error when sending an APDU, an {@link
    * AbstractApduException} exception is thrown. Any responses from previous APDU commands are
    * attached to this exception.<br>
@@ -0,0 +1,45 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.List;
+
+/**
+ * {@link ProxyReader} able to process a whole card selection scenario.
+ *
+ * @since 2.0
+ */
+public interface SelectionScenarioProxyReader extends ProxyReader {
+
+  /**
+   * Processes a {@link CardSelectionScenario} and returns the {@link CardSelectionResponse}
+   * obtained for each of its {@link CardSelectionRequest}.
+   *
+   * <p>The selection cases are processed in the order of the list, following the {@link
+   * MultiSelectionProcessing} policy of the scenario. The {@link ChannelControl} policy of the
+   * scenario is applied at the end of the process.
+   *
+   * @param cardSelectionScenario The card selection scenario.
+   * @return A not null list containing one response per processed selection case, in the order of
+   *     the requests.
+   * @throws IllegalArgumentException If the scenario is null.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @throws UnexpectedStatusCodeException If any of the APDUs of a selection case returned an
+   *     unexpected status code and its card request specified the need to check them.
+   * @since 2.0
+   */
+  List<CardSelectionResponse> transmitCardSelectionScenario(
+      CardSelectionScenario cardSelectionScenario)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException;
+}
@@ -11,8 +11,6 @@
  ************************************************************************************** */
 package org.eclipse.keyple.core.card;
 
-import org.eclipse.keyple.core.util.json.JsonUtil;
-
 /**
  * This POJO contains the card selection status.
  *
@@ -22,6 +20,8 @@ public class SelectionStatus {
   private final AnswerToReset atr;
   private final ApduResponse fci;
   private final boolean hasMatched;
+  // lazily built from the FCI, not serialized
+  private transient TlvIndex fciTlvIndex;
 
   /**
    * Constructor.
@@ -65,6 +65,27 @@ public ApduResponse getFci() {
     return fci;
   }
 
+  /**
+   * Gets the index of the BER-TLV structures of the FCI data (excluding SW1SW2), built on first
+   * access then cached for the repeated lookups of the card extensions.
+   *
+   * @return Null if the FCI is not available.
+   * @see TlvIndex
+   * @since 2.0
+   */
+  public TlvIndex getFciTlvIndex() {
+    if (fci == null) {
+      return null;
+    }
+    // the index is immutable, a concurrent first access at worst builds it twice
+    TlvIndex index = fciTlvIndex;
+    if (index == null) {
+      index = new TlvIndex(fci.getBytes(), 0, fci.getDataOutLength());
+      fciTlvIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Gives the selection process status.
    *
@@ -83,6 +104,6 @@ public boolean hasMatched() {
    */
   @Override
   public String toString() {
-    return "SELECTION_STATUS = " + JsonUtil.toJson(this);
+    return CardJsonWriter.append(new StringBuilder("SELECTION_STATUS = "), this).toString();
   }
 }
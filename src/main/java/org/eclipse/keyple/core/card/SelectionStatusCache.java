@@ -0,0 +1,174 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.keyple.core.card.spi.CardSelectionSpi;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Bounded cache of values computed from a {@link SelectionStatus}, keyed by the bytes of its ATR
+ * and FCI and by its matching indicator.
+ *
+ * <p>It is intended to be used by the card extensions in {@link
+ * CardSelectionSpi#parse(CardSelectionResponse)} to memoize the part of the parsing depending only
+ * on the selection status (e.g. the card product features deduced from the ATR and the FCI), the
+ * parts specific to each card (e.g. the serial number) being computed at each call. The cached
+ * values must therefore be immutable and independent of the card.
+ *
+ * <p>When the maximum size is reached, the least recently used entry is evicted.
+ *
+ * <p>The cache is thread-safe. The loader is invoked outside of any lock, so the same value may be
+ * computed concurrently by several threads, the last one being kept.
+ *
+ * @param <V> The type of the cached values.
+ * @since 2.0
+ */
+public final class SelectionStatusCache<V> {
+
+  private final Map<Key, V> entries;
+
+  /**
+   * Computes the value associated with a selection status not yet present in the cache.
+   *
+   * @param <V> The type of the cached values.
+   * @since 2.0
+   */
+  public interface Loader<V> {
+
+    /**
+     * Computes the value associated with the provided selection status.
+     *
+     * @param selectionStatus The selection status.
+     * @return null if the value must not be cached.
+     * @since 2.0
+     */
+    V load(SelectionStatus selectionStatus);
+  }
+
+  /**
+   * Builds an empty cache.
+   *
+   * @param maxSize The maximum number of entries.
+   * @throws IllegalArgumentException If maxSize is less than 1.
+   * @since 2.0
+   */
+  public SelectionStatusCache(final int maxSize) {
+    Assert.getInstance().greaterOrEqual(maxSize, 1, "maxSize");
+    this.entries =
+        new LinkedHashMap<Key, V>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Gets the value associated with the provided selection status, computing it with the loader if
+   * not already present in the cache.
+   *
+   * @param selectionStatus The selection status.
+   * @param loader The loader computing the value when missing.
+   * @return null if the value is missing and the loader returned null.
+   * @throws IllegalArgumentException If one of the arguments is null.
+   * @since 2.0
+   */
+  public V get(SelectionStatus selectionStatus, Loader<V> loader) {
+    Assert.getInstance().notNull(selectionStatus, "selectionStatus").notNull(loader, "loader");
+    Key key = new Key(selectionStatus);
+    V value;
+    synchronized (entries) {
+      value = entries.get(key);
+    }
+    if (value == null) {
+      value = loader.load(selectionStatus);
+      if (value != null) {
+        key.detach();
+        synchronized (entries) {
+          entries.put(key, value);
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Gets the number of entries currently in the cache.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Removes all entries from the cache.
+   *
+   * @since 2.0
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Cache key made of the ATR and FCI bytes and the matching indicator.
+   */
+  private static final class Key {
+
+    private byte[] atr;
+    private byte[] fci;
+    private final boolean hasMatched;
+    private final int hashCode;
+
+    private Key(SelectionStatus selectionStatus) {
+      atr = selectionStatus.getAtr() != null ? selectionStatus.getAtr().getBytes() : null;
+      fci = selectionStatus.getFci() != null ? selectionStatus.getFci().getBytes() : null;
+      hasMatched = selectionStatus.hasMatched();
+      hashCode = 31 * (31 * Arrays.hashCode(atr) + Arrays.hashCode(fci)) + (hasMatched ? 1 : 0);
+    }
+
+    /** Copies the arrays before the key is stored, they belong to the caller. */
+    private void detach() {
+      atr = atr != null ? atr.clone() : null;
+      fci = fci != null ? fci.clone() : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return hashCode == key.hashCode
+          && hasMatched == key.hasMatched
+          && Arrays.equals(atr, key.atr)
+          && Arrays.equals(fci, key.fci);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
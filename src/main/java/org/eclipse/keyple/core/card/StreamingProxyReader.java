@@ -0,0 +1,49 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+/**
+ * {@link ProxyReader} able to notify each APDU response as soon as it is received.
+ *
+ * @see ApduResponseListener
+ * @since 2.0
+ */
+public interface StreamingProxyReader extends ProxyReader {
+
+  /**
+   * Transmits a {@link CardRequest}, applies the provided {@link ChannelControl} policy and returns
+   * a {@link CardResponse}, notifying each {@link ApduResponse} to the provided {@link
+   * ApduResponseListener} as soon as it is received.
+   *
+   * <p>The processing is the same as for {@link #transmitCardRequest(CardRequest, ChannelControl)}
+   * except that the listener can stop it early by returning false. In this case, no exception is
+   * thrown and the returned {@link CardResponse} contains the responses received so far and is
+   * marked as incomplete.
+   *
+   * @param cardRequest The card request.
+   * @param channelControl The channel control policy to apply.
+   * @param apduResponseListener The listener to notify of each APDU response.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the listener is null.
+   * @throws ReaderCommunicationException If the communication with the reader has failed.
+   * @throws CardCommunicationException If the communication with the card has failed.
+   * @throws UnexpectedStatusCodeException If any of the APDUs returned an unexpected status code
+   *     and the card request specified the need to check them.
+   * @since 2.0
+   */
+  CardResponse transmitCardRequest(
+      CardRequest cardRequest,
+      ChannelControl channelControl,
+      ApduResponseListener apduResponseListener)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException;
+}
@@ -0,0 +1,292 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * Reusable cursor reading BER-TLV structures (ISO 7816-4 / ISO 8825-1) in place, without
+ * allocation, from a byte array such as the one of an {@link ApduResponse}.
+ *
+ * <p>The cursor iterates over the TLVs of one level with {@link #next()}, descends into the value
+ * of the current constructed TLV with {@link #enter()} and goes back up with {@link #exit()}. The
+ * tags are returned as ints holding their bytes in big-endian order (e.g. {@code 6Fh}, {@code
+ * 9F38h}, {@code BF0Ch}) and the values are read directly from the array using {@link
+ * #getValueOffset()} and {@link #getLength()}.
+ *
+ * <p>As specified by ISO/IEC 7816-4, tags are at most 3 bytes long; a longer tag is rejected
+ * whatever its first byte.
+ *
+ * <p>The bytes {@code 00h} and {@code FFh} found before a tag are skipped as padding.
+ *
+ * <p>A cursor is not thread safe, it can be reused for successive parsings by calling one of the
+ * {@code reset} methods.
+ *
+ * @since 2.0
+ */
+public final class TlvCursor {
+
+  private static final int MAX_DEPTH = 16;
+  private static final int MAX_TAG_SIZE = 3;
+
+  private final int[] levelEnds = new int[MAX_DEPTH];
+  private final int[] levelResumePositions = new int[MAX_DEPTH];
+  private byte[] buffer;
+  private int depth;
+  private int position;
+  private int tag;
+  private int tagOffset;
+  private int valueOffset;
+  private int length;
+
+  /**
+   * Positions the cursor before the first TLV of a byte array range.
+   *
+   * @param buffer The source array.
+   * @param offset The offset of the first TLV.
+   * @param length The length of the range.
+   * @return The object instance.
+   * @throws IllegalArgumentException If the buffer is null or if the range is out of its bounds.
+   * @since 2.0
+   */
+  public TlvCursor reset(byte[] buffer, int offset, int length) {
+    Assert.getInstance()
+        .notNull(buffer, "buffer")
+        .isInRange(offset, 0, buffer.length, "offset")
+        .isInRange(length, 0, buffer.length - offset, "length");
+    this.buffer = buffer;
+    this.depth = 0;
+    this.levelEnds[0] = offset + length;
+    this.position = offset;
+    this.tag = -1;
+    this.tagOffset = -1;
+    this.valueOffset = -1;
+    this.length = -1;
+    return this;
+  }
+
+  /**
+   * Positions the cursor before the first TLV of the data part of an APDU response (excluding
+   * SW1SW2).
+   *
+   * @param apduResponse The APDU response.
+   * @return The object instance.
+   * @throws IllegalArgumentException If the response is null.
+   * @since 2.0
+   */
+  public TlvCursor reset(ApduResponse apduResponse) {
+    Assert.getInstance().notNull(apduResponse, "apduResponse");
+    return reset(apduResponse.getBytes(), 0, apduResponse.getDataOutLength());
+  }
+
+  /**
+   * Moves the cursor to the next TLV of the current level.
+   *
+   * @return false if there is no more TLV at the current level.
+   * @throws IllegalArgumentException If the data is not a valid BER-TLV structure.
+   * @throws IllegalStateException If the cursor has not been reset.
+   * @since 2.0
+   */
+  public boolean next() {
+    if (buffer == null) {
+      throw new IllegalStateException("The cursor has not been reset.");
+    }
+    int end = levelEnds[depth];
+    while (position < end && (buffer[position] == 0x00 || buffer[position] == (byte) 0xFF)) {
+      position++;
+    }
+    if (position >= end) {
+      tag = -1;
+      tagOffset = -1;
+      valueOffset = -1;
+      length = -1;
+      return false;
+    }
+    tagOffset = position;
+    int t = buffer[position++] & 0xFF;
+    if ((t & 0x1F) == 0x1F) {
+      // subsequent bytes, b8 set on all but the last one
+      int b;
+      do {
+        if (position >= end || position - tagOffset >= MAX_TAG_SIZE) {
+          throw new IllegalArgumentException("Malformed BER-TLV tag at offset " + tagOffset);
+        }
+        b = buffer[position++] & 0xFF;
+        t = (t << 8) | b;
+      } while ((b & 0x80) != 0);
+    }
+    if (position >= end) {
+      throw new IllegalArgumentException("Missing BER-TLV length at offset " + tagOffset);
+    }
+    int l = buffer[position++] & 0xFF;
+    if (l > 0x7F) {
+      int count = l & 0x7F;
+      if (count == 0 || count > 3 || position + count > end) {
+        throw new IllegalArgumentException("Unsupported BER-TLV length at offset " + tagOffset);
+      }
+      l = 0;
+      for (int i = 0; i < count; i++) {
+        l = (l << 8) | (buffer[position++] & 0xFF);
+      }
+    }
+    if (l > end - position) {
+      throw new IllegalArgumentException("BER-TLV value overflow at offset " + tagOffset);
+    }
+    tag = t;
+    valueOffset = position;
+    length = l;
+    position = valueOffset + length;
+    return true;
+  }
+
+  /**
+   * Descends into the value of the current TLV, which must be constructed, the cursor being then
+   * positioned before its first nested TLV.
+   *
+   * @throws IllegalStateException If the cursor is not on a constructed TLV or if the maximum depth
+   *     (16) is reached.
+   * @since 2.0
+   */
+  public void enter() {
+    if (tag == -1 || !isConstructed()) {
+      throw new IllegalStateException("The cursor is not on a constructed TLV.");
+    }
+    if (depth + 1 >= MAX_DEPTH) {
+      throw new IllegalStateException("Maximum BER-TLV depth reached.");
+    }
+    levelResumePositions[depth] = position;
+    depth++;
+    levelEnds[depth] = valueOffset + length;
+    position = valueOffset;
+    tag = -1;
+    tagOffset = -1;
+    valueOffset = -1;
+    length = -1;
+  }
+
+  /**
+   * Goes back to the parent level, the cursor being then positioned after the TLV previously
+   * entered.
+   *
+   * @throws IllegalStateException If the cursor is at the top level.
+   * @since 2.0
+   */
+  public void exit() {
+    if (depth == 0) {
+      throw new IllegalStateException("The cursor is at the top level.");
+    }
+    depth--;
+    position = levelResumePositions[depth];
+    tag = -1;
+    tagOffset = -1;
+    valueOffset = -1;
+    length = -1;
+  }
+
+  /**
+   * Moves the cursor to the next TLV having the provided tag, searching depth first from the
+   * current position (starting with the nested TLVs of the current one if it is constructed),
+   * within the current level and its nested levels.
+   *
+   * <p>When found, the cursor is at the level of the TLV; otherwise it is back at the level at
+   * which the search started, after its last TLV.
+   *
+   * @param tag The tag searched.
+   * @return true if the tag has been found.
+   * @throws IllegalArgumentException If the data is not a valid BER-TLV structure.
+   * @since 2.0
+   */
+  public boolean find(int tag) {
+    int startDepth = depth;
+    if (isConstructed() && depth + 1 < MAX_DEPTH) {
+      enter();
+    }
+    while (true) {
+      if (next()) {
+        if (this.tag == tag) {
+          return true;
+        }
+        if (isConstructed() && depth + 1 < MAX_DEPTH) {
+          enter();
+        }
+      } else if (depth > startDepth) {
+        exit();
+      } else {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Gets the tag of the current TLV.
+   *
+   * @return -1 if the cursor is not on a TLV.
+   * @since 2.0
+   */
+  public int getTag() {
+    return tag;
+  }
+
+  /**
+   * Indicates if the current TLV is constructed, i.e. if its value contains nested TLVs.
+   *
+   * @return false if the TLV is primitive or if the cursor is not on a TLV.
+   * @since 2.0
+   */
+  public boolean isConstructed() {
+    if (tag == -1) {
+      return false;
+    }
+    // b6 of the first tag byte
+    return (buffer[tagOffset] & 0x20) != 0;
+  }
+
+  /**
+   * Gets the offset of the first byte of the tag of the current TLV in the source array.
+   *
+   * @return -1 if the cursor is not on a TLV.
+   * @since 2.0
+   */
+  public int getTagOffset() {
+    return tagOffset;
+  }
+
+  /**
+   * Gets the offset of the value of the current TLV in the source array.
+   *
+   * @return -1 if the cursor is not on a TLV.
+   * @since 2.0
+   */
+  public int getValueOffset() {
+    return valueOffset;
+  }
+
+  /**
+   * Gets the length of the value of the current TLV.
+   *
+   * @return -1 if the cursor is not on a TLV.
+   * @since 2.0
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Gets the current nesting level.
+   *
+   * @return 0 at the top level.
+   * @since 2.0
+   */
+  public int getDepth() {
+    return depth;
+  }
+}
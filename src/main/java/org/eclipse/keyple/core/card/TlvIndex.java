@@ -0,0 +1,165 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.util.Arrays;
+
+/**
+ * Immutable index of the BER-TLV structures of a byte array, giving direct access to the value of
+ * each tag, at any nesting level.
+ *
+ * <p>Only the first occurrence of each tag, in depth-first order, is indexed. The parsing stops at
+ * the first malformed TLV, the TLVs read before it remaining indexed, so that non TLV data (e.g. a
+ * proprietary FCI) simply leads to an empty or partial index.
+ *
+ * <p>The offsets returned refer to the array provided at construction, which is not copied.
+ *
+ * @see TlvCursor
+ * @see SelectionStatus#getFciTlvIndex()
+ * @since 2.0
+ */
+public final class TlvIndex {
+
+  private final byte[] buffer;
+  private final int[] tags;
+  private final int[] valueOffsets;
+  private final int[] lengths;
+
+  /**
+   * Builds the index of the TLVs of a byte array range.
+   *
+   * @param buffer The source array.
+   * @param offset The offset of the first TLV.
+   * @param length The length of the range.
+   * @throws IllegalArgumentException If the buffer is null or if the range is out of its bounds.
+   * @since 2.0
+   */
+  public TlvIndex(byte[] buffer, int offset, int length) {
+    TlvCursor cursor = new TlvCursor().reset(buffer, offset, length);
+    int[] sortedTags = new int[8];
+    int[] sortedValueOffsets = new int[8];
+    int[] sortedLengths = new int[8];
+    int count = 0;
+    try {
+      while (true) {
+        if (cursor.next()) {
+          int index = Arrays.binarySearch(sortedTags, 0, count, cursor.getTag());
+          if (index < 0) {
+            if (count == sortedTags.length) {
+              sortedTags = Arrays.copyOf(sortedTags, 2 * count);
+              sortedValueOffsets = Arrays.copyOf(sortedValueOffsets, 2 * count);
+              sortedLengths = Arrays.copyOf(sortedLengths, 2 * count);
+            }
+            int insertionPoint = -index - 1;
+            insert(sortedTags, insertionPoint, count, cursor.getTag());
+            insert(sortedValueOffsets, insertionPoint, count, cursor.getValueOffset());
+            insert(sortedLengths, insertionPoint, count, cursor.getLength());
+            count++;
+          }
+          if (cursor.isConstructed()) {
+            cursor.enter();
+          }
+        } else if (cursor.getDepth() > 0) {
+          cursor.exit();
+        } else {
+          break;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // malformed data, the TLVs already read remain indexed
+    } catch (IllegalStateException e) {
+      // maximum depth reached, the TLVs already read remain indexed
+    }
+    this.buffer = buffer;
+    this.tags = Arrays.copyOf(sortedTags, count);
+    this.valueOffsets = Arrays.copyOf(sortedValueOffsets, count);
+    this.lengths = Arrays.copyOf(sortedLengths, count);
+  }
+
+  /**
+   * (private)<br>
+   * Inserts a value in the first count elements of an array, shifting the following ones.
+   */
+  private static void insert(int[] array, int index, int count, int value) {
+    System.arraycopy(array, index, array, index + 1, count - index);
+    array[index] = value;
+  }
+
+  /**
+   * Gets the source array, to which the value offsets refer.
+   *
+   * @return A not null reference, which must not be modified.
+   * @since 2.0
+   */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Gets the number of distinct tags indexed.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public int size() {
+    return tags.length;
+  }
+
+  /**
+   * Indicates if the provided tag is present.
+   *
+   * @param tag The tag, its bytes in big-endian order (e.g. {@code 9F38h}).
+   * @return true if the tag is present.
+   * @since 2.0
+   */
+  public boolean contains(int tag) {
+    return Arrays.binarySearch(tags, tag) >= 0;
+  }
+
+  /**
+   * Gets the offset in the source array of the value of the provided tag.
+   *
+   * @param tag The tag, its bytes in big-endian order.
+   * @return -1 if the tag is absent.
+   * @since 2.0
+   */
+  public int getValueOffset(int tag) {
+    int index = Arrays.binarySearch(tags, tag);
+    return index >= 0 ? valueOffsets[index] : -1;
+  }
+
+  /**
+   * Gets the length of the value of the provided tag.
+   *
+   * @param tag The tag, its bytes in big-endian order.
+   * @return -1 if the tag is absent.
+   * @since 2.0
+   */
+  public int getLength(int tag) {
+    int index = Arrays.binarySearch(tags, tag);
+    return index >= 0 ? lengths[index] : -1;
+  }
+
+  /**
+   * Gets a copy of the value of the provided tag.
+   *
+   * @param tag The tag, its bytes in big-endian order.
+   * @return Null if the tag is absent.
+   * @since 2.0
+   */
+  public byte[] getValue(int tag) {
+    int index = Arrays.binarySearch(tags, tag);
+    return index >= 0
+        ? Arrays.copyOfRange(buffer, valueOffsets[index], valueOffsets[index] + lengths[index])
+        : null;
+  }
+}
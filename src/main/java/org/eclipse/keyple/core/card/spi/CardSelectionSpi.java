@@ -33,6 +33,9 @@ public interface CardSelectionSpi {
    * Analyzes the response obtained from the card by the selection process and create a specific
    * SmartCard.
    *
+   * <p>The part of the analysis depending only on the selection status can be memoized with a
+   * {@link org.eclipse.keyple.core.card.SelectionStatusCache}.
+   *
    * @param cardSelectionResponse the card selection response
    * @return A not null reference
    * @since 2.0
@@ -0,0 +1,35 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.spi;
+
+import org.eclipse.keyple.core.card.CardResourceProfileMatchCriteria;
+
+/**
+ * Card resource profile exposing declarative match criteria, allowing the readers that cannot match
+ * it to be discarded without any exchange with the card.
+ *
+ * @see org.eclipse.keyple.core.card.CardResourceProfileIndex
+ * @since 2.0
+ */
+public interface IndexableCardResourceProfileExtensionSpi extends CardResourceProfileExtensionSpi {
+
+  /**
+   * Gets the criteria that a reader and its card must meet for {@link #matches(
+   * org.eclipse.keyple.core.card.ProxyReader)} to have a chance to succeed.
+   *
+   * <p>The criteria must not change over time.
+   *
+   * @return A not null reference.
+   * @since 2.0
+   */
+  CardResourceProfileMatchCriteria getMatchCriteria();
+}
@@ -0,0 +1,79 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * (package-private)<br>
+ * Reads big-endian values from byte arrays.
+ *
+ * <p>Java 9 implementation, based on byte array view var handles which compile to single
+ * (unaligned) loads with a byte swap where needed, instead of the byte by byte assembly of the
+ * baseline implementation.
+ *
+ * @since 2.0
+ */
+final class BigEndian {
+
+  private static final VarHandle SHORT =
+      MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INT =
+      MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  /**
+   * (private)<br>
+   * Constructor.
+   */
+  private BigEndian() {}
+
+  /**
+   * (package-private)<br>
+   * Reads a signed 16-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return The value.
+   * @since 2.0
+   */
+  static short getShort(byte[] bytes, int index) {
+    return (short) SHORT.get(bytes, index);
+  }
+
+  /**
+   * (package-private)<br>
+   * Reads an unsigned 16-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return A positive int &le; {@code FFFFh}.
+   * @since 2.0
+   */
+  static int getUnsignedShort(byte[] bytes, int index) {
+    return (short) SHORT.get(bytes, index) & 0xFFFF;
+  }
+
+  /**
+   * (package-private)<br>
+   * Reads a signed 32-bit value.
+   *
+   * @param bytes The source array.
+   * @param index The index of the most significant byte.
+   * @return The value.
+   * @since 2.0
+   */
+  static int getInt(byte[] bytes, int index) {
+    return (int) INT.get(bytes, index);
+  }
+}
@@ -0,0 +1,43 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Test;
+
+public class AbstractApduExceptionTest {
+
+  private static final CardResponse CARD_RESPONSE =
+      new CardResponse(Collections.<ApduResponse>emptyList(), true, false);
+
+  @After
+  public void tearDown() {
+    AbstractApduException.setStackTraceEnabled(true);
+  }
+
+  @Test
+  public void constructor_byDefault_shouldCaptureStackTrace() {
+    assertThat(new UnexpectedStatusCodeException(CARD_RESPONSE, "test").getStackTrace())
+        .isNotEmpty();
+  }
+
+  @Test
+  public void constructor_whenStackTraceDisabled_shouldNotCaptureStackTrace() {
+    AbstractApduException.setStackTraceEnabled(false);
+    UnexpectedStatusCodeException e = new UnexpectedStatusCodeException(CARD_RESPONSE, "test");
+    assertThat(e.getStackTrace()).isEmpty();
+    assertThat(e.getCardResponse()).isSameAs(CARD_RESPONSE);
+  }
+}
@@ -0,0 +1,58 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class AnswerToResetTest {
+
+  private static final byte[] ATR_T1 =
+      ByteArrayUtil.fromHex("3B8F8001804F0CA0000003060300010000000069");
+  private static final byte[] ATR_T0 =
+      ByteArrayUtil.fromHex("3B6E000080318066B0840C016E0183009000");
+
+  @Test
+  public void getters_whenT1_shouldParseInterfaceAndHistoricalBytesAndTck() {
+    AnswerToReset atr = new AnswerToReset(ATR_T1);
+    assertThat(atr.isWellFormed()).isTrue();
+    assertThat(atr.getTs()).isEqualTo(0x3B);
+    assertThat(atr.getT0()).isEqualTo(0x8F);
+    assertThat(atr.getTd(1)).isEqualTo(0x80);
+    assertThat(atr.getTd(2)).isEqualTo(0x01);
+    assertThat(atr.getTa(1)).isEqualTo(-1);
+    assertThat(atr.getTd(3)).isEqualTo(-1);
+    assertThat(atr.getHistoricalBytesOffset()).isEqualTo(4);
+    assertThat(atr.getHistoricalBytes()).hasSize(15).startsWith(0x80, 0x4F, 0x0C);
+    assertThat(atr.getTck()).isEqualTo(0x69);
+  }
+
+  @Test
+  public void getters_whenT0_shouldHaveNoTck() {
+    AnswerToReset atr = new AnswerToReset(ATR_T0);
+    assertThat(atr.isWellFormed()).isTrue();
+    assertThat(atr.getTb(1)).isZero();
+    assertThat(atr.getTc(1)).isZero();
+    assertThat(atr.getHistoricalBytesLength()).isEqualTo(14);
+    assertThat(atr.getTck()).isEqualTo(-1);
+  }
+
+  @Test
+  public void isWellFormed_whenTruncated_shouldReturnFalse() {
+    AnswerToReset atr = new AnswerToReset(ByteArrayUtil.fromHex("3B8F80"));
+    assertThat(atr.isWellFormed()).isFalse();
+    assertThat(atr.getTd(1)).isEqualTo(0x80);
+    assertThat(atr.getHistoricalBytes()).isEmpty();
+  }
+}
@@ -0,0 +1,265 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.Gson;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ApduRequestTest {
+
+  private static final byte CLA = (byte) 0x00;
+  private static final byte INS = (byte) 0xB2;
+  private static final byte P1 = (byte) 0x01;
+  private static final byte P2 = (byte) 0x0C;
+
+  @Test
+  public void isSuccessfulStatusCode_byDefault_shouldOnlyAccept9000() {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    assertThat(apduRequest.isSuccessfulStatusCode(0x9000)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A82)).isFalse();
+    assertThat(apduRequest.getSuccessfulStatusCodes()).containsExactly(0x9000);
+  }
+
+  @Test
+  public void addSuccessfulStatusCode_shouldAcceptAddedCodesOnly() {
+    ApduRequest apduRequest =
+        new ApduRequest(CLA, INS, P1, P2, null, (byte) 0)
+            .addSuccessfulStatusCode(0x6A83)
+            .addSuccessfulStatusCode(0x6282)
+            .addSuccessfulStatusCode(0x6A83);
+    assertThat(apduRequest.isSuccessfulStatusCode(0x9000)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6282)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A83)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A82)).isFalse();
+    assertThat(apduRequest.getSuccessfulStatusCodes()).containsOnly(0x9000, 0x6282, 0x6A83);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getSuccessfulStatusCodes_whenModified_shouldThrowUOE() {
+    new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).getSuccessfulStatusCodes().add(0x6A83);
+  }
+
+  @Test
+  public void isSuccessfulStatusCode_whenDeserializedUnsorted_shouldSortTheStatusCodes()
+      throws Exception {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    // simulates a deserializer filling the fields without calling the constructors
+    Field successfulStatusCodes = ApduRequest.class.getDeclaredField("successfulStatusCodes");
+    successfulStatusCodes.setAccessible(true);
+    successfulStatusCodes.set(apduRequest, new int[] {0x9000, 0x6A83, 0x6282});
+    Field isSorted = ApduRequest.class.getDeclaredField("isSuccessfulStatusCodesSorted");
+    isSorted.setAccessible(true);
+    isSorted.set(apduRequest, false);
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6282)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A83)).isTrue();
+    assertThat(apduRequest.isSuccessfulStatusCode(0x9000)).isTrue();
+    assertThat(apduRequest.getSuccessfulStatusCodesArray()).containsExactly(0x6282, 0x6A83, 0x9000);
+  }
+
+  @Test
+  public void addSuccessfulStatusCode_shouldNotAffectOtherRequests() {
+    ApduRequest apduRequest1 = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    ApduRequest apduRequest2 = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    apduRequest1.addSuccessfulStatusCode(0x6A83);
+    assertThat(apduRequest2.isSuccessfulStatusCode(0x6A83)).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addSuccessfulStatusCode_whenOutOfRange_shouldThrowIAE() {
+    new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).addSuccessfulStatusCode(0x10000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_whenShortFormAndDataLongerThan255_shouldThrowIAE() {
+    new ApduRequest(CLA, INS, P1, P2, new byte[256], null);
+  }
+
+  @Test
+  public void constructor_whenExtendedCase1_shouldEncodeShortCase1() {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, null, null, true);
+    assertThat(apduRequest.getBytes()).containsExactly(CLA, INS, P1, P2, 0x00);
+    assertThat(apduRequest.isExtendedLength()).isFalse();
+  }
+
+  @Test
+  public void constructor_whenExtendedCase2_shouldEncodeLeOn3Bytes() {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, null, 0x1234, true);
+    assertThat(apduRequest.getBytes()).containsExactly(CLA, INS, P1, P2, 0x00, 0x12, 0x34);
+    assertThat(apduRequest.isExtendedLength()).isTrue();
+    assertThat(apduRequest.isCase4()).isFalse();
+  }
+
+  @Test
+  public void constructor_whenExtendedCase3_shouldEncodeLcOn3Bytes() {
+    byte[] dataIn = new byte[300];
+    dataIn[0] = (byte) 0xAA;
+    dataIn[299] = (byte) 0xBB;
+    byte[] bytes = new ApduRequest(CLA, INS, P1, P2, dataIn, null, true).getBytes();
+    assertThat(bytes).hasSize(307);
+    assertThat(bytes[4]).isEqualTo((byte) 0x00);
+    assertThat(bytes[5]).isEqualTo((byte) 0x01);
+    assertThat(bytes[6]).isEqualTo((byte) 0x2C);
+    assertThat(bytes[7]).isEqualTo((byte) 0xAA);
+    assertThat(bytes[306]).isEqualTo((byte) 0xBB);
+  }
+
+  @Test
+  public void constructor_whenExtendedCase4_shouldEncodeLcAndLeOn2Bytes() {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, new byte[] {0x55}, 0, true);
+    assertThat(apduRequest.getBytes())
+        .containsExactly(CLA, INS, P1, P2, 0x00, 0x00, 0x01, 0x55, 0x00, 0x00);
+    assertThat(apduRequest.isCase4()).isTrue();
+  }
+
+  @Test
+  public void constructor_whenNotExtended_shouldEncodeLikeShortConstructor() {
+    byte[] dataIn = new byte[] {0x11, 0x22};
+    assertThat(new ApduRequest(CLA, INS, P1, P2, dataIn, 0, false).getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, dataIn, (byte) 0).getBytes());
+    assertThat(new ApduRequest(CLA, INS, P1, P2, null, 0x1D, false).getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, null, (byte) 0x1D).getBytes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_whenNotExtendedAndLeGreaterThan255_shouldThrowIAE() {
+    new ApduRequest(CLA, INS, P1, P2, null, 256, false);
+  }
+
+  @Test
+  public void constructor_whenRawExtendedBytes_shouldDetectExtendedLength() {
+    byte[] bytes = new ApduRequest(CLA, INS, P1, P2, null, 0x1234, true).getBytes();
+    assertThat(new ApduRequest(bytes, false).isExtendedLength()).isTrue();
+    assertThat(new ApduRequest(new byte[] {CLA, INS, P1, P2, 0x00}, false).isExtendedLength())
+        .isFalse();
+    bytes = new ApduRequest(CLA, INS, P1, P2, new byte[] {0x55}, 0, true).getBytes();
+    assertThat(new ApduRequest(bytes, true).isExtendedLength()).isTrue();
+  }
+
+  @Test
+  public void constructor_whenRawShortBytesWithFifthByteZero_shouldNotDetectExtendedLength() {
+    // short case 4 with an empty data field, and malformed short APDUs
+    assertThat(new ApduRequest(new byte[] {CLA, INS, P1, P2, 0x00, 0x00}, true).isExtendedLength())
+        .isFalse();
+    assertThat(
+            new ApduRequest(new byte[] {CLA, INS, P1, P2, 0x00, 0x00, 0x02, 0x11}, false)
+                .isExtendedLength())
+        .isFalse();
+    assertThat(
+            new ApduRequest(new byte[] {CLA, INS, P1, P2, 0x00, 0x00, 0x01, 0x11}, true)
+                .isExtendedLength())
+        .isFalse();
+  }
+
+  @Test
+  public void constructor_whenEmptyDataIn_shouldEncodeLikeShortConstructor() {
+    assertThat(new ApduRequest(CLA, INS, P1, P2, new byte[0], null, false).getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, new byte[0], null).getBytes());
+    assertThat(new ApduRequest(CLA, INS, P1, P2, new byte[0], 0, false).getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, new byte[0], (byte) 0).getBytes());
+  }
+
+  @Test
+  public void addStatusCodeJump_whenSameStatusCode_shouldReplaceTarget() {
+    ApduRequest apduRequest =
+        new ApduRequest(CLA, INS, P1, P2, null, (byte) 0)
+            .addStatusCodeJump(0x6A82, 2)
+            .addStatusCodeJump(0x6A83, 3)
+            .addStatusCodeJump(0x6A82, 4);
+    assertThat(apduRequest.getJumpTarget(0x6A82)).isEqualTo(4);
+    assertThat(apduRequest.getJumpTarget(0x6A83)).isEqualTo(3);
+    assertThat(apduRequest.getJumpTarget(0x9000)).isEqualTo(-1);
+    assertThat(apduRequest.hasFlowControl()).isTrue();
+  }
+
+  @Test
+  public void cardRequest_whenForwardJumps_shouldBeAScript() {
+    ApduRequest first = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    ApduRequest second = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    first.addStatusCodeJump(0x6A82, 2);
+    second.setSkipIfPreviousStatusCode(0x6A83).setRepeatUntilStatusCode(0x9000, 3);
+    assertThat(new CardRequest(Arrays.asList(first, second), true).hasFlowControl()).isTrue();
+    ApduRequest plain = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    assertThat(new CardRequest(Arrays.asList(plain), true).hasFlowControl()).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cardRequest_whenBackwardJump_shouldThrowIAE() {
+    ApduRequest first = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0);
+    ApduRequest second =
+        new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).addStatusCodeJump(0x6A82, 0);
+    new CardRequest(Arrays.asList(first, second), true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cardRequest_whenJumpBeyondEnd_shouldThrowIAE() {
+    ApduRequest first =
+        new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).addStatusCodeJump(0x6A82, 3);
+    new CardRequest(Arrays.asList(first, new ApduRequest(CLA, INS, P1, P2, null, (byte) 0)), true);
+  }
+
+  @Test
+  public void getByte_whenFrozen_shouldReadTheBytesWithoutCopy() {
+    ApduRequest apduRequest = new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).frozenCopy();
+    assertThat(apduRequest.getLength()).isEqualTo(5);
+    assertThat(apduRequest.getByte(1)).isEqualTo(INS);
+    byte[] bytes = new byte[apduRequest.getLength()];
+    apduRequest.getBuffer().get(bytes);
+    assertThat(bytes).isEqualTo(apduRequest.getBytes());
+    assertThat(apduRequest.getBuffer().isReadOnly()).isTrue();
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getByte_whenIndexIsOutOfTheApdu_shouldThrowIOOBE() {
+    new ApduRequest(CLA, INS, P1, P2, null, (byte) 0).getByte(5);
+  }
+
+  /** Request serialized by the versions preceding the flow control rules. */
+  private static final String BASELINE_JSON =
+      "{\"bytes\":[0,-78,1,12,0],\"isCase4\":false,"
+          + "\"successfulStatusCodes\":[36864,27267],\"name\":\"Read record\"}";
+
+  @Test
+  public void fromJson_whenBaselineFormat_shouldHaveNoFlowControl() {
+    Gson gson = new Gson();
+    ApduRequest apduRequest = gson.fromJson(BASELINE_JSON, ApduRequest.class);
+    assertThat(apduRequest.hasFlowControl()).isFalse();
+    assertThat(apduRequest.getSkipIfPreviousStatusCode()).isEqualTo(-1);
+    assertThat(apduRequest.getRepeatUntilStatusCode()).isEqualTo(-1);
+    assertThat(apduRequest.getMaxRepetitions()).isZero();
+    assertThat(apduRequest.getJumpTarget(0x6A83)).isEqualTo(-1);
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A83)).isTrue();
+    assertThat(apduRequest.toString()).contains("\"name\":\"Read record\"");
+    ApduRequest roundTrip = gson.fromJson(gson.toJson(apduRequest), ApduRequest.class);
+    assertThat(roundTrip.hasFlowControl()).isFalse();
+    assertThat(roundTrip.getBytes()).isEqualTo(apduRequest.getBytes());
+  }
+
+  @Test
+  public void fromJson_withFlowControl_shouldKeepTheRules() {
+    Gson gson = new Gson();
+    ApduRequest apduRequest =
+        new ApduRequest(CLA, INS, P1, P2, null, (byte) 0)
+            .setSkipIfPreviousStatusCode(0x0000)
+            .addStatusCodeJump(0x6A83, 3)
+            .setRepeatUntilStatusCode(0x9000, 2);
+    ApduRequest roundTrip = gson.fromJson(gson.toJson(apduRequest), ApduRequest.class);
+    assertThat(roundTrip.hasFlowControl()).isTrue();
+    assertThat(roundTrip.getSkipIfPreviousStatusCode()).isZero();
+    assertThat(roundTrip.getJumpTarget(0x6A83)).isEqualTo(3);
+    assertThat(roundTrip.getRepeatUntilStatusCode()).isEqualTo(0x9000);
+    assertThat(roundTrip.getMaxRepetitions()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,93 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.junit.Test;
+
+public class ApduResponseTest {
+
+  private static final byte[] BYTES =
+      new byte[] {(byte) 0x01, (byte) 0x82, (byte) 0x03, (byte) 0xF4, (byte) 0x90, (byte) 0x00};
+
+  @Test
+  public void getDataOutLength_shouldExcludeStatusWord() {
+    assertThat(new ApduResponse(BYTES).getDataOutLength()).isEqualTo(4);
+    assertThat(new ApduResponse(new byte[] {(byte) 0x6A, (byte) 0x82}).getDataOutLength()).isZero();
+  }
+
+  @Test
+  public void getDataOutBuffer_shouldBeAReadOnlyViewOfTheDataPart() {
+    ApduResponse apduResponse = new ApduResponse(BYTES);
+    ByteBuffer buffer = apduResponse.getDataOutBuffer();
+    assertThat(buffer.isReadOnly()).isTrue();
+    assertThat(buffer.remaining()).isEqualTo(4);
+    assertThat(buffer.getInt()).isEqualTo(0x018203F4);
+  }
+
+  @Test(expected = ReadOnlyBufferException.class)
+  public void getDataOutBuffer_whenWritten_shouldThrowROBE() {
+    new ApduResponse(BYTES).getDataOutBuffer().put((byte) 0);
+  }
+
+  @Test
+  public void getDataOutByteShortInt_shouldReadBigEndianValues() {
+    ApduResponse apduResponse = new ApduResponse(BYTES);
+    assertThat(apduResponse.getDataOutByte(1)).isEqualTo((byte) 0x82);
+    assertThat(apduResponse.getDataOutShort(1)).isEqualTo((short) 0x8203);
+    assertThat(apduResponse.getDataOutInt(0)).isEqualTo(0x018203F4);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getDataOutShort_whenOverlappingStatusWord_shouldThrowIOOBE() {
+    new ApduResponse(BYTES).getDataOutShort(3);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getDataOutByte_whenNegativeIndex_shouldThrowIOOBE() {
+    new ApduResponse(BYTES).getDataOutByte(-1);
+  }
+
+  @Test
+  public void valueOf_whenCommonStatusCode_shouldReturnSharedInstance() {
+    ApduResponse apduResponse = ApduResponse.valueOf(0x6A82);
+    assertThat(ApduResponse.valueOf(0x6A82)).isSameAs(apduResponse);
+    assertThat(apduResponse.getBytes()).containsExactly(0x6A, 0x82);
+    assertThat(apduResponse.getStatusCode()).isEqualTo(0x6A82);
+    assertThat(ApduResponse.valueOf(0x6A84)).isNotSameAs(ApduResponse.valueOf(0x6A84));
+    assertThat(ApduResponse.valueOf(0x6A84).getStatusCode()).isEqualTo(0x6A84);
+  }
+
+  @Test
+  public void getBytes_whenSharedInstance_shouldNotExposeItsArray() {
+    ApduResponse.valueOf(0x9000).getBytes()[0] = (byte) 0x6A;
+    assertThat(ApduResponse.valueOf(0x9000).getBytes()).containsExactly(0x90, 0x00);
+    assertThat(ApduResponse.valueOf(0x9000).getStatusCode()).isEqualTo(0x9000);
+  }
+
+  @Test
+  public void valueOf_whenSlice_shouldCopyDataOnceOrShareStatusOnly() {
+    byte[] buffer = new byte[] {0x00, 0x01, 0x02, (byte) 0x90, 0x00, 0x00};
+    ApduResponse apduResponse = ApduResponse.valueOf(buffer, 1, 4);
+    buffer[1] = 0x7F;
+    assertThat(apduResponse.getBytes()).containsExactly(0x01, 0x02, 0x90, 0x00);
+    assertThat(ApduResponse.valueOf(buffer, 3, 2)).isSameAs(ApduResponse.valueOf(0x9000));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void valueOf_whenSliceOutOfBounds_shouldThrowIAE() {
+    ApduResponse.valueOf(new byte[4], 3, 2);
+  }
+}
@@ -0,0 +1,89 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ApduTemplateTest {
+
+  private static final byte CLA = (byte) 0x00;
+  private static final byte INS = (byte) 0xD6;
+  private static final byte P1 = (byte) 0x01;
+  private static final byte P2 = (byte) 0x0C;
+  private static final byte[] DATA_IN = new byte[] {(byte) 0x11, (byte) 0x22, (byte) 0x33};
+
+  @Test
+  public void createApduRequest_shouldBeEqualToTheRegularConstructor() {
+    ApduTemplate template = new ApduTemplate(CLA, INS, P1, P2, DATA_IN, (byte) 0);
+    ApduRequest apduRequest = template.createApduRequest((byte) 0x02, (byte) 0x14);
+    assertThat(apduRequest.getBytes())
+        .isEqualTo(
+            new ApduRequest(CLA, INS, (byte) 0x02, (byte) 0x14, DATA_IN, (byte) 0).getBytes());
+  }
+
+  @Test
+  public void createApduRequest_withDataIn_shouldPatchTheDataField() {
+    ApduTemplate template = new ApduTemplate(CLA, INS, P1, P2, DATA_IN, null);
+    byte[] dataIn = new byte[] {(byte) 0xAA, (byte) 0xBB, (byte) 0xCC};
+    ApduRequest apduRequest = template.createApduRequest(P1, P2, dataIn);
+    assertThat(apduRequest.getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, dataIn, null).getBytes());
+    // the template itself is not modified
+    assertThat(template.createApduRequest(P1, P2).getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, DATA_IN, null).getBytes());
+  }
+
+  @Test
+  public void createApduRequest_whenExtendedLength_shouldPatchTheDataFieldAfterLc() {
+    byte[] defaultDataIn = new byte[300];
+    byte[] dataIn = new byte[300];
+    for (int i = 0; i < dataIn.length; i++) {
+      dataIn[i] = (byte) i;
+    }
+    ApduTemplate template = new ApduTemplate(CLA, INS, P1, P2, defaultDataIn, 0, true);
+    ApduRequest apduRequest = template.createApduRequest(P1, P2, dataIn);
+    assertThat(apduRequest.isExtendedLength()).isTrue();
+    assertThat(apduRequest.getBytes())
+        .isEqualTo(new ApduRequest(CLA, INS, P1, P2, dataIn, 0, true).getBytes());
+  }
+
+  @Test
+  public void createApduRequest_shouldInheritStatusCodesAndName() {
+    ApduTemplate template =
+        new ApduTemplate(CLA, INS, P1, P2, DATA_IN, null)
+            .addSuccessfulStatusCode(0x6A83)
+            .setName("UPDATE RECORD");
+    ApduRequest apduRequest = template.createApduRequest(P1, P2);
+    assertThat(apduRequest.isSuccessfulStatusCode(0x6A83)).isTrue();
+    assertThat(apduRequest.getName()).isEqualTo("UPDATE RECORD");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createApduRequest_whenDataInLengthDiffers_shouldThrowIAE() {
+    new ApduTemplate(CLA, INS, P1, P2, DATA_IN, null)
+        .createApduRequest(P1, P2, new byte[DATA_IN.length + 1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createApduRequest_whenTemplateHasNoDataField_shouldThrowIAE() {
+    new ApduTemplate(CLA, (byte) 0xB2, P1, P2, null, (byte) 0)
+        .createApduRequest(P1, P2, new byte[0]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createApduRequest_whenBufferLengthDiffers_shouldThrowIAE() {
+    ApduTemplate template = new ApduTemplate(CLA, INS, P1, P2, DATA_IN, null);
+    template.createApduRequest(new byte[template.getLength() - 1], P1, P2, null);
+  }
+}
@@ -0,0 +1,66 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class AtrMatcherTest {
+
+  private static final byte[] ATR =
+      ByteArrayUtil.fromHex("3B8F8001804F0CA0000003060300010000000069");
+
+  @Test
+  public void matchAll_shouldReturnMatchingPatternsInInsertionOrder() {
+    AtrMatcher<String> matcher =
+        new AtrMatcher<String>()
+            .add(ByteArrayUtil.fromHex("3B8F8001804F0CA000000306"), null, "PC/SC contactless")
+            .add(ByteArrayUtil.fromHex("3B00"), ByteArrayUtil.fromHex("FF00"), "Any 3B")
+            .add(ByteArrayUtil.fromHex("3B8F8001804F0CA000000307"), null, "Other standard")
+            .add(ByteArrayUtil.fromHex("3B80"), ByteArrayUtil.fromHex("FFF0"), "TD1 present");
+    assertThat(matcher.size()).isEqualTo(4);
+    assertThat(matcher.matchAll(ATR)).containsExactly("PC/SC contactless", "Any 3B", "TD1 present");
+    assertThat(matcher.match(ATR)).isEqualTo("PC/SC contactless");
+  }
+
+  @Test
+  public void match_whenAtrShorterThanPattern_shouldReturnNull() {
+    AtrMatcher<String> matcher =
+        new AtrMatcher<String>().add(ByteArrayUtil.fromHex("3B8F80"), null, "Long");
+    assertThat(matcher.match(ByteArrayUtil.fromHex("3B8F"))).isNull();
+    assertThat(matcher.matchAll(ByteArrayUtil.fromHex("3B8F"))).isEmpty();
+  }
+
+  @Test
+  public void match_whenSeveralMasksMatch_shouldReturnFirstAddedPattern() {
+    AtrMatcher<String> matcher =
+        new AtrMatcher<String>()
+            .add(ByteArrayUtil.fromHex("3B00"), ByteArrayUtil.fromHex("FF00"), "Any 3B")
+            .add(ByteArrayUtil.fromHex("3B8F8001"), null, "Exact prefix")
+            .add(ByteArrayUtil.fromHex("3B0F"), ByteArrayUtil.fromHex("FF0F"), "Low nibble F")
+            .add(ByteArrayUtil.fromHex("3B"), null, "Short prefix");
+    assertThat(matcher.match(ATR)).isEqualTo("Any 3B");
+    assertThat(matcher.matchAll(ATR))
+        .containsExactly("Any 3B", "Exact prefix", "Low nibble F", "Short prefix");
+    AtrMatcher<String> reversedMatcher =
+        new AtrMatcher<String>()
+            .add(ByteArrayUtil.fromHex("3B8F8001"), null, "Exact prefix")
+            .add(ByteArrayUtil.fromHex("3B0F"), ByteArrayUtil.fromHex("FF0F"), "Low nibble F")
+            .add(ByteArrayUtil.fromHex("3B"), null, "Short prefix");
+    assertThat(reversedMatcher.match(ATR)).isEqualTo("Exact prefix");
+    assertThat(reversedMatcher.match(ByteArrayUtil.fromHex("3B1F"))).isEqualTo("Low nibble F");
+    assertThat(reversedMatcher.match(ByteArrayUtil.fromHex("3B10"))).isEqualTo("Short prefix");
+    assertThat(reversedMatcher.match(ByteArrayUtil.fromHex("3F"))).isNull();
+  }
+}
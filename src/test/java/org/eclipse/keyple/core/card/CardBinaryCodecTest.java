@@ -0,0 +1,315 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.keyple.core.common.KeypleCardSelector;
+import org.junit.Test;
+
+public class CardBinaryCodecTest {
+
+  private static class CardSelectorMock implements KeypleCardSelector {
+    private final byte id;
+
+    CardSelectorMock(byte id) {
+      this.id = id;
+    }
+  }
+
+  /** Gson adapter of the card selector interface, as registered by the remote readers. */
+  private static class CardSelectorMockAdapter
+      implements JsonSerializer<KeypleCardSelector>, JsonDeserializer<KeypleCardSelector> {
+    @Override
+    public JsonElement serialize(
+        KeypleCardSelector src, Type typeOfSrc, JsonSerializationContext context) {
+      return context.serialize(src, CardSelectorMock.class);
+    }
+
+    @Override
+    public KeypleCardSelector deserialize(
+        JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+      return context.deserialize(json, CardSelectorMock.class);
+    }
+  }
+
+  private static final CardBinaryCodec.CardSelectorCodec CARD_SELECTOR_CODEC =
+      new CardBinaryCodec.CardSelectorCodec() {
+        @Override
+        public void encode(KeypleCardSelector cardSelector, ByteBuffer buffer) {
+          buffer.put(((CardSelectorMock) cardSelector).id);
+        }
+
+        @Override
+        public KeypleCardSelector decode(ByteBuffer buffer) {
+          return new CardSelectorMock(buffer.get());
+        }
+      };
+
+  private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+  private static CardRequest buildCardRequest() {
+    List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+    apduRequests.add(
+        new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0)
+            .addSuccessfulStatusCode(0x6A83)
+            .setName("Read record"));
+    apduRequests.add(
+        new ApduRequest((byte) 0x00, (byte) 0xD6, (byte) 0, (byte) 0, new byte[300], null, true)
+            .setChainingPolicy(ChainingPolicy.FULL_CHAINING));
+    return new CardRequest(apduRequests, true, ChainingPolicy.RESPONSE_CHAINING);
+  }
+
+  private static CardResponse buildCardResponse() {
+    return new CardResponse(
+        Arrays.asList(
+            new ApduResponse(new byte[] {0x12, 0x34, (byte) 0x90, 0x00}),
+            new ApduResponse(new byte[] {(byte) 0x6A, (byte) 0x82})),
+        true,
+        false);
+  }
+
+  @Test
+  public void apduRequest_shouldBeDecodedAsEncoded() {
+    ApduRequest apduRequest = buildCardRequest().getApduRequests().get(0);
+    CardBinaryCodec.encode(apduRequest, buffer);
+    buffer.flip();
+    ApduRequest decoded = CardBinaryCodec.decodeApduRequest(buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(decoded.getBytes()).isEqualTo(apduRequest.getBytes());
+    assertThat(decoded.isCase4()).isEqualTo(apduRequest.isCase4());
+    assertThat(decoded.getSuccessfulStatusCodes()).containsOnly(0x9000, 0x6A83);
+    assertThat(decoded.getName()).isEqualTo("Read record");
+    assertThat(decoded.getChainingPolicy()).isNull();
+  }
+
+  @Test
+  public void apduRequest_withFlowControl_shouldBeDecodedAsEncoded() {
+    ApduRequest apduRequest =
+        new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0)
+            .setSkipIfPreviousStatusCode(0x6A82)
+            .addStatusCodeJump(0x6A83, 3)
+            .setRepeatUntilStatusCode(0x9000, 5);
+    CardBinaryCodec.encode(apduRequest, buffer);
+    buffer.flip();
+    ApduRequest decoded = CardBinaryCodec.decodeApduRequest(buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(decoded.getSkipIfPreviousStatusCode()).isEqualTo(0x6A82);
+    assertThat(decoded.getJumpTarget(0x6A83)).isEqualTo(3);
+    assertThat(decoded.getRepeatUntilStatusCode()).isEqualTo(0x9000);
+    assertThat(decoded.getMaxRepetitions()).isEqualTo(5);
+  }
+
+  @Test
+  public void cardRequest_shouldBeDecodedAsEncoded() {
+    CardRequest cardRequest = buildCardRequest();
+    CardBinaryCodec.encode(cardRequest, buffer);
+    buffer.flip();
+    CardRequest decoded = CardBinaryCodec.decodeCardRequest(buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(decoded.isStatusCodesVerificationEnabled()).isTrue();
+    assertThat(decoded.getChainingPolicy()).isEqualTo(ChainingPolicy.RESPONSE_CHAINING);
+    assertThat(decoded.getApduRequests()).hasSize(2);
+    ApduRequest apduRequest = decoded.getApduRequests().get(1);
+    assertThat(apduRequest.getBytes()).isEqualTo(cardRequest.getApduRequests().get(1).getBytes());
+    assertThat(apduRequest.isExtendedLength()).isTrue();
+    assertThat(apduRequest.getChainingPolicy()).isEqualTo(ChainingPolicy.FULL_CHAINING);
+  }
+
+  @Test
+  public void cardResponse_shouldBeDecodedAsEncoded() {
+    CardBinaryCodec.encode(buildCardResponse(), buffer);
+    buffer.flip();
+    CardResponse decoded = CardBinaryCodec.decodeCardResponse(buffer);
+    assertThat(decoded.isLogicalChannelOpen()).isTrue();
+    assertThat(decoded.isComplete()).isFalse();
+    assertThat(decoded.getApduResponses()).hasSize(2);
+    assertThat(decoded.getApduResponses().get(0).getDataOut()).containsExactly(0x12, 0x34);
+    assertThat(decoded.getApduResponses().get(1).getStatusCode()).isEqualTo(0x6A82);
+  }
+
+  @Test
+  public void cardSelectionResponse_shouldBeDecodedAsEncoded() {
+    SelectionStatus selectionStatus =
+        new SelectionStatus(
+            new AnswerToReset(new byte[] {0x3B, 0x00}),
+            new ApduResponse(new byte[] {0x6F, 0x00, (byte) 0x90, 0x00}),
+            true);
+    CardBinaryCodec.encode(new CardSelectionResponse(selectionStatus, null), buffer);
+    buffer.flip();
+    CardSelectionResponse decoded = CardBinaryCodec.decodeCardSelectionResponse(buffer);
+    assertThat(decoded.getSelectionStatus().getAtr().getBytes()).containsExactly(0x3B, 0x00);
+    assertThat(decoded.getSelectionStatus().getFci().getStatusCode()).isEqualTo(0x9000);
+    assertThat(decoded.getSelectionStatus().hasMatched()).isTrue();
+    assertThat(decoded.getCardResponse()).isNull();
+  }
+
+  @Test
+  public void cardSelectionScenario_shouldBeDecodedAsEncoded() {
+    List<CardSelectionRequest> cardSelectionRequests = new ArrayList<CardSelectionRequest>();
+    cardSelectionRequests.add(new CardSelectionRequest(new CardSelectorMock((byte) 1)));
+    cardSelectionRequests.add(
+        new CardSelectionRequest(new CardSelectorMock((byte) 2), buildCardRequest()));
+    CardBinaryCodec.encode(
+        new CardSelectionScenario(
+            cardSelectionRequests,
+            MultiSelectionProcessing.PROCESS_ALL,
+            ChannelControl.CLOSE_AFTER),
+        CARD_SELECTOR_CODEC,
+        buffer);
+    buffer.flip();
+    CardSelectionScenario decoded =
+        CardBinaryCodec.decodeCardSelectionScenario(CARD_SELECTOR_CODEC, buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(decoded.getMultiSelectionProcessing())
+        .isEqualTo(MultiSelectionProcessing.PROCESS_ALL);
+    assertThat(decoded.getChannelControl()).isEqualTo(ChannelControl.CLOSE_AFTER);
+    assertThat(decoded.getCardSelectionRequests()).hasSize(2);
+    assertThat(((CardSelectorMock) decoded.getCardSelectionRequests().get(1).getCardSelector()).id)
+        .isEqualTo((byte) 2);
+    assertThat(decoded.getCardSelectionRequests().get(0).getCardRequest()).isNull();
+    assertThat(decoded.getCardSelectionRequests().get(1).getCardRequest().getApduRequests())
+        .hasSize(2);
+  }
+
+  @Test
+  public void cardSelectionScenario_whenFrozen_shouldBeEncodedAsOriginal() {
+    CardSelectionScenario scenario =
+        new CardSelectionScenario(
+            Arrays.asList(
+                new CardSelectionRequest(new CardSelectorMock((byte) 2), buildCardRequest())),
+            MultiSelectionProcessing.FIRST_MATCH,
+            ChannelControl.KEEP_OPEN);
+    CardBinaryCodec.encode(scenario, CARD_SELECTOR_CODEC, buffer);
+    ByteBuffer frozenBuffer = ByteBuffer.allocate(1024);
+    CardSelectionScenario frozen = scenario.freeze(CARD_SELECTOR_CODEC);
+    CardBinaryCodec.encode(frozen, CARD_SELECTOR_CODEC, frozenBuffer);
+    assertThat(frozenBuffer.flip()).isEqualTo(buffer.flip());
+    assertThat(frozen.isFrozen()).isTrue();
+    assertThat(frozen.freeze()).isSameAs(frozen);
+    ApduRequest apduRequest =
+        frozen.getCardSelectionRequests().get(0).getCardRequest().getApduRequests().get(0);
+    assertThat(apduRequest.isFrozen()).isTrue();
+    // the bytes of a frozen request cannot be modified through the returned array
+    byte cla = apduRequest.getBytes()[0];
+    apduRequest.getBytes()[0] = (byte) (cla + 1);
+    assertThat(apduRequest.getBytes()[0]).isEqualTo(cla);
+    assertThat(scenario.getCardSelectionRequests().get(0).getCardRequest().getApduRequests().get(0))
+        .isNotSameAs(apduRequest);
+  }
+
+  @Test
+  public void cardSelectionScenario_whenFrozenAndSerialized_shouldOmitTheEncodedForm() {
+    CardSelectionScenario frozen =
+        new CardSelectionScenario(
+                Arrays.asList(
+                    new CardSelectionRequest(new CardSelectorMock((byte) 2), buildCardRequest())),
+                MultiSelectionProcessing.FIRST_MATCH,
+                ChannelControl.KEEP_OPEN)
+            .freeze(CARD_SELECTOR_CODEC);
+    Gson gson =
+        new GsonBuilder()
+            .registerTypeAdapter(KeypleCardSelector.class, new CardSelectorMockAdapter())
+            .create();
+    String json = gson.toJson(frozen);
+    assertThat(json)
+        .contains("\"cardSelector\":{\"id\":2}")
+        .doesNotContain("isFrozen")
+        .doesNotContain("cardSelectorCodec")
+        .doesNotContain("encodedForm");
+    CardSelectionScenario deserialized = gson.fromJson(json, CardSelectionScenario.class);
+    assertThat(deserialized.isFrozen()).isFalse();
+    CardBinaryCodec.encode(frozen, CARD_SELECTOR_CODEC, buffer);
+    ByteBuffer deserializedBuffer = ByteBuffer.allocate(1024);
+    CardBinaryCodec.encode(deserialized, CARD_SELECTOR_CODEC, deserializedBuffer);
+    assertThat(deserializedBuffer.flip()).isEqualTo(buffer.flip());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void cardSelectionScenario_whenSelectorCodecAlwaysOverflows_shouldThrowISE() {
+    new CardSelectionScenario(
+            Arrays.asList(new CardSelectionRequest(new CardSelectorMock((byte) 1))),
+            MultiSelectionProcessing.FIRST_MATCH,
+            ChannelControl.KEEP_OPEN)
+        .freeze(
+            new CardBinaryCodec.CardSelectorCodec() {
+              @Override
+              public void encode(KeypleCardSelector cardSelector, ByteBuffer buffer) {
+                throw new BufferOverflowException();
+              }
+
+              @Override
+              public KeypleCardSelector decode(ByteBuffer buffer) {
+                throw new UnsupportedOperationException();
+              }
+            });
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void apduRequest_whenFrozen_shouldRejectModifications() {
+    CardSelectionScenario frozen =
+        new CardSelectionScenario(
+                Arrays.asList(
+                    new CardSelectionRequest(new CardSelectorMock((byte) 1), buildCardRequest())),
+                MultiSelectionProcessing.FIRST_MATCH,
+                ChannelControl.KEEP_OPEN)
+            .freeze();
+    frozen
+        .getCardSelectionRequests()
+        .get(0)
+        .getCardRequest()
+        .getApduRequests()
+        .get(0)
+        .addSuccessfulStatusCode(0x6283);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_whenVersionIsUnknown_shouldThrowIAE() {
+    buffer.put((byte) 0x7F).flip();
+    CardBinaryCodec.decodeCardResponse(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_whenCountExceedsRemainingData_shouldThrowIAE() {
+    // card response announcing 2^31-1 APDU responses
+    buffer
+        .put(CardBinaryCodec.FORMAT_VERSION)
+        .put((byte) 0)
+        .put(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x07})
+        .flip();
+    CardBinaryCodec.decodeCardResponse(buffer);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decode_whenFrameIsTruncated_shouldThrowIAE() {
+    CardBinaryCodec.encode(
+        new ApduRequest((byte) 0x00, (byte) 0xD6, (byte) 0x01, (byte) 0x0C, new byte[32], null),
+        buffer);
+    buffer.flip();
+    // the length of the APDU bytes now exceeds the remaining data
+    buffer.limit(buffer.limit() - 16);
+    CardBinaryCodec.decodeApduRequest(buffer);
+  }
+}
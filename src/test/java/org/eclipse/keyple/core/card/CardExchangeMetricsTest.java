@@ -0,0 +1,107 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CardExchangeMetricsTest {
+
+  private static final ApduRequest READ_RECORD =
+      new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0)
+          .setName("Read record");
+  private static final ApduResponse RESPONSE =
+      new ApduResponse(new byte[] {0x01, 0x02, (byte) 0x90, 0x00});
+
+  @Test
+  public void onApduExchanged_shouldCountByInsAndBucket() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 500L); // < 1 us
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 3000L); // 3 us
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 100000000000L); // 100 s
+    assertThat(metrics.getApduCount((byte) 0xB2, 0)).isEqualTo(1);
+    assertThat(metrics.getApduCount((byte) 0xB2, 2)).isEqualTo(1);
+    assertThat(metrics.getApduCount((byte) 0xB2, CardExchangeMetrics.BUCKET_COUNT - 1))
+        .isEqualTo(1);
+    assertThat(metrics.getApduCount((byte) 0xB0, 0)).isZero();
+    assertThat(metrics.getBytesSent()).isEqualTo(15);
+    assertThat(metrics.getBytesReceived()).isEqualTo(12);
+  }
+
+  @Test
+  public void onFailure_shouldCountByExceptionType() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    metrics.onFailure(new UnexpectedStatusCodeException(null, "SW"));
+    metrics.onFailure(new UnexpectedStatusCodeException(null, "SW"));
+    metrics.onFailure(new CardCommunicationException(null, "card"));
+    assertThat(metrics.getUnexpectedStatusCodes()).isEqualTo(2);
+    assertThat(metrics.getCardCommunicationFailures()).isEqualTo(1);
+    assertThat(metrics.getReaderCommunicationFailures()).isZero();
+  }
+
+  @Test
+  public void writeSnapshot_shouldExportNonEmptyHistogramsAndCounters() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 3000L);
+    metrics.onCardRequestProcessed(null, 5000L);
+    String snapshot = metrics.writeSnapshot(new StringBuilder()).toString();
+    assertThat(snapshot)
+        .contains("keyple_card_apdu_duration_seconds_count{ins=\"B2\"} 1\n")
+        .contains("keyple_card_apdu_duration_seconds_sum{ins=\"B2\"} 3.0E-6\n")
+        .contains("keyple_card_named_apdu_duration_seconds_count{name=\"Read record\"} 1\n")
+        .doesNotContain("keyple_card_apdu_duration_seconds_count{name=")
+        .contains("keyple_card_request_duration_seconds_count 1\n")
+        .contains("keyple_card_bytes_sent_total 5\n")
+        .doesNotContain("ins=\"B0\"");
+  }
+
+  @Test
+  public void reset_shouldClearAllData() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 3000L);
+    metrics.reset();
+    assertThat(metrics.getApduCount((byte) 0xB2, 2)).isZero();
+    assertThat(metrics.getBytesSent()).isZero();
+  }
+
+  @Test
+  public void onApduExchanged_shouldCountDurationsInTheFirstBucketNotBelowThem() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 4000L); // le 4 us
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 4999L); // le 8 us
+    metrics.onApduExchanged(READ_RECORD, RESPONSE, 1001L); // le 2 us
+    assertThat(metrics.getApduCount((byte) 0xB2, 2)).isEqualTo(1);
+    assertThat(metrics.getApduCount((byte) 0xB2, 3)).isEqualTo(1);
+    assertThat(metrics.getApduCount((byte) 0xB2, 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void onApduExchanged_whenTooManyNames_shouldCountTheOthersTogether() {
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    for (int i = 0; i <= CardExchangeMetrics.MAX_NAME_COUNT; i++) {
+      metrics.onApduExchanged(
+          new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0)
+              .setName("APDU " + i),
+          RESPONSE,
+          3000L);
+    }
+    String snapshot = metrics.writeSnapshot(new StringBuilder()).toString();
+    assertThat(snapshot)
+        .contains("keyple_card_named_apdu_duration_seconds_count{name=\"APDU 0\"} 1\n")
+        .contains(
+            "keyple_card_named_apdu_duration_seconds_count{name=\""
+                + CardExchangeMetrics.OTHER_NAME
+                + "\"} 1\n")
+        .doesNotContain("name=\"APDU " + CardExchangeMetrics.MAX_NAME_COUNT + "\"");
+  }
+}
@@ -0,0 +1,66 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.Gson;
+import java.util.Collections;
+import org.junit.Test;
+
+public class CardJsonWriterTest {
+
+  @Test
+  public void append_apduRequest_shouldWriteHexBytesAndEscapedName() {
+    ApduRequest apduRequest =
+        new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0x1D)
+            .addSuccessfulStatusCode(0x6283)
+            .setName("Read \"record\"");
+    assertThat(CardJsonWriter.append(new StringBuilder(), apduRequest).toString())
+        .isEqualTo(
+            "{\"bytes\":\"00B2010C1D\",\"isCase4\":false,\"isExtendedLength\":false,"
+                + "\"successfulStatusCodes\":[\"6283\",\"9000\"],\"name\":\"Read \\\"record\\\"\"}");
+  }
+
+  @Test
+  public void append_cardResponse_shouldWriteAllResponses() {
+    CardResponse cardResponse =
+        new CardResponse(
+            Collections.singletonList(new ApduResponse(new byte[] {0x0A, (byte) 0x90, 0x00})),
+            true,
+            true);
+    assertThat(CardJsonWriter.append(new StringBuilder(), cardResponse).toString())
+        .isEqualTo(
+            "{\"apduResponses\":[{\"bytes\":\"0A9000\",\"statusCode\":\"9000\"}],"
+                + "\"isLogicalChannelOpen\":true,\"isComplete\":true}");
+  }
+
+  @Test
+  public void toString_shouldBePrefixedWithTheObjectType() {
+    assertThat(new ApduResponse(new byte[] {(byte) 0x6A, (byte) 0x82}).toString())
+        .isEqualTo("APDU_RESPONSE = {\"bytes\":\"6A82\",\"statusCode\":\"6A82\"}");
+  }
+
+  @Test
+  public void append_cardRequest_whenDeserializedWithoutChainingPolicy_shouldWriteNone() {
+    CardRequest cardRequest =
+        new Gson()
+            .fromJson(
+                "{\"apduRequests\":[{\"bytes\":[0,-78,1,12,0],\"isCase4\":false,"
+                    + "\"successfulStatusCodes\":[36864]}],"
+                    + "\"isStatusCodesVerificationEnabled\":true}",
+                CardRequest.class);
+    assertThat(cardRequest.getChainingPolicy()).isEqualTo(ChainingPolicy.NONE);
+    assertThat(CardJsonWriter.append(new StringBuilder(), cardRequest).toString())
+        .contains("\"chainingPolicy\":\"NONE\"");
+  }
+}
@@ -0,0 +1,163 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class CardRequestBatchExecutorTest {
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+  private final CardRequestBatchExecutor executor = new CardRequestBatchExecutor(executorService);
+  private final List<CardRequest> cardRequests =
+      Collections.singletonList(
+          new CardRequest(
+              Collections.singletonList(
+                  new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, null)),
+              true));
+
+  /** Reader whose batch transmission is implemented by the provided handler. */
+  private interface BatchHandler {
+    List<CardRequestOutcome> process(List<CardRequest> cardRequests) throws Exception;
+  }
+
+  private static BatchProxyReader reader(final BatchHandler handler) {
+    return (BatchProxyReader)
+        Proxy.newProxyInstance(
+            BatchProxyReader.class.getClassLoader(),
+            new Class<?>[] {BatchProxyReader.class},
+            new InvocationHandler() {
+              @Override
+              @SuppressWarnings("unchecked")
+              public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("transmitCardRequests")) {
+                  return handler.process((List<CardRequest>) args[0]);
+                }
+                if (method.getName().equals("hashCode")) {
+                  return System.identityHashCode(proxy);
+                }
+                if (method.getName().equals("equals")) {
+                  return proxy == args[0];
+                }
+                if (method.getName().equals("toString")) {
+                  return "reader";
+                }
+                throw new UnsupportedOperationException(method.getName());
+              }
+            });
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void execute_shouldTransmitTheBatchesConcurrentlyOnEachReader() throws Exception {
+    final CountDownLatch started = new CountDownLatch(2);
+    final List<CardRequestOutcome> outcomes = Collections.singletonList(new CardRequestOutcome());
+    BatchHandler handler =
+        new BatchHandler() {
+          @Override
+          public List<CardRequestOutcome> process(List<CardRequest> requests) throws Exception {
+            assertThat(requests).isSameAs(cardRequests);
+            started.countDown();
+            // both readers must be processing at the same time
+            if (!started.await(5, TimeUnit.SECONDS)) {
+              throw new IllegalStateException("Readers not processed concurrently.");
+            }
+            return outcomes;
+          }
+        };
+    BatchProxyReader reader1 = reader(handler);
+    BatchProxyReader reader2 = reader(handler);
+    Map<BatchProxyReader, List<CardRequest>> cardRequestsByReader =
+        new LinkedHashMap<BatchProxyReader, List<CardRequest>>();
+    cardRequestsByReader.put(reader1, cardRequests);
+    cardRequestsByReader.put(reader2, cardRequests);
+    Map<BatchProxyReader, Future<List<CardRequestOutcome>>> results =
+        executor.execute(cardRequestsByReader, ChannelControl.KEEP_OPEN);
+    assertThat(results.keySet()).containsExactly(reader1, reader2);
+    assertThat(results.get(reader1).get(5, TimeUnit.SECONDS)).isSameAs(outcomes);
+    assertThat(results.get(reader2).get(5, TimeUnit.SECONDS)).isSameAs(outcomes);
+  }
+
+  @Test
+  public void execute_whenReaderFails_shouldPropagateTheExceptionThroughItsFutureOnly()
+      throws Exception {
+    final ReaderCommunicationException exception =
+        new ReaderCommunicationException(
+            new CardResponse(new ArrayList<ApduResponse>(), false, false), "reader removed");
+    BatchProxyReader failingReader =
+        reader(
+            new BatchHandler() {
+              @Override
+              public List<CardRequestOutcome> process(List<CardRequest> requests) throws Exception {
+                throw exception;
+              }
+            });
+    BatchProxyReader reader =
+        reader(
+            new BatchHandler() {
+              @Override
+              public List<CardRequestOutcome> process(List<CardRequest> requests) {
+                return Collections.emptyList();
+              }
+            });
+    Map<BatchProxyReader, List<CardRequest>> cardRequestsByReader =
+        new LinkedHashMap<BatchProxyReader, List<CardRequest>>();
+    cardRequestsByReader.put(failingReader, cardRequests);
+    cardRequestsByReader.put(reader, cardRequests);
+    Map<BatchProxyReader, Future<List<CardRequestOutcome>>> results =
+        executor.execute(cardRequestsByReader, ChannelControl.KEEP_OPEN);
+    try {
+      results.get(failingReader).get(5, TimeUnit.SECONDS);
+      fail("ExecutionException expected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(exception);
+    }
+    assertThat(results.get(reader).get(5, TimeUnit.SECONDS)).isEmpty();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void execute_whenEmptyCardRequests_shouldThrowIAE() {
+    BatchProxyReader reader =
+        reader(
+            new BatchHandler() {
+              @Override
+              public List<CardRequestOutcome> process(List<CardRequest> requests) {
+                fail("no batch must be submitted");
+                return null;
+              }
+            });
+    executor.execute(
+        Collections.singletonMap(reader, Collections.<CardRequest>emptyList()),
+        ChannelControl.KEEP_OPEN);
+  }
+}
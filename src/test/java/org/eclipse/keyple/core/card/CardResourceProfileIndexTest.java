@@ -0,0 +1,115 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.eclipse.keyple.core.card.spi.CardResourceProfileExtensionSpi;
+import org.eclipse.keyple.core.card.spi.IndexableCardResourceProfileExtensionSpi;
+import org.eclipse.keyple.core.card.spi.SmartCardSpi;
+import org.junit.Test;
+
+public class CardResourceProfileIndexTest {
+
+  private static final byte[] CALYPSO_ATR = new byte[] {(byte) 0x3B, (byte) 0x8F, (byte) 0x80};
+  private static final byte[] OTHER_ATR = new byte[] {(byte) 0x3B, (byte) 0x6F, (byte) 0x00};
+
+  private static class ProfileMock implements CardResourceProfileExtensionSpi {
+    @Override
+    public SmartCardSpi matches(ProxyReader reader) {
+      return null;
+    }
+  }
+
+  private static class IndexableProfileMock extends ProfileMock
+      implements IndexableCardResourceProfileExtensionSpi {
+    private final CardResourceProfileMatchCriteria criteria;
+
+    IndexableProfileMock(String readerNameRegex, byte[] atrValue, byte[] atrMask) {
+      criteria = new CardResourceProfileMatchCriteria(readerNameRegex, atrValue, atrMask);
+    }
+
+    @Override
+    public CardResourceProfileMatchCriteria getMatchCriteria() {
+      return criteria;
+    }
+  }
+
+  @Test
+  public void getCandidates_shouldFilterByReaderNameAndAtrInProfileOrder() {
+    CardResourceProfileExtensionSpi any = new ProfileMock();
+    CardResourceProfileExtensionSpi calypso =
+        new IndexableProfileMock(null, new byte[] {(byte) 0x3B, (byte) 0x8F}, null);
+    CardResourceProfileExtensionSpi samOnly = new IndexableProfileMock("SAM.*", null, null);
+    CardResourceProfileExtensionSpi masked =
+        new IndexableProfileMock(
+            "Contactless.*",
+            new byte[] {(byte) 0x3B, (byte) 0x0F},
+            new byte[] {(byte) 0xFF, (byte) 0x0F});
+    CardResourceProfileIndex index =
+        new CardResourceProfileIndex(Arrays.asList(calypso, any, samOnly, masked));
+    assertThat(index.getCandidates("Contactless 1", CALYPSO_ATR))
+        .containsExactly(calypso, any, masked);
+    assertThat(index.getCandidates("Contactless 1", OTHER_ATR)).containsExactly(any, masked);
+    assertThat(index.getCandidates("SAM 1", OTHER_ATR)).containsExactly(any, samOnly);
+    assertThat(index.getCandidates("SAM 1", null)).containsExactly(calypso, any, samOnly);
+  }
+
+  @Test
+  public void getCandidates_whenAtrShorterThanValue_shouldNotMatch() {
+    CardResourceProfileExtensionSpi calypso = new IndexableProfileMock(null, CALYPSO_ATR, null);
+    CardResourceProfileIndex index = new CardResourceProfileIndex(Arrays.asList(calypso));
+    assertThat(index.getCandidates("reader", new byte[] {(byte) 0x3B, (byte) 0x8F})).isEmpty();
+  }
+
+  @Test
+  public void getCandidates_shouldAgreeWithTheCriteria() {
+    IndexableProfileMock profile =
+        new IndexableProfileMock(
+            null, new byte[] {(byte) 0x3B, (byte) 0x80}, new byte[] {(byte) 0xFF, (byte) 0xF0});
+    CardResourceProfileIndex index = new CardResourceProfileIndex(Arrays.asList(profile));
+    for (byte[] atr : Arrays.asList(CALYPSO_ATR, OTHER_ATR)) {
+      assertThat(index.getCandidates("reader", atr).contains(profile))
+          .isEqualTo(profile.getMatchCriteria().matchesAtr(atr));
+    }
+  }
+
+  @Test
+  public void getCandidates_whenManyReaderNames_shouldKeepFilteringByReaderName() {
+    CardResourceProfileExtensionSpi any = new ProfileMock();
+    CardResourceProfileExtensionSpi samOnly = new IndexableProfileMock("SAM.*", null, null);
+    CardResourceProfileIndex index = new CardResourceProfileIndex(Arrays.asList(any, samOnly));
+    // more reader names than the cache holds
+    for (int i = 0; i < 3000; i++) {
+      assertThat(index.getCandidates("SAM " + i, null)).containsExactly(any, samOnly);
+      assertThat(index.getCandidates("Contactless " + i, null)).containsExactly(any);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void criteria_whenAtrMaskWithoutAtrValue_shouldThrowIAE() {
+    new CardResourceProfileMatchCriteria(null, null, new byte[] {(byte) 0xFF});
+  }
+
+  @Test
+  public void criteria_shouldCopyTheAtrValueAndMask() {
+    byte[] atrValue = CALYPSO_ATR.clone();
+    byte[] atrMask = new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+    CardResourceProfileMatchCriteria criteria =
+        new CardResourceProfileMatchCriteria(null, atrValue, atrMask);
+    atrValue[0] = 0;
+    atrMask[1] = 0;
+    assertThat(criteria.matchesAtr(CALYPSO_ATR)).isTrue();
+    assertThat(criteria.matchesAtr(OTHER_ATR)).isFalse();
+  }
+}
@@ -0,0 +1,152 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.common.KeypleCardSelector;
+import org.junit.After;
+import org.junit.Test;
+
+public class CardSelectionScenarioExecutorTest {
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+  private final CardSelectionScenarioExecutor executor =
+      new CardSelectionScenarioExecutor(executorService);
+  private final CardSelectionScenario scenario =
+      new CardSelectionScenario(
+          Collections.singletonList(new CardSelectionRequest(new KeypleCardSelector() {})),
+          MultiSelectionProcessing.FIRST_MATCH,
+          ChannelControl.KEEP_OPEN);
+
+  /** Reader whose card selection process is implemented by the provided handler. */
+  private interface ScenarioHandler {
+    List<CardSelectionResponse> process() throws Exception;
+  }
+
+  private static SelectionScenarioProxyReader reader(final ScenarioHandler handler) {
+    return (SelectionScenarioProxyReader)
+        Proxy.newProxyInstance(
+            SelectionScenarioProxyReader.class.getClassLoader(),
+            new Class<?>[] {SelectionScenarioProxyReader.class},
+            new InvocationHandler() {
+              @Override
+              public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("transmitCardSelectionScenario")) {
+                  return handler.process();
+                }
+                if (method.getName().equals("hashCode")) {
+                  return System.identityHashCode(proxy);
+                }
+                if (method.getName().equals("equals")) {
+                  return proxy == args[0];
+                }
+                if (method.getName().equals("toString")) {
+                  return "reader";
+                }
+                throw new UnsupportedOperationException(method.getName());
+              }
+            });
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void execute_shouldProcessTheScenarioConcurrentlyOnEachReader() throws Exception {
+    final CountDownLatch started = new CountDownLatch(2);
+    final List<CardSelectionResponse> responses = new ArrayList<CardSelectionResponse>();
+    ScenarioHandler handler =
+        new ScenarioHandler() {
+          @Override
+          public List<CardSelectionResponse> process() throws Exception {
+            started.countDown();
+            // both readers must be processing at the same time
+            if (!started.await(5, TimeUnit.SECONDS)) {
+              throw new IllegalStateException("Readers not processed concurrently.");
+            }
+            return responses;
+          }
+        };
+    SelectionScenarioProxyReader reader1 = reader(handler);
+    SelectionScenarioProxyReader reader2 = reader(handler);
+    Map<SelectionScenarioProxyReader, Future<List<CardSelectionResponse>>> results =
+        executor.execute(scenario, Arrays.asList(reader1, reader2));
+    assertThat(results.keySet()).containsExactly(reader1, reader2);
+    assertThat(results.get(reader1).get(5, TimeUnit.SECONDS)).isSameAs(responses);
+    assertThat(results.get(reader2).get(5, TimeUnit.SECONDS)).isSameAs(responses);
+  }
+
+  @Test
+  public void execute_whenReaderFails_shouldPropagateTheExceptionThroughItsFutureOnly()
+      throws Exception {
+    final CardCommunicationException exception =
+        new CardCommunicationException(
+            new CardResponse(new ArrayList<ApduResponse>(), false, false), "card removed");
+    SelectionScenarioProxyReader failingReader =
+        reader(
+            new ScenarioHandler() {
+              @Override
+              public List<CardSelectionResponse> process() throws Exception {
+                throw exception;
+              }
+            });
+    SelectionScenarioProxyReader reader =
+        reader(
+            new ScenarioHandler() {
+              @Override
+              public List<CardSelectionResponse> process() {
+                return Collections.emptyList();
+              }
+            });
+    Map<SelectionScenarioProxyReader, Future<List<CardSelectionResponse>>> results =
+        executor.execute(scenario, Arrays.asList(failingReader, reader));
+    try {
+      results.get(failingReader).get(5, TimeUnit.SECONDS);
+      fail("ExecutionException expected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(exception);
+    }
+    assertThat(results.get(reader).get(5, TimeUnit.SECONDS)).isEmpty();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void execute_whenDuplicateReader_shouldThrowIAE() {
+    SelectionScenarioProxyReader reader =
+        reader(
+            new ScenarioHandler() {
+              @Override
+              public List<CardSelectionResponse> process() {
+                fail("no scenario must be submitted");
+                return null;
+              }
+            });
+    executor.execute(scenario, Arrays.asList(reader, reader));
+  }
+}
@@ -0,0 +1,80 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import org.eclipse.keyple.core.card.replay.ApduExchangeLog;
+import org.eclipse.keyple.core.card.replay.ReplayProxyReader;
+import org.junit.Test;
+
+public class LogicalChannelManagerTest {
+
+  private static final Executor DIRECT_EXECUTOR =
+      new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          command.run();
+        }
+      };
+
+  private static final String LOG =
+      "0070000001 059000\n" + "41B2010C00 0101019000\n" + "0070800500 9000\n";
+
+  private static CardRequest readRecord() {
+    return new CardRequest(
+        Collections.singletonList(
+            new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) 0x01, (byte) 0x0C, null, (byte) 0)),
+        true);
+  }
+
+  @Test
+  public void encodeChannelNumber_shouldPreserveChainingAndSecureMessaging() {
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x00, 1)).isEqualTo((byte) 0x01);
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x10, 5)).isEqualTo((byte) 0x51);
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x0C, 4)).isEqualTo((byte) 0x60);
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x41, 2)).isEqualTo((byte) 0x02);
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x60, 2)).isEqualTo((byte) 0x0A);
+    assertThat(LogicalChannelManager.encodeChannelNumber((byte) 0x80, 19)).isEqualTo((byte) 0xCF);
+  }
+
+  @Test
+  public void openChannel_shouldRewriteClassAndPoolReleasedChannels() throws Exception {
+    LogicalChannelManager manager =
+        new LogicalChannelManager(
+            new ReplayProxyReader(ApduExchangeLog.read(new StringReader(LOG)), DIRECT_EXECUTOR, 0));
+    LogicalChannel logicalChannel = manager.openChannel();
+    assertThat(logicalChannel.getChannelNumber()).isEqualTo(5);
+    CardResponse cardResponse = logicalChannel.transmitCardRequest(readRecord());
+    assertThat(cardResponse.getApduResponses().get(0).getDataOut()).containsExactly(1, 1, 1);
+    logicalChannel.release();
+    assertThat(manager.getPooledChannelCount()).isEqualTo(1);
+    assertThat(manager.openChannel().getChannelNumber()).isEqualTo(5);
+    assertThat(manager.getActiveChannelCount()).isEqualTo(1);
+    manager.closeAll();
+    assertThat(manager.getActiveChannelCount()).isZero();
+    assertThat(manager.getPooledChannelCount()).isZero();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void transmitCardRequest_whenReleased_shouldThrowISE() throws Exception {
+    LogicalChannelManager manager =
+        new LogicalChannelManager(
+            new ReplayProxyReader(ApduExchangeLog.read(new StringReader(LOG)), DIRECT_EXECUTOR, 0));
+    LogicalChannel logicalChannel = manager.openChannel();
+    logicalChannel.release();
+    logicalChannel.transmitCardRequest(readRecord());
+  }
+}
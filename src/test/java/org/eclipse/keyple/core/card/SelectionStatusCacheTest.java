@@ -0,0 +1,122 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SelectionStatusCacheTest {
+
+  private static SelectionStatus selectionStatus(int atrLastByte) {
+    return new SelectionStatus(
+        new AnswerToReset(new byte[] {(byte) 0x3B, (byte) 0x81, (byte) atrLastByte}), null, true);
+  }
+
+  private static SelectionStatusCache.Loader<String> countingLoader(final AtomicInteger loads) {
+    return new SelectionStatusCache.Loader<String>() {
+      @Override
+      public String load(SelectionStatus selectionStatus) {
+        loads.incrementAndGet();
+        return "value" + (selectionStatus.getAtr().getBytes()[2] & 0xFF);
+      }
+    };
+  }
+
+  @Test
+  public void get_whenPresent_shouldNotInvokeTheLoader() {
+    SelectionStatusCache<String> cache = new SelectionStatusCache<String>(2);
+    AtomicInteger loads = new AtomicInteger();
+    assertThat(cache.get(selectionStatus(1), countingLoader(loads))).isEqualTo("value1");
+    assertThat(cache.get(selectionStatus(1), countingLoader(loads))).isEqualTo("value1");
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_whenLoaderReturnsNull_shouldNotCache() {
+    SelectionStatusCache<String> cache = new SelectionStatusCache<String>(2);
+    SelectionStatusCache.Loader<String> loader =
+        new SelectionStatusCache.Loader<String>() {
+          @Override
+          public String load(SelectionStatus selectionStatus) {
+            return null;
+          }
+        };
+    assertThat(cache.get(selectionStatus(1), loader)).isNull();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void get_whenFull_shouldEvictTheLeastRecentlyUsedEntry() {
+    SelectionStatusCache<String> cache = new SelectionStatusCache<String>(2);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(selectionStatus(1), countingLoader(loads));
+    cache.get(selectionStatus(2), countingLoader(loads));
+    // 1 becomes the most recently used entry
+    cache.get(selectionStatus(1), countingLoader(loads));
+    cache.get(selectionStatus(3), countingLoader(loads));
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(loads.get()).isEqualTo(3);
+    cache.get(selectionStatus(1), countingLoader(loads));
+    assertThat(loads.get()).isEqualTo(3);
+    cache.get(selectionStatus(2), countingLoader(loads));
+    assertThat(loads.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void get_whenCallerModifiesItsBytes_shouldKeepTheStoredKeyIntact() {
+    SelectionStatusCache<String> cache = new SelectionStatusCache<String>(2);
+    AtomicInteger loads = new AtomicInteger();
+    SelectionStatus selectionStatus = selectionStatus(1);
+    cache.get(selectionStatus, countingLoader(loads));
+    // the ATR holds the caller's array, the key must have been detached from it
+    selectionStatus.getAtr().getBytes()[2] = (byte) 9;
+    assertThat(cache.get(selectionStatus(1), countingLoader(loads))).isEqualTo("value1");
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldInvokeTheLoaderOutsideOfTheLock() throws Exception {
+    final SelectionStatusCache<String> cache = new SelectionStatusCache<String>(2);
+    final AtomicInteger loads = new AtomicInteger();
+    final String[] nestedValue = new String[1];
+    String value =
+        cache.get(
+            selectionStatus(1),
+            new SelectionStatusCache.Loader<String>() {
+              @Override
+              public String load(SelectionStatus selectionStatus) {
+                // another thread must be able to use the cache while this loader is running
+                Thread thread =
+                    new Thread(
+                        new Runnable() {
+                          @Override
+                          public void run() {
+                            nestedValue[0] = cache.get(selectionStatus(2), countingLoader(loads));
+                          }
+                        });
+                thread.start();
+                try {
+                  thread.join(5000);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                return "value1";
+              }
+            });
+    assertThat(value).isEqualTo("value1");
+    assertThat(nestedValue[0]).isEqualTo("value2");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+}
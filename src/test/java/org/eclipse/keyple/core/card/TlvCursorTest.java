@@ -0,0 +1,90 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class TlvCursorTest {
+
+  private static final ApduResponse FCI =
+      new ApduResponse(
+          ByteArrayUtil.fromHex(
+              "6F228408A000000404012509A516BF0C13C7080000000012345678" + "5307060A07062004109000"));
+
+  @Test
+  public void next_shouldIterateOverTheLevelsInPlace() {
+    TlvCursor cursor = new TlvCursor().reset(FCI);
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.getTag()).isEqualTo(0x6F);
+    assertThat(cursor.isConstructed()).isTrue();
+    assertThat(cursor.getLength()).isEqualTo(0x22);
+    cursor.enter();
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.getTag()).isEqualTo(0x84);
+    assertThat(cursor.getValueOffset()).isEqualTo(4);
+    assertThat(cursor.getLength()).isEqualTo(8);
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.getTag()).isEqualTo(0xA5);
+    assertThat(cursor.next()).isFalse();
+    cursor.exit();
+    assertThat(cursor.next()).isFalse();
+  }
+
+  @Test
+  public void find_shouldSearchNestedLevels() {
+    TlvCursor cursor = new TlvCursor().reset(FCI);
+    assertThat(cursor.find(0xBF0C)).isTrue();
+    assertThat(cursor.getDepth()).isEqualTo(2);
+    assertThat(cursor.find(0x53)).isTrue();
+    assertThat(cursor.getLength()).isEqualTo(7);
+    assertThat(new TlvCursor().reset(FCI).find(0x9F38)).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void next_whenValueOverflows_shouldThrowIAE() {
+    new TlvCursor().reset(ByteArrayUtil.fromHex("840501"), 0, 3).next();
+  }
+
+  @Test
+  public void next_whenTagIsThreeBytesLong_shouldReturnIt() {
+    TlvCursor cursor = new TlvCursor().reset(ByteArrayUtil.fromHex("DF81020112"), 0, 5);
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.getTag()).isEqualTo(0xDF8102);
+    assertThat(cursor.getLength()).isEqualTo(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void next_whenTagIsTooLong_shouldThrowIAE() {
+    new TlvCursor().reset(ByteArrayUtil.fromHex("5F8182830400"), 0, 6).next();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void next_whenTagIsTooLongAndFirstByteHasB8Set_shouldThrowIAE() {
+    // used to be accepted as the negative tag 81828304h
+    new TlvCursor().reset(ByteArrayUtil.fromHex("DF8182830400"), 0, 6).next();
+  }
+
+  @Test
+  public void getFciTlvIndex_shouldIndexAllLevelsOnce() {
+    SelectionStatus selectionStatus = new SelectionStatus(null, FCI, true);
+    TlvIndex index = selectionStatus.getFciTlvIndex();
+    assertThat(selectionStatus.getFciTlvIndex()).isSameAs(index);
+    assertThat(index.size()).isEqualTo(6);
+    assertThat(index.getValue(0xC7)).containsExactly(0, 0, 0, 0, 0x12, 0x34, 0x56, 0x78);
+    assertThat(index.getValueOffset(0x84)).isEqualTo(4);
+    assertThat(index.contains(0x9F38)).isFalse();
+    assertThat(index.getLength(0x9F38)).isEqualTo(-1);
+  }
+}
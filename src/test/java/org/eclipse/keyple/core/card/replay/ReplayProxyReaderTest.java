@@ -0,0 +1,475 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.eclipse.keyple.core.card.AbstractApduException;
+import org.eclipse.keyple.core.card.ApduInterceptor;
+import org.eclipse.keyple.core.card.ApduInterceptorChain;
+import org.eclipse.keyple.core.card.ApduRequest;
+import org.eclipse.keyple.core.card.AsyncProxyReader;
+import org.eclipse.keyple.core.card.CardCommunicationException;
+import org.eclipse.keyple.core.card.CardExchangeMetrics;
+import org.eclipse.keyple.core.card.CardRequest;
+import org.eclipse.keyple.core.card.CardRequestOutcome;
+import org.eclipse.keyple.core.card.CardResponse;
+import org.eclipse.keyple.core.card.CardResponseCallback;
+import org.eclipse.keyple.core.card.ChainingPolicy;
+import org.eclipse.keyple.core.card.ChannelControl;
+import org.eclipse.keyple.core.card.InterceptableProxyReader;
+import org.eclipse.keyple.core.card.ProxyReader;
+import org.eclipse.keyple.core.card.ReaderCommunicationException;
+import org.eclipse.keyple.core.card.UnexpectedStatusCodeException;
+import org.junit.Test;
+
+public class ReplayProxyReaderTest {
+
+  private static final Executor DIRECT_EXECUTOR =
+      new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          command.run();
+        }
+      };
+
+  private static final String LOG =
+      "# read records\n"
+          + "00B2010C00 0101019000\n"
+          + "00B2020C00 6A83\n"
+          + "\n"
+          + "00B2010C00 0102019000\n";
+
+  private static ApduRequest readRecord(int record) {
+    return new ApduRequest((byte) 0x00, (byte) 0xB2, (byte) record, (byte) 0x0C, null, (byte) 0);
+  }
+
+  private static ReplayProxyReader buildReader() throws Exception {
+    return new ReplayProxyReader(ApduExchangeLog.read(new StringReader(LOG)), DIRECT_EXECUTOR, 0L);
+  }
+
+  @Test
+  public void transmitCardRequest_shouldReplayRecordedResponsesInTurn() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    CardRequest cardRequest =
+        new CardRequest(Arrays.asList(readRecord(1), readRecord(1), readRecord(1)), false);
+    CardResponse cardResponse = reader.transmitCardRequest(cardRequest, ChannelControl.KEEP_OPEN);
+    assertThat(cardResponse.isComplete()).isTrue();
+    assertThat(cardResponse.isLogicalChannelOpen()).isTrue();
+    assertThat(cardResponse.getApduResponses().get(0).getDataOut()).containsExactly(1, 1, 1);
+    assertThat(cardResponse.getApduResponses().get(1).getDataOut()).containsExactly(1, 2, 1);
+    assertThat(cardResponse.getApduResponses().get(2).getDataOut()).containsExactly(1, 1, 1);
+  }
+
+  @Test
+  public void transmitCardRequest_whenScript_shouldApplyJumpsAndSkips() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    CardRequest cardRequest =
+        new CardRequest(
+            Arrays.asList(
+                readRecord(2).addStatusCodeJump(0x6A83, 2),
+                readRecord(1),
+                readRecord(2),
+                readRecord(1).setSkipIfPreviousStatusCode(0x6A83),
+                readRecord(1)),
+            false);
+    CardResponse cardResponse = reader.transmitCardRequest(cardRequest, ChannelControl.KEEP_OPEN);
+    assertThat(cardResponse.isComplete()).isTrue();
+    assertThat(cardResponse.getApduResponses()).hasSize(3);
+    assertThat(cardResponse.getApduResponses().get(0).getStatusCode()).isEqualTo(0x6A83);
+    assertThat(cardResponse.getApduResponses().get(1).getStatusCode()).isEqualTo(0x6A83);
+    assertThat(cardResponse.getApduResponses().get(2).getDataOut()).containsExactly(1, 1, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void transmitCardRequest_whenBackwardJumpAddedAfterBuild_shouldThrowISE()
+      throws Exception {
+    ReplayProxyReader reader = buildReader();
+    ApduRequest apduRequest = readRecord(2);
+    CardRequest cardRequest = new CardRequest(Arrays.asList(readRecord(1), apduRequest), false);
+    assertThat(cardRequest.hasFlowControl()).isFalse();
+    apduRequest.addStatusCodeJump(0x6A83, 0);
+    assertThat(cardRequest.hasFlowControl()).isTrue();
+    reader.transmitCardRequest(cardRequest, ChannelControl.KEEP_OPEN);
+  }
+
+  @Test
+  public void transmitCardRequest_whenUnexpectedStatusCode_shouldThrowUSCE() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    CardRequest cardRequest = new CardRequest(Arrays.asList(readRecord(1), readRecord(2)), true);
+    try {
+      reader.transmitCardRequest(cardRequest, ChannelControl.CLOSE_AFTER);
+      fail("UnexpectedStatusCodeException expected");
+    } catch (UnexpectedStatusCodeException e) {
+      assertThat(e.getCardResponse().getApduResponses()).hasSize(2);
+      assertThat(e.getCardResponse().isComplete()).isFalse();
+    }
+  }
+
+  @Test
+  public void transmitCardRequest_withOutcome_shouldReportUnexpectedStatusCode() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    CardRequestOutcome outcome = new CardRequestOutcome();
+    reader.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1), readRecord(2)), true),
+        ChannelControl.CLOSE_AFTER,
+        outcome);
+    assertThat(outcome.getStatus()).isEqualTo(CardRequestOutcome.Status.UNEXPECTED_STATUS_CODE);
+    assertThat(outcome.getApduIndex()).isEqualTo(1);
+    assertThat(outcome.getStatusCode()).isEqualTo(0x6A83);
+    assertThat(outcome.getCardResponse().isComplete()).isFalse();
+    reader.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1)), true), ChannelControl.KEEP_OPEN, outcome);
+    assertThat(outcome.isSuccessful()).isTrue();
+    assertThat(outcome.getApduIndex()).isEqualTo(-1);
+    assertThat(outcome.getCardResponse().getApduResponses()).hasSize(1);
+  }
+
+  private static ApduInterceptor tracingInterceptor(final String name, final StringBuilder trace) {
+    return new ApduInterceptor() {
+      @Override
+      public int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+        trace.append(name).append('>');
+        command[2]--;
+        return length;
+      }
+
+      @Override
+      public int interceptResponse(ApduRequest apduRequest, byte[] response, int length) {
+        trace.append(name).append('<');
+        // drops the first byte of data
+        System.arraycopy(response, 1, response, 0, length - 1);
+        return length - 1;
+      }
+    };
+  }
+
+  @Test
+  public void transmitCardRequest_withOutcome_shouldNotifyTheUnexpectedStatusCode()
+      throws Exception {
+    ReplayProxyReader reader = buildReader();
+    CardExchangeMetrics metrics = new CardExchangeMetrics();
+    reader.setCardExchangeObserver(metrics);
+    reader.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1), readRecord(2)), true),
+        ChannelControl.CLOSE_AFTER,
+        new CardRequestOutcome());
+    assertThat(metrics.getUnexpectedStatusCodes()).isEqualTo(1);
+  }
+
+  @Test
+  public void transmitCardRequest_withInterceptors_shouldTransformBytesInChainOrder()
+      throws Exception {
+    ReplayProxyReader reader = buildReader();
+    StringBuilder trace = new StringBuilder();
+    reader.setApduInterceptorChain(
+        new ApduInterceptorChain(
+            Arrays.asList(tracingInterceptor("A", trace), tracingInterceptor("B", trace))));
+    CardResponse cardResponse =
+        reader.transmitCardRequest(
+            new CardRequest(Arrays.asList(readRecord(3)), true), ChannelControl.KEEP_OPEN);
+    assertThat(trace.toString()).isEqualTo("A>B>B<A<");
+    assertThat(cardResponse.getApduResponses().get(0).getBytes()).containsExactly(0x01, 0x90, 0x00);
+  }
+
+  @Test
+  public void transmitCardRequests_shouldReportUnexpectedStatusCodesPerItem() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    List<CardRequestOutcome> outcomes =
+        reader.transmitCardRequests(
+            Arrays.asList(
+                new CardRequest(Arrays.asList(readRecord(1)), true),
+                new CardRequest(Arrays.asList(readRecord(2), readRecord(1)), true),
+                new CardRequest(Arrays.asList(readRecord(1)), true)),
+            ChannelControl.CLOSE_AFTER);
+    assertThat(outcomes).hasSize(3);
+    assertThat(outcomes.get(0).isSuccessful()).isTrue();
+    assertThat(outcomes.get(1).getStatus())
+        .isEqualTo(CardRequestOutcome.Status.UNEXPECTED_STATUS_CODE);
+    assertThat(outcomes.get(1).getApduIndex()).isEqualTo(0);
+    assertThat(outcomes.get(1).getStatusCode()).isEqualTo(0x6A83);
+    assertThat(outcomes.get(1).getCardResponse().getApduResponses()).hasSize(1);
+    assertThat(outcomes.get(2).isSuccessful()).isTrue();
+    assertThat(outcomes.get(2).getCardResponse().isLogicalChannelOpen()).isFalse();
+  }
+
+  @Test
+  public void transmitCardRequests_whenCardCommunicationFailure_shouldStopTheBatch()
+      throws Exception {
+    ReplayProxyReader reader = buildReader();
+    List<CardRequestOutcome> outcomes =
+        reader.transmitCardRequests(
+            Arrays.asList(
+                new CardRequest(Arrays.asList(readRecord(1)), true),
+                new CardRequest(Arrays.asList(readRecord(3)), true),
+                new CardRequest(Arrays.asList(readRecord(1)), true)),
+            ChannelControl.CLOSE_AFTER);
+    assertThat(outcomes).hasSize(3);
+    assertThat(outcomes.get(0).isSuccessful()).isTrue();
+    assertThat(outcomes.get(1).getStatus())
+        .isEqualTo(CardRequestOutcome.Status.CARD_COMMUNICATION_FAILURE);
+    assertThat(outcomes.get(1).getCardCommunicationException()).isNotNull();
+    assertThat(outcomes.get(1).getCardResponse().getApduResponses()).isEmpty();
+    assertThat(outcomes.get(2).getStatus()).isEqualTo(CardRequestOutcome.Status.NONE);
+    // the request of the third item has not been consumed from the log
+    assertThat(
+            reader
+                .transmitCardRequest(
+                    new CardRequest(Arrays.asList(readRecord(1)), true), ChannelControl.KEEP_OPEN)
+                .getApduResponses()
+                .get(0)
+                .getDataOut())
+        .containsExactly(1, 2, 1);
+  }
+
+  @Test
+  public void transmitCardRequestAsync_whenRuntimeException_shouldNotifyFailure() throws Exception {
+    ReplayProxyReader reader = buildReader();
+    final IllegalStateException error = new IllegalStateException("interceptor failure");
+    reader.setApduInterceptorChain(
+        new ApduInterceptorChain(
+            Arrays.<ApduInterceptor>asList(
+                new ApduInterceptor() {
+                  @Override
+                  public int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+                    throw error;
+                  }
+
+                  @Override
+                  public int interceptResponse(
+                      ApduRequest apduRequest, byte[] response, int length) {
+                    return length;
+                  }
+                })));
+    final AbstractApduException[] failure = new AbstractApduException[1];
+    reader.transmitCardRequestAsync(
+        new CardRequest(Arrays.asList(readRecord(1)), false),
+        ChannelControl.KEEP_OPEN,
+        new CardResponseCallback() {
+          @Override
+          public void onCardResponse(CardResponse cardResponse) {
+            fail("onFailure expected");
+          }
+
+          @Override
+          public void onFailure(AbstractApduException exception) {
+            failure[0] = exception;
+          }
+        });
+    assertThat(failure[0]).isInstanceOf(ReaderCommunicationException.class);
+    assertThat(failure[0].getCause()).isSameAs(error);
+    assertThat(failure[0].getCardResponse().isComplete()).isFalse();
+  }
+
+  @Test
+  public void transmitCardRequest_whenResponseChaining_shouldProcess61xxAnd6Cxx() throws Exception {
+    ReplayProxyReader reader =
+        new ReplayProxyReader(
+            ApduExchangeLog.read(
+                new StringReader(
+                    "00B2010C00 6C04\n"
+                        + "00B2010C04 01026102\n"
+                        + "00C0000002 03046101\n"
+                        + "00C0000001 059000\n")),
+            DIRECT_EXECUTOR,
+            0L);
+    CardResponse cardResponse =
+        reader.transmitCardRequest(
+            new CardRequest(Arrays.asList(readRecord(1)), true, ChainingPolicy.RESPONSE_CHAINING),
+            ChannelControl.KEEP_OPEN);
+    assertThat(cardResponse.getApduResponses().get(0).getBytes())
+        .containsExactly(0x01, 0x02, 0x03, 0x04, 0x05, 0x90, 0x00);
+    // without chaining, the status word is returned as received
+    cardResponse =
+        reader.transmitCardRequest(
+            new CardRequest(
+                Arrays.asList(readRecord(1).setChainingPolicy(ChainingPolicy.NONE)),
+                false,
+                ChainingPolicy.RESPONSE_CHAINING),
+            ChannelControl.KEEP_OPEN);
+    assertThat(cardResponse.getApduResponses().get(0).getStatusCode()).isEqualTo(0x6C04);
+  }
+
+  @Test(expected = CardCommunicationException.class)
+  public void transmitCardRequest_whenRequestNotRecorded_shouldThrowCCE() throws Exception {
+    buildReader()
+        .transmitCardRequest(
+            new CardRequest(Arrays.asList(readRecord(3)), false), ChannelControl.KEEP_OPEN);
+  }
+
+  @Test(expected = ReaderCommunicationException.class)
+  public void transmitCardRequest_whenReaderFaultInjected_shouldThrowRCE() throws Exception {
+    buildReader()
+        .setFaultProbabilities(1.0, 0.0, 0.0)
+        .transmitCardRequest(
+            new CardRequest(Arrays.asList(readRecord(1)), false), ChannelControl.KEEP_OPEN);
+  }
+
+  @Test
+  public void recordingProxyReader_shouldProduceAReplayableLog() throws Exception {
+    ApduExchangeLog recordedLog = new ApduExchangeLog();
+    ProxyReader recorder = RecordingProxyReader.decorate(buildReader(), recordedLog);
+    assertThat(recorder).isInstanceOf(AsyncProxyReader.class);
+    assertThat(recorder).isInstanceOf(InterceptableProxyReader.class);
+    recorder.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1), readRecord(2)), false),
+        ChannelControl.KEEP_OPEN);
+    StringWriter writer = new StringWriter();
+    recordedLog.write(writer);
+    assertThat(writer.toString()).isEqualTo("00B2010C00 0101019000\n00B2020C00 6A83\n");
+  }
+
+  @Test
+  public void recordingProxyReader_withPlainReader_shouldRecordTheCardRequests() throws Exception {
+    final ReplayProxyReader card = buildReader();
+    ProxyReader plainReader =
+        new ProxyReader() {
+          @Override
+          public CardResponse transmitCardRequest(
+              CardRequest cardRequest, ChannelControl channelControl)
+              throws ReaderCommunicationException, CardCommunicationException,
+                  UnexpectedStatusCodeException {
+            return card.transmitCardRequest(cardRequest, channelControl);
+          }
+
+          @Override
+          public void releaseChannel() throws ReaderCommunicationException {
+            card.releaseChannel();
+          }
+        };
+    ApduExchangeLog recordedLog = new ApduExchangeLog();
+    ProxyReader recorder = RecordingProxyReader.decorate(plainReader, recordedLog);
+    assertThat(recorder).isNotInstanceOf(AsyncProxyReader.class);
+    assertThat(recorder).isNotInstanceOf(InterceptableProxyReader.class);
+    try {
+      recorder.transmitCardRequest(
+          new CardRequest(Arrays.asList(readRecord(2), readRecord(1)), true),
+          ChannelControl.KEEP_OPEN);
+      fail("UnexpectedStatusCodeException expected");
+    } catch (UnexpectedStatusCodeException e) {
+      // the partial response is recorded
+    }
+    recorder.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1)), false), ChannelControl.KEEP_OPEN);
+    StringWriter writer = new StringWriter();
+    recordedLog.write(writer);
+    assertThat(writer.toString()).isEqualTo("00B2020C00 6A83\n00B2010C00 0101019000\n");
+  }
+
+  /**
+   * Transforming interceptor appending a trailer byte to the commands and removing it from the
+   * responses.
+   */
+  private static final ApduInterceptor TRAILER_INTERCEPTOR =
+      new ApduInterceptor() {
+        @Override
+        public int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+          command[length] = (byte) 0xEE;
+          return length + 1;
+        }
+
+        @Override
+        public int interceptResponse(ApduRequest apduRequest, byte[] response, int length) {
+          // removes the byte preceding the status word
+          response[length - 3] = response[length - 2];
+          response[length - 2] = response[length - 1];
+          return length - 1;
+        }
+      };
+
+  @Test
+  public void
+      recordingProxyReader_withTransformingChain_shouldProduceALogReplayableUnderTheSameChain()
+          throws Exception {
+    ApduInterceptorChain chain =
+        new ApduInterceptorChain(Arrays.<ApduInterceptor>asList(TRAILER_INTERCEPTOR));
+    // the card only understands the transformed commands
+    ReplayProxyReader card =
+        new ReplayProxyReader(
+            ApduExchangeLog.read(new StringReader("00B2010C00EE 0102AA9000\n")),
+            DIRECT_EXECUTOR,
+            0L);
+    ApduExchangeLog recordedLog = new ApduExchangeLog();
+    InterceptableProxyReader recorder =
+        (InterceptableProxyReader) RecordingProxyReader.decorate(card, recordedLog);
+    recorder.setApduInterceptorChain(chain);
+    CardRequest cardRequest = new CardRequest(Arrays.asList(readRecord(1)), true);
+    CardResponse recordedResponse =
+        recorder.transmitCardRequest(cardRequest, ChannelControl.KEEP_OPEN);
+    assertThat(recordedResponse.getApduResponses().get(0).getBytes())
+        .containsExactly(0x01, 0x02, 0x90, 0x00);
+    StringWriter writer = new StringWriter();
+    recordedLog.write(writer);
+    assertThat(writer.toString()).isEqualTo("00B2010C00EE 0102AA9000\n");
+
+    ReplayProxyReader replay = new ReplayProxyReader(recordedLog, DIRECT_EXECUTOR, 0L);
+    replay.setApduInterceptorChain(chain);
+    CardResponse replayedResponse =
+        replay.transmitCardRequest(cardRequest, ChannelControl.KEEP_OPEN);
+    assertThat(replayedResponse.getApduResponses().get(0).getBytes())
+        .isEqualTo(recordedResponse.getApduResponses().get(0).getBytes());
+  }
+
+  @Test
+  public void recordingProxyReader_whenChainAlreadySet_shouldAppendTheRecordingInterceptor()
+      throws Exception {
+    ApduInterceptorChain chain =
+        new ApduInterceptorChain(Arrays.<ApduInterceptor>asList(TRAILER_INTERCEPTOR));
+    ReplayProxyReader card =
+        new ReplayProxyReader(
+            ApduExchangeLog.read(new StringReader("00B2010C00EE 0102AA9000\n")),
+            DIRECT_EXECUTOR,
+            0L);
+    card.setApduInterceptorChain(chain);
+    ApduExchangeLog recordedLog = new ApduExchangeLog();
+    InterceptableProxyReader recorder =
+        (InterceptableProxyReader) RecordingProxyReader.decorate(card, recordedLog);
+    assertThat(recorder.getApduInterceptorChain()).isSameAs(chain);
+    CardResponse cardResponse =
+        recorder.transmitCardRequest(
+            new CardRequest(Arrays.asList(readRecord(1)), true), ChannelControl.KEEP_OPEN);
+    assertThat(cardResponse.getApduResponses().get(0).getBytes())
+        .containsExactly(0x01, 0x02, 0x90, 0x00);
+    StringWriter writer = new StringWriter();
+    recordedLog.write(writer);
+    assertThat(writer.toString()).isEqualTo("00B2010C00EE 0102AA9000\n");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void transmitCardRequest_whenInterceptorTruncatesCommandHeader_shouldThrowISE()
+      throws Exception {
+    ReplayProxyReader reader = buildReader();
+    reader.setApduInterceptorChain(
+        new ApduInterceptorChain(
+            Arrays.<ApduInterceptor>asList(
+                new ApduInterceptor() {
+                  @Override
+                  public int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+                    return 0;
+                  }
+
+                  @Override
+                  public int interceptResponse(
+                      ApduRequest apduRequest, byte[] response, int length) {
+                    return length;
+                  }
+                })));
+    reader.transmitCardRequest(
+        new CardRequest(Arrays.asList(readRecord(1)), false), ChannelControl.KEEP_OPEN);
+  }
+}
@@ -0,0 +1,166 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Ordered log of APDU exchanges, each made of the bytes of an APDU request and of the corresponding
+ * response.
+ *
+ * <p>The text format produced by {@link #write(Appendable)} and read by {@link #read(Reader)}
+ * contains one exchange per line, made of the hexadecimal request and response separated by a space
+ * (e.g. {@code 00B2010C00 0102039000}). Empty lines and lines starting with {@code #} are ignored.
+ *
+ * <p>The log is thread-safe.
+ *
+ * @since 2.0
+ */
+public final class ApduExchangeLog {
+
+  private final List<byte[][]> exchanges = new ArrayList<byte[][]>();
+  private final Map<Key, Responses> responsesByRequest = new HashMap<Key, Responses>();
+
+  /**
+   * Adds an exchange at the end of the log.
+   *
+   * @param request The APDU request bytes.
+   * @param response The APDU response bytes.
+   * @since 2.0
+   */
+  public synchronized void add(byte[] request, byte[] response) {
+    exchanges.add(new byte[][] {request.clone(), response.clone()});
+    Key key = new Key(request);
+    Responses responses = responsesByRequest.get(key);
+    if (responses == null) {
+      responses = new Responses();
+      responsesByRequest.put(key, responses);
+    }
+    responses.values.add(response.clone());
+  }
+
+  /**
+   * Gets the number of exchanges in the log.
+   *
+   * @return A positive int or 0.
+   * @since 2.0
+   */
+  public synchronized int size() {
+    return exchanges.size();
+  }
+
+  /**
+   * Gets the next response recorded for the provided request.
+   *
+   * <p>When the same request has been recorded several times, the recorded responses are returned
+   * in turn, starting over after the last one.
+   *
+   * @param request The APDU request bytes.
+   * @return null if the request has not been recorded.
+   * @since 2.0
+   */
+  public synchronized byte[] nextResponse(byte[] request) {
+    Responses responses = responsesByRequest.get(new Key(request));
+    if (responses == null) {
+      return null;
+    }
+    byte[] response = responses.values.get(responses.nextIndex);
+    responses.nextIndex = (responses.nextIndex + 1) % responses.values.size();
+    return response;
+  }
+
+  /**
+   * Writes the log in text format.
+   *
+   * @param out The destination.
+   * @throws IOException If an I/O error occurs.
+   * @since 2.0
+   */
+  public synchronized void write(Appendable out) throws IOException {
+    for (byte[][] exchange : exchanges) {
+      out.append(ByteArrayUtil.toHex(exchange[0]))
+          .append(' ')
+          .append(ByteArrayUtil.toHex(exchange[1]))
+          .append('\n');
+    }
+  }
+
+  /**
+   * Reads a log in text format.
+   *
+   * @param in The source, not closed by this method.
+   * @return A not null reference.
+   * @throws IOException If an I/O error occurs.
+   * @throws IllegalArgumentException If a line is malformed.
+   * @since 2.0
+   */
+  public static ApduExchangeLog read(Reader in) throws IOException {
+    ApduExchangeLog log = new ApduExchangeLog();
+    BufferedReader reader = new BufferedReader(in);
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.length() == 0 || line.charAt(0) == '#') {
+        continue;
+      }
+      String[] fields = line.split("\\s+");
+      if (fields.length != 2) {
+        throw new IllegalArgumentException(
+            "Malformed exchange at line " + lineNumber + ": " + line);
+      }
+      log.add(ByteArrayUtil.fromHex(fields[0]), ByteArrayUtil.fromHex(fields[1]));
+    }
+    return log;
+  }
+
+  /**
+   * (private)<br>
+   * The responses recorded for a request and the index of the next one to replay.
+   */
+  private static final class Responses {
+    private final List<byte[]> values = new ArrayList<byte[]>(1);
+    private int nextIndex;
+  }
+
+  /**
+   * (private)<br>
+   * Map key comparing the content of a byte array.
+   */
+  private static final class Key {
+
+    private final byte[] bytes;
+
+    private Key(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && Arrays.equals(bytes, ((Key) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(bytes);
+    }
+  }
+}
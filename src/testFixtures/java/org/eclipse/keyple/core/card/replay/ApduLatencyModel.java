@@ -0,0 +1,36 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.replay;
+
+import java.util.Random;
+import org.eclipse.keyple.core.card.ApduRequest;
+
+/**
+ * Model of the latency of the APDU exchanges simulated by a {@link ReplayProxyReader}.
+ *
+ * @see ReplayProxyReader#fixedLatency(long)
+ * @see ReplayProxyReader#uniformLatency(long, long)
+ * @see ReplayProxyReader#gaussianLatency(long, long)
+ * @since 2.0
+ */
+public interface ApduLatencyModel {
+
+  /**
+   * Gets the latency to apply to the exchange of the provided APDU request.
+   *
+   * @param apduRequest The APDU request.
+   * @param random The random generator of the reader.
+   * @return A positive long or 0, in nanoseconds.
+   * @since 2.0
+   */
+  long nextLatencyNanos(ApduRequest apduRequest, Random random);
+}
@@ -0,0 +1,507 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.replay;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.keyple.core.card.AbstractApduException;
+import org.eclipse.keyple.core.card.ApduInterceptor;
+import org.eclipse.keyple.core.card.ApduInterceptorChain;
+import org.eclipse.keyple.core.card.ApduRequest;
+import org.eclipse.keyple.core.card.ApduResponse;
+import org.eclipse.keyple.core.card.ApduResponseListener;
+import org.eclipse.keyple.core.card.AsyncProxyReader;
+import org.eclipse.keyple.core.card.BatchProxyReader;
+import org.eclipse.keyple.core.card.CardCommunicationException;
+import org.eclipse.keyple.core.card.CardExchangeObserver;
+import org.eclipse.keyple.core.card.CardRequest;
+import org.eclipse.keyple.core.card.CardRequestOutcome;
+import org.eclipse.keyple.core.card.CardResponse;
+import org.eclipse.keyple.core.card.CardResponseCallback;
+import org.eclipse.keyple.core.card.CardSelectionResponse;
+import org.eclipse.keyple.core.card.CardSelectionScenario;
+import org.eclipse.keyple.core.card.ChannelControl;
+import org.eclipse.keyple.core.card.ExtendedLengthProxyReader;
+import org.eclipse.keyple.core.card.InterceptableProxyReader;
+import org.eclipse.keyple.core.card.ObservableProxyReader;
+import org.eclipse.keyple.core.card.OutcomeProxyReader;
+import org.eclipse.keyple.core.card.ProxyReader;
+import org.eclipse.keyple.core.card.ReaderCommunicationException;
+import org.eclipse.keyple.core.card.SelectionScenarioProxyReader;
+import org.eclipse.keyple.core.card.StreamingProxyReader;
+import org.eclipse.keyple.core.card.UnexpectedStatusCodeException;
+import org.eclipse.keyple.core.util.Assert;
+
+/**
+ * {@link ProxyReader} decorator recording the APDU exchanges performed by the decorated reader into
+ * an {@link ApduExchangeLog}, to be replayed later with a {@link ReplayProxyReader}.
+ *
+ * <p>The decorators are built with {@link #decorate(ProxyReader, ApduExchangeLog)}, which returns a
+ * reader implementing exactly the optional capabilities of the decorated reader (e.g. {@link
+ * AsyncProxyReader}), so that they can still be checked with {@code instanceof}.
+ *
+ * <p>When the decorated reader is an {@link InterceptableProxyReader}, the exchanges are recorded
+ * as seen by the card, by an {@link ApduInterceptor} appended to the interceptor chain of the
+ * decorated reader: the commands are recorded after their interception and the responses before
+ * theirs, whatever the transmission method used. A log recorded under a transforming chain (e.g.
+ * secure messaging) can thus be replayed under the same chain. Each execution of a repeated APDU is
+ * recorded, as are the exchanges of the card selection process when the decorated reader applies
+ * the chain to them. The interceptor chain of the decorated reader must then no longer be set other
+ * than through the decorator.
+ *
+ * <p>Otherwise, the exchanges are recorded once each card request has been processed, including the
+ * partial responses attached to the exceptions. Only the final execution of a repeated APDU is then
+ * recorded, and the exchanges of the card selection process are not.
+ *
+ * <p>The decorated reader must not be used directly while it is decorated.
+ *
+ * @since 2.0
+ */
+public final class RecordingProxyReader
+    implements AsyncProxyReader,
+        StreamingProxyReader,
+        OutcomeProxyReader,
+        BatchProxyReader,
+        SelectionScenarioProxyReader,
+        ExtendedLengthProxyReader,
+        ObservableProxyReader,
+        InterceptableProxyReader {
+
+  private static final List<Class<? extends ProxyReader>> CAPABILITIES =
+      Arrays.<Class<? extends ProxyReader>>asList(
+          AsyncProxyReader.class,
+          StreamingProxyReader.class,
+          OutcomeProxyReader.class,
+          BatchProxyReader.class,
+          SelectionScenarioProxyReader.class,
+          ExtendedLengthProxyReader.class,
+          ObservableProxyReader.class,
+          InterceptableProxyReader.class);
+
+  private final ProxyReader reader;
+  private final ApduExchangeLog log;
+  // null if the exchanges are recorded from the card requests
+  private final ApduInterceptor recordingInterceptor;
+  private volatile ApduInterceptorChain apduInterceptorChain;
+
+  /**
+   * (private)<br>
+   * Builds a decorator of the provided reader, appending the recording interceptor to its chain
+   * when it is an {@link InterceptableProxyReader}.
+   *
+   * @param reader The decorated reader.
+   * @param log The log in which the exchanges are recorded.
+   */
+  private RecordingProxyReader(ProxyReader reader, ApduExchangeLog log) {
+    this.reader = reader;
+    this.log = log;
+    if (reader instanceof InterceptableProxyReader) {
+      InterceptableProxyReader interceptableReader = (InterceptableProxyReader) reader;
+      this.recordingInterceptor = new RecordingInterceptor(log);
+      this.apduInterceptorChain = interceptableReader.getApduInterceptorChain();
+      interceptableReader.setApduInterceptorChain(withRecordingInterceptor(apduInterceptorChain));
+    } else {
+      this.recordingInterceptor = null;
+    }
+  }
+
+  /**
+   * Builds a decorator of the provided reader.
+   *
+   * <p>The returned reader implements the optional capabilities implemented by the decorated reader
+   * and only them.
+   *
+   * @param reader The decorated reader.
+   * @param log The log in which the exchanges are recorded.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If one of the arguments is null.
+   * @since 2.0
+   */
+  public static ProxyReader decorate(ProxyReader reader, ApduExchangeLog log) {
+    Assert.getInstance().notNull(reader, "reader").notNull(log, "log");
+    List<Class<?>> interfaces = new ArrayList<Class<?>>();
+    interfaces.add(ProxyReader.class);
+    for (Class<? extends ProxyReader> capability : CAPABILITIES) {
+      if (capability.isInstance(reader)) {
+        interfaces.add(capability);
+      }
+    }
+    return (ProxyReader)
+        Proxy.newProxyInstance(
+            RecordingProxyReader.class.getClassLoader(),
+            interfaces.toArray(new Class<?>[interfaces.size()]),
+            new CapabilityHandler(new RecordingProxyReader(reader, log)));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public CardResponse transmitCardRequest(CardRequest cardRequest, ChannelControl channelControl)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    return recordCardRequest(cardRequest, channelControl, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public CardResponse transmitCardRequest(
+      CardRequest cardRequest,
+      ChannelControl channelControl,
+      ApduResponseListener apduResponseListener)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    Assert.getInstance().notNull(apduResponseListener, "apduResponseListener");
+    return recordCardRequest(cardRequest, channelControl, apduResponseListener);
+  }
+
+  /**
+   * (private)<br>
+   * Transmits a card request to the decorated reader and records its exchanges if they are not
+   * recorded by the interceptor.
+   *
+   * @param cardRequest The card request.
+   * @param channelControl The channel control policy.
+   * @param apduResponseListener The listener to notify, null if none.
+   * @return A not null reference.
+   */
+  private CardResponse recordCardRequest(
+      CardRequest cardRequest,
+      ChannelControl channelControl,
+      ApduResponseListener apduResponseListener)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    CardResponse cardResponse;
+    try {
+      cardResponse =
+          apduResponseListener != null
+              ? ((StreamingProxyReader) reader)
+                  .transmitCardRequest(cardRequest, channelControl, apduResponseListener)
+              : reader.transmitCardRequest(cardRequest, channelControl);
+    } catch (ReaderCommunicationException e) {
+      record(cardRequest, e.getCardResponse());
+      throw e;
+    } catch (CardCommunicationException e) {
+      record(cardRequest, e.getCardResponse());
+      throw e;
+    } catch (UnexpectedStatusCodeException e) {
+      record(cardRequest, e.getCardResponse());
+      throw e;
+    }
+    record(cardRequest, cardResponse);
+    return cardResponse;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void transmitCardRequest(
+      CardRequest cardRequest, ChannelControl channelControl, CardRequestOutcome cardRequestOutcome)
+      throws ReaderCommunicationException, CardCommunicationException {
+    Assert.getInstance().notNull(cardRequestOutcome, "cardRequestOutcome");
+    try {
+      ((OutcomeProxyReader) reader)
+          .transmitCardRequest(cardRequest, channelControl, cardRequestOutcome);
+    } catch (ReaderCommunicationException e) {
+      record(cardRequest, e.getCardResponse());
+      throw e;
+    } catch (CardCommunicationException e) {
+      record(cardRequest, e.getCardResponse());
+      throw e;
+    }
+    record(cardRequest, cardRequestOutcome.getCardResponse());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the exchanges are recorded from the card requests, nothing is recorded if the batch is
+   * interrupted by a {@link ReaderCommunicationException}.
+   *
+   * @since 2.0
+   */
+  @Override
+  public List<CardRequestOutcome> transmitCardRequests(
+      List<CardRequest> cardRequests, ChannelControl channelControl)
+      throws ReaderCommunicationException {
+    List<CardRequestOutcome> cardRequestOutcomes =
+        ((BatchProxyReader) reader).transmitCardRequests(cardRequests, channelControl);
+    for (int i = 0; i < cardRequestOutcomes.size(); i++) {
+      record(cardRequests.get(i), cardRequestOutcomes.get(i).getCardResponse());
+    }
+    return cardRequestOutcomes;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void transmitCardRequestAsync(
+      final CardRequest cardRequest,
+      ChannelControl channelControl,
+      final CardResponseCallback callback) {
+    Assert.getInstance().notNull(callback, "callback");
+    if (recordingInterceptor != null) {
+      ((AsyncProxyReader) reader).transmitCardRequestAsync(cardRequest, channelControl, callback);
+      return;
+    }
+    ((AsyncProxyReader) reader)
+        .transmitCardRequestAsync(
+            cardRequest,
+            channelControl,
+            new CardResponseCallback() {
+              @Override
+              public void onCardResponse(CardResponse cardResponse) {
+                record(cardRequest, cardResponse);
+                callback.onCardResponse(cardResponse);
+              }
+
+              @Override
+              public void onFailure(AbstractApduException exception) {
+                record(cardRequest, exception.getCardResponse());
+                callback.onFailure(exception);
+              }
+            });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public List<CardSelectionResponse> transmitCardSelectionScenario(
+      CardSelectionScenario cardSelectionScenario)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    return ((SelectionScenarioProxyReader) reader)
+        .transmitCardSelectionScenario(cardSelectionScenario);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public boolean isExtendedLengthSupported() {
+    return ((ExtendedLengthProxyReader) reader).isExtendedLengthSupported();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void setCardExchangeObserver(CardExchangeObserver cardExchangeObserver) {
+    ((ObservableProxyReader) reader).setCardExchangeObserver(cardExchangeObserver);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The chain is set on the decorated reader, followed by the interceptor recording the
+   * exchanges.
+   *
+   * @since 2.0
+   */
+  @Override
+  public void setApduInterceptorChain(ApduInterceptorChain apduInterceptorChain) {
+    this.apduInterceptorChain = apduInterceptorChain;
+    ((InterceptableProxyReader) reader)
+        .setApduInterceptorChain(withRecordingInterceptor(apduInterceptorChain));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned chain does not include the interceptor recording the exchanges.
+   *
+   * @since 2.0
+   */
+  @Override
+  public ApduInterceptorChain getApduInterceptorChain() {
+    return apduInterceptorChain;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void releaseChannel() throws ReaderCommunicationException {
+    reader.releaseChannel();
+  }
+
+  /**
+   * (private)<br>
+   * Builds the chain to set on the decorated reader, made of the provided chain followed by the
+   * interceptor recording the exchanges.
+   *
+   * @param apduInterceptorChain The chain (could be null).
+   * @return A not null reference.
+   */
+  private ApduInterceptorChain withRecordingInterceptor(ApduInterceptorChain apduInterceptorChain) {
+    return apduInterceptorChain != null
+        ? apduInterceptorChain.append(recordingInterceptor)
+        : new ApduInterceptorChain(Collections.singletonList(recordingInterceptor));
+  }
+
+  /**
+   * (private)<br>
+   * Records the exchanges of a card request, unless they are recorded by the interceptor.
+   *
+   * <p>Each response is associated with the request of the same index, or with the request executed
+   * according to the flow control rules when the card request is a script.
+   *
+   * @param cardRequest The card request.
+   * @param cardResponse The card response (could be null).
+   */
+  private void record(CardRequest cardRequest, CardResponse cardResponse) {
+    if (recordingInterceptor != null || cardResponse == null) {
+      return;
+    }
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    List<ApduResponse> apduResponses = cardResponse.getApduResponses();
+    int previousStatusCode = -1;
+    int i = 0;
+    for (ApduResponse apduResponse : apduResponses) {
+      while (i < apduRequests.size()
+          && previousStatusCode != -1
+          && apduRequests.get(i).getSkipIfPreviousStatusCode() == previousStatusCode) {
+        i++;
+      }
+      if (i >= apduRequests.size()) {
+        return;
+      }
+      log.add(apduRequests.get(i).getBytes(), apduResponse.getBytes());
+      previousStatusCode = apduResponse.getStatusCode();
+      int jumpTarget = cardRequest.getJumpTarget(i, previousStatusCode);
+      i = jumpTarget != -1 ? jumpTarget : i + 1;
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Handler of the dynamic proxy returned by {@link #decorate(ProxyReader, ApduExchangeLog)},
+   * forwarding the calls to the decorator.
+   *
+   * <p>The proxy only implements the capabilities of the decorated reader, so the decorator never
+   * receives a call for a capability the decorated reader lacks.
+   */
+  private static final class CapabilityHandler implements InvocationHandler {
+
+    private final RecordingProxyReader recorder;
+
+    /**
+     * (private)<br>
+     * Builds a handler forwarding the calls to the provided decorator.
+     *
+     * @param recorder The decorator.
+     */
+    private CapabilityHandler(RecordingProxyReader recorder) {
+      this.recorder = recorder;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The identity methods are those of the proxy, the exceptions thrown by the decorator are
+     * rethrown as is.
+     */
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        if (method.getName().equals("equals")) {
+          return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode")) {
+          return System.identityHashCode(proxy);
+        }
+      }
+      try {
+        return method.invoke(recorder, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Interceptor recording each command with the response that follows it.
+   *
+   * <p>The exchanges of a reader being performed one after the other, a response always follows the
+   * command it answers. A command without response (e.g. following a communication failure) is not
+   * recorded.
+   */
+  private static final class RecordingInterceptor implements ApduInterceptor {
+
+    private final ApduExchangeLog log;
+    private byte[] pendingCommand;
+
+    /**
+     * (private)<br>
+     * Builds an interceptor recording into the provided log.
+     *
+     * @param log The log.
+     */
+    private RecordingInterceptor(ApduExchangeLog log) {
+      this.log = log;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Keeps a copy of the command until its response is received.
+     */
+    @Override
+    public synchronized int interceptRequest(ApduRequest apduRequest, byte[] command, int length) {
+      pendingCommand = Arrays.copyOf(command, length);
+      return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Records the pending command with the response.
+     */
+    @Override
+    public synchronized int interceptResponse(
+        ApduRequest apduRequest, byte[] response, int length) {
+      if (pendingCommand != null) {
+        log.add(pendingCommand, Arrays.copyOf(response, length));
+        pendingCommand = null;
+      }
+      return length;
+    }
+  }
+}
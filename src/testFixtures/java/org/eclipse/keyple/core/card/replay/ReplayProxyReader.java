@@ -0,0 +1,716 @@
+/* **************************************************************************************
+ * Copyright (c) 2021 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ************************************************************************************** */
+package org.eclipse.keyple.core.card.replay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keyple.core.card.AbstractApduException;
+import org.eclipse.keyple.core.card.ApduInterceptorChain;
+import org.eclipse.keyple.core.card.ApduRequest;
+import org.eclipse.keyple.core.card.ApduResponse;
+import org.eclipse.keyple.core.card.ApduResponseListener;
+import org.eclipse.keyple.core.card.AsyncProxyReader;
+import org.eclipse.keyple.core.card.BatchProxyReader;
+import org.eclipse.keyple.core.card.CardCommunicationException;
+import org.eclipse.keyple.core.card.CardExchangeObserver;
+import org.eclipse.keyple.core.card.CardRequest;
+import org.eclipse.keyple.core.card.CardRequestOutcome;
+import org.eclipse.keyple.core.card.CardResponse;
+import org.eclipse.keyple.core.card.CardResponseCallback;
+import org.eclipse.keyple.core.card.CardSelectionResponse;
+import org.eclipse.keyple.core.card.CardSelectionScenario;
+import org.eclipse.keyple.core.card.ChainingPolicy;
+import org.eclipse.keyple.core.card.ChannelControl;
+import org.eclipse.keyple.core.card.ExtendedLengthProxyReader;
+import org.eclipse.keyple.core.card.InterceptableProxyReader;
+import org.eclipse.keyple.core.card.ObservableProxyReader;
+import org.eclipse.keyple.core.card.OutcomeProxyReader;
+import org.eclipse.keyple.core.card.ProxyReader;
+import org.eclipse.keyple.core.card.ReaderCommunicationException;
+import org.eclipse.keyple.core.card.SelectionScenarioProxyReader;
+import org.eclipse.keyple.core.card.StreamingProxyReader;
+import org.eclipse.keyple.core.card.UnexpectedStatusCodeException;
+import org.eclipse.keyple.core.util.Assert;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * {@link ProxyReader} replaying the APDU exchanges of an {@link ApduExchangeLog}, with configurable
+ * latency and fault injection.
+ *
+ * <p>For each APDU request, the response recorded for the same request bytes is returned (see
+ * {@link ApduExchangeLog#nextResponse(byte[])}). A request absent from the log leads to a {@link
+ * CardCommunicationException}.
+ *
+ * <p>The faults are injected before each APDU exchange, according to the probabilities set for each
+ * fault type. An injected unexpected status code is simulated by a {@code 6F00h} response.
+ *
+ * <p>The {@code 61xxh} and {@code 6Cxxh} status words are processed as required by the {@link
+ * ChainingPolicy} of the APDU, the GET RESPONSE commands and the retried commands being looked up
+ * in the log like any other command. The splitting of the commands of {@link
+ * ChainingPolicy#FULL_CHAINING} is not simulated: the commands are always replayed whole.
+ *
+ * <p>The card selection is not simulated: the selection responses set with {@link
+ * #setCardSelectionResponses(List)} are returned for any scenario.
+ *
+ * @since 2.0
+ */
+public final class ReplayProxyReader
+    implements AsyncProxyReader,
+        StreamingProxyReader,
+        OutcomeProxyReader,
+        BatchProxyReader,
+        SelectionScenarioProxyReader,
+        ExtendedLengthProxyReader,
+        ObservableProxyReader,
+        InterceptableProxyReader {
+
+  private static final byte[] INJECTED_STATUS_WORD = new byte[] {(byte) 0x6F, (byte) 0x00};
+  private static final int COMMAND_BUFFER_SIZE = 65544;
+  private static final int RESPONSE_BUFFER_SIZE = 65538;
+  private static final int CLA_CHAINING_BIT = 0x10;
+
+  private final ApduExchangeLog log;
+  private final Executor executor;
+  private final Random random;
+  private volatile ApduLatencyModel latencyModel = fixedLatency(0);
+  private volatile double readerFailureProbability;
+  private volatile double cardFailureProbability;
+  private volatile double unexpectedStatusCodeProbability;
+  private volatile boolean isExtendedLengthSupported;
+  private volatile List<CardSelectionResponse> cardSelectionResponses =
+      Collections.<CardSelectionResponse>emptyList();
+  private volatile CardExchangeObserver cardExchangeObserver;
+  private volatile ApduInterceptorChain apduInterceptorChain;
+  private byte[] commandBuffer;
+  private byte[] responseBuffer;
+
+  /**
+   * Builds a reader replaying the provided log.
+   *
+   * @param log The exchanges to replay.
+   * @param executor The executor processing the asynchronous transmissions, which must process the
+   *     tasks one after the other to preserve the order of submission.
+   * @param seed The seed of the random generator used for the latency and the fault injection.
+   * @throws IllegalArgumentException If the log or the executor is null.
+   * @since 2.0
+   */
+  public ReplayProxyReader(ApduExchangeLog log, Executor executor, long seed) {
+    Assert.getInstance().notNull(log, "log").notNull(executor, "executor");
+    this.log = log;
+    this.executor = executor;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Creates a latency model applying the same latency to all exchanges.
+   *
+   * @param latencyNanos The latency in nanoseconds.
+   * @return A not null reference.
+   * @since 2.0
+   */
+  public static ApduLatencyModel fixedLatency(final long latencyNanos) {
+    return new ApduLatencyModel() {
+      @Override
+      public long nextLatencyNanos(ApduRequest apduRequest, Random random) {
+        return latencyNanos;
+      }
+    };
+  }
+
+  /**
+   * Creates a latency model drawing the latency uniformly between two bounds.
+   *
+   * @param minNanos The minimum latency in nanoseconds.
+   * @param maxNanos The maximum latency in nanoseconds.
+   * @return A not null reference.
+   * @since 2.0
+   */
+  public static ApduLatencyModel uniformLatency(final long minNanos, final long maxNanos) {
+    return new ApduLatencyModel() {
+      @Override
+      public long nextLatencyNanos(ApduRequest apduRequest, Random random) {
+        return minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+      }
+    };
+  }
+
+  /**
+   * Creates a latency model drawing the latency from a normal distribution, negative values being
+   * replaced by 0.
+   *
+   * @param meanNanos The mean latency in nanoseconds.
+   * @param standardDeviationNanos The standard deviation in nanoseconds.
+   * @return A not null reference.
+   * @since 2.0
+   */
+  public static ApduLatencyModel gaussianLatency(
+      final long meanNanos, final long standardDeviationNanos) {
+    return new ApduLatencyModel() {
+      @Override
+      public long nextLatencyNanos(ApduRequest apduRequest, Random random) {
+        return Math.max(0, meanNanos + (long) (random.nextGaussian() * standardDeviationNanos));
+      }
+    };
+  }
+
+  /**
+   * Sets the latency model applied to each APDU exchange.
+   *
+   * @param latencyModel The latency model.
+   * @return The object instance.
+   * @throws IllegalArgumentException If the model is null.
+   * @since 2.0
+   */
+  public ReplayProxyReader setLatencyModel(ApduLatencyModel latencyModel) {
+    Assert.getInstance().notNull(latencyModel, "latencyModel");
+    this.latencyModel = latencyModel;
+    return this;
+  }
+
+  /**
+   * Sets the probabilities of the faults injected before each APDU exchange.
+   *
+   * @param readerFailureProbability The probability of a {@link ReaderCommunicationException}.
+   * @param cardFailureProbability The probability of a {@link CardCommunicationException}.
+   * @param unexpectedStatusCodeProbability The probability of an unexpected status code, only when
+   *     the status code verification is enabled.
+   * @return The object instance.
+   * @since 2.0
+   */
+  public ReplayProxyReader setFaultProbabilities(
+      double readerFailureProbability,
+      double cardFailureProbability,
+      double unexpectedStatusCodeProbability) {
+    this.readerFailureProbability = readerFailureProbability;
+    this.cardFailureProbability = cardFailureProbability;
+    this.unexpectedStatusCodeProbability = unexpectedStatusCodeProbability;
+    return this;
+  }
+
+  /**
+   * Sets the value returned by {@link #isExtendedLengthSupported()}.
+   *
+   * @param isExtendedLengthSupported true or false.
+   * @return The object instance.
+   * @since 2.0
+   */
+  public ReplayProxyReader setExtendedLengthSupported(boolean isExtendedLengthSupported) {
+    this.isExtendedLengthSupported = isExtendedLengthSupported;
+    return this;
+  }
+
+  /**
+   * Sets the responses returned by {@link #transmitCardSelectionScenario(CardSelectionScenario)}.
+   *
+   * @param cardSelectionResponses The card selection responses.
+   * @return The object instance.
+   * @throws IllegalArgumentException If the list is null.
+   * @since 2.0
+   */
+  public ReplayProxyReader setCardSelectionResponses(
+      List<CardSelectionResponse> cardSelectionResponses) {
+    Assert.getInstance().notNull(cardSelectionResponses, "cardSelectionResponses");
+    this.cardSelectionResponses = cardSelectionResponses;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public CardResponse transmitCardRequest(CardRequest cardRequest, ChannelControl channelControl)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    return processCardRequest(cardRequest, channelControl, null, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void transmitCardRequest(
+      CardRequest cardRequest, ChannelControl channelControl, CardRequestOutcome cardRequestOutcome)
+      throws ReaderCommunicationException, CardCommunicationException {
+    Assert.getInstance().notNull(cardRequestOutcome, "cardRequestOutcome");
+    try {
+      processCardRequest(cardRequest, channelControl, null, cardRequestOutcome);
+    } catch (UnexpectedStatusCodeException e) {
+      // not thrown when an outcome is provided
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public CardResponse transmitCardRequest(
+      CardRequest cardRequest,
+      ChannelControl channelControl,
+      ApduResponseListener apduResponseListener)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    Assert.getInstance().notNull(apduResponseListener, "apduResponseListener");
+    return processCardRequest(cardRequest, channelControl, apduResponseListener, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The card requests are replayed one after the other.
+   *
+   * @since 2.0
+   */
+  @Override
+  public List<CardRequestOutcome> transmitCardRequests(
+      List<CardRequest> cardRequests, ChannelControl channelControl)
+      throws ReaderCommunicationException {
+    Assert.getInstance()
+        .notEmpty(cardRequests, "cardRequests")
+        .notNull(channelControl, "channelControl");
+    List<CardRequestOutcome> outcomes = new ArrayList<CardRequestOutcome>(cardRequests.size());
+    for (int i = 0; i < cardRequests.size(); i++) {
+      outcomes.add(new CardRequestOutcome());
+    }
+    for (int i = 0; i < cardRequests.size(); i++) {
+      ChannelControl itemChannelControl =
+          i == cardRequests.size() - 1 ? channelControl : ChannelControl.KEEP_OPEN;
+      try {
+        processCardRequest(cardRequests.get(i), itemChannelControl, null, outcomes.get(i));
+      } catch (CardCommunicationException e) {
+        // the card may be gone, the following card requests are not transmitted
+        outcomes.get(i).setCardCommunicationFailure(e);
+        break;
+      } catch (UnexpectedStatusCodeException e) {
+        // not thrown when an outcome is provided
+        throw new IllegalStateException(e);
+      }
+    }
+    return outcomes;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void transmitCardRequestAsync(
+      final CardRequest cardRequest,
+      final ChannelControl channelControl,
+      final CardResponseCallback callback) {
+    Assert.getInstance()
+        .notNull(cardRequest, "cardRequest")
+        .notNull(channelControl, "channelControl")
+        .notNull(callback, "callback");
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            CardResponse cardResponse;
+            try {
+              cardResponse = processCardRequest(cardRequest, channelControl, null, null);
+            } catch (AbstractApduException e) {
+              callback.onFailure(e);
+              return;
+            } catch (RuntimeException e) {
+              callback.onFailure(
+                  new ReaderCommunicationException(
+                      new CardResponse(new ArrayList<ApduResponse>(0), false, false),
+                      "Unexpected error while processing the card request.",
+                      e));
+              return;
+            }
+            callback.onCardResponse(cardResponse);
+          }
+        });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public List<CardSelectionResponse> transmitCardSelectionScenario(
+      CardSelectionScenario cardSelectionScenario) {
+    Assert.getInstance().notNull(cardSelectionScenario, "cardSelectionScenario");
+    return cardSelectionResponses;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public boolean isExtendedLengthSupported() {
+    return isExtendedLengthSupported;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void setCardExchangeObserver(CardExchangeObserver cardExchangeObserver) {
+    this.cardExchangeObserver = cardExchangeObserver;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The log holds the exchanges as seen by the card, as recorded by {@link
+   * RecordingProxyReader} from an {@link InterceptableProxyReader}: it is looked up with the
+   * intercepted command bytes and the recorded responses are then passed through the chain.
+   *
+   * @since 2.0
+   */
+  @Override
+  public void setApduInterceptorChain(ApduInterceptorChain apduInterceptorChain) {
+    this.apduInterceptorChain = apduInterceptorChain;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public ApduInterceptorChain getApduInterceptorChain() {
+    return apduInterceptorChain;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 2.0
+   */
+  @Override
+  public void releaseChannel() {
+    // nothing to release
+  }
+
+  /**
+   * (private)<br>
+   * Replays the APDU exchanges of a card request.
+   *
+   * @param cardRequest The card request.
+   * @param channelControl The channel control policy.
+   * @param apduResponseListener The listener to notify, null if none.
+   * @param cardRequestOutcome The outcome to fill instead of throwing an {@link
+   *     UnexpectedStatusCodeException}, null if none.
+   * @return Null if an unexpected status code is reported through the outcome.
+   * @throws AbstractApduException If a fault is injected, if a request is not in the log or if an
+   *     unexpected status code is received and no outcome is provided.
+   */
+  private synchronized CardResponse processCardRequest(
+      CardRequest cardRequest,
+      ChannelControl channelControl,
+      ApduResponseListener apduResponseListener,
+      CardRequestOutcome cardRequestOutcome)
+      throws ReaderCommunicationException, CardCommunicationException,
+          UnexpectedStatusCodeException {
+    Assert.getInstance()
+        .notNull(cardRequest, "cardRequest")
+        .notNull(channelControl, "channelControl");
+    CardExchangeObserver observer = cardExchangeObserver;
+    long startTime = System.nanoTime();
+    List<ApduRequest> apduRequests = cardRequest.getApduRequests();
+    List<ApduResponse> apduResponses = new ArrayList<ApduResponse>(apduRequests.size());
+    try {
+      int previousStatusCode = -1;
+      int i = 0;
+      while (i < apduRequests.size()) {
+        ApduRequest apduRequest = apduRequests.get(i);
+        if (previousStatusCode != -1
+            && apduRequest.getSkipIfPreviousStatusCode() == previousStatusCode) {
+          i++;
+          continue;
+        }
+        ApduResponse apduResponse = exchangeApdu(apduRequest, apduResponses, cardRequest, observer);
+        for (int repetition = 0;
+            repetition < apduRequest.getMaxRepetitions()
+                && apduResponse.getStatusCode() != apduRequest.getRepeatUntilStatusCode();
+            repetition++) {
+          apduResponse = exchangeApdu(apduRequest, apduResponses, cardRequest, observer);
+        }
+        apduResponses.add(apduResponse);
+        if (apduResponseListener != null
+            && !apduResponseListener.onApduResponse(i, apduRequest, apduResponse)) {
+          return new CardResponse(apduResponses, true, false);
+        }
+        previousStatusCode = apduResponse.getStatusCode();
+        int jumpTarget = cardRequest.getJumpTarget(i, previousStatusCode);
+        if (jumpTarget != -1) {
+          i = jumpTarget;
+          continue;
+        }
+        if (cardRequest.isStatusCodesVerificationEnabled()
+            && !apduRequest.isSuccessfulStatusCode(previousStatusCode)) {
+          CardResponse partialResponse = new CardResponse(apduResponses, true, false);
+          if (cardRequestOutcome != null) {
+            cardRequestOutcome.setUnexpectedStatusCode(partialResponse, i, previousStatusCode);
+            if (observer != null) {
+              observer.onUnexpectedStatusCode(cardRequest, i, previousStatusCode);
+            }
+            return null;
+          }
+          throw new UnexpectedStatusCodeException(
+              partialResponse,
+              "Unexpected status code: " + Integer.toHexString(previousStatusCode));
+        }
+        i++;
+      }
+      CardResponse cardResponse =
+          new CardResponse(apduResponses, channelControl == ChannelControl.KEEP_OPEN, true);
+      if (cardRequestOutcome != null) {
+        cardRequestOutcome.setSuccess(cardResponse);
+      }
+      return cardResponse;
+    } catch (ReaderCommunicationException e) {
+      notifyFailure(observer, e);
+      throw e;
+    } catch (CardCommunicationException e) {
+      notifyFailure(observer, e);
+      throw e;
+    } catch (UnexpectedStatusCodeException e) {
+      notifyFailure(observer, e);
+      throw e;
+    } finally {
+      if (observer != null) {
+        observer.onCardRequestProcessed(cardRequest, System.nanoTime() - startTime);
+      }
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Replays a single APDU exchange, without adding the response to the list.
+   *
+   * @param apduRequest The APDU request.
+   * @param apduResponses The responses already received, used to build the partial response of the
+   *     exceptions.
+   * @param cardRequest The card request being processed.
+   * @param observer The observer (could be null).
+   * @return A not null reference.
+   * @throws AbstractApduException If a fault is injected or if the request is not in the log.
+   */
+  private ApduResponse exchangeApdu(
+      ApduRequest apduRequest,
+      List<ApduResponse> apduResponses,
+      CardRequest cardRequest,
+      CardExchangeObserver observer)
+      throws ReaderCommunicationException, CardCommunicationException {
+    long exchangeStartTime = System.nanoTime();
+    ApduInterceptorChain chain = apduInterceptorChain;
+    byte[] commandBytes;
+    if (chain != null) {
+      if (commandBuffer == null) {
+        commandBuffer = new byte[COMMAND_BUFFER_SIZE];
+        responseBuffer = new byte[RESPONSE_BUFFER_SIZE];
+      }
+      // read without the copy made by getBytes() for the frozen requests
+      int length = apduRequest.getLength();
+      apduRequest.getBuffer().get(commandBuffer, 0, length);
+      length = chain.interceptRequest(apduRequest, commandBuffer, length);
+      // the log is keyed by exact arrays
+      commandBytes = Arrays.copyOf(commandBuffer, length);
+    } else {
+      commandBytes = apduRequest.getBytes();
+    }
+    ChainingPolicy chainingPolicy =
+        apduRequest.getChainingPolicy() != null
+            ? apduRequest.getChainingPolicy()
+            : cardRequest.getChainingPolicy();
+    byte[] responseBytes = transmitBytes(commandBytes, apduRequest, apduResponses, cardRequest);
+    if (chainingPolicy != ChainingPolicy.NONE) {
+      responseBytes =
+          processResponseChaining(
+              commandBytes, responseBytes, apduRequest, apduResponses, cardRequest);
+    }
+    ApduResponse apduResponse;
+    if (chain != null) {
+      System.arraycopy(responseBytes, 0, responseBuffer, 0, responseBytes.length);
+      int length = chain.interceptResponse(apduRequest, responseBuffer, responseBytes.length);
+      apduResponse = ApduResponse.valueOf(responseBuffer, 0, length);
+    } else if (responseBytes.length == 2) {
+      apduResponse = ApduResponse.valueOf(responseBytes, 0, 2);
+    } else {
+      // the recorded bytes are not copied
+      apduResponse = new ApduResponse(responseBytes);
+    }
+    if (observer != null) {
+      observer.onApduExchanged(apduRequest, apduResponse, System.nanoTime() - exchangeStartTime);
+    }
+    return apduResponse;
+  }
+
+  /**
+   * (private)<br>
+   * Replays the exchange of a command, applying the fault injection and the latency model.
+   *
+   * @param commandBytes The command bytes.
+   * @param apduRequest The APDU request at the origin of the command.
+   * @param apduResponses The responses already received, used to build the partial response of the
+   *     exceptions.
+   * @param cardRequest The card request being processed.
+   * @return The recorded response bytes, which must not be modified.
+   * @throws AbstractApduException If a fault is injected or if the command is not in the log.
+   */
+  private byte[] transmitBytes(
+      byte[] commandBytes,
+      ApduRequest apduRequest,
+      List<ApduResponse> apduResponses,
+      CardRequest cardRequest)
+      throws ReaderCommunicationException, CardCommunicationException {
+    byte[] responseBytes =
+        injectFaults(apduResponses, cardRequest.isStatusCodesVerificationEnabled())
+            ? INJECTED_STATUS_WORD
+            : log.nextResponse(commandBytes);
+    if (responseBytes == null) {
+      throw new CardCommunicationException(
+          new CardResponse(apduResponses, true, false),
+          "No recorded response for APDU " + ByteArrayUtil.toHex(commandBytes));
+    }
+    long latencyNanos = latencyModel.nextLatencyNanos(apduRequest, random);
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+    return responseBytes;
+  }
+
+  /**
+   * (private)<br>
+   * Performs the additional exchanges requested by the {@code 6Cxxh} and {@code 61xxh} status
+   * words, as defined by {@link ChainingPolicy#RESPONSE_CHAINING}.
+   *
+   * <p>A {@code 6Cxxh} status word leads to the command being sent again with Le set to {@code
+   * xxh}, when the command has a short Le field. A {@code 61xxh} status word leads to GET RESPONSE
+   * commands, using the class byte of the command without its chaining bit, until another status
+   * word is received; the data of the successive responses is concatenated.
+   *
+   * @param commandBytes The command bytes.
+   * @param responseBytes The response bytes received for the command.
+   * @param apduRequest The APDU request at the origin of the command.
+   * @param apduResponses The responses already received.
+   * @param cardRequest The card request being processed.
+   * @return The final response bytes.
+   * @throws AbstractApduException If a fault is injected, if a command is not in the log or if the
+   *     concatenated data exceeds the maximum length of a response.
+   */
+  private byte[] processResponseChaining(
+      byte[] commandBytes,
+      byte[] responseBytes,
+      ApduRequest apduRequest,
+      List<ApduResponse> apduResponses,
+      CardRequest cardRequest)
+      throws ReaderCommunicationException, CardCommunicationException {
+    int sw1 = responseBytes[responseBytes.length - 2] & 0xFF;
+    if (sw1 == 0x6C && hasShortLe(commandBytes)) {
+      byte[] retriedCommand = commandBytes.clone();
+      retriedCommand[retriedCommand.length - 1] = responseBytes[responseBytes.length - 1];
+      responseBytes = transmitBytes(retriedCommand, apduRequest, apduResponses, cardRequest);
+      sw1 = responseBytes[responseBytes.length - 2] & 0xFF;
+    }
+    if (sw1 != 0x61) {
+      return responseBytes;
+    }
+    byte[] data = new byte[0];
+    do {
+      int dataLength = responseBytes.length - 2;
+      if (data.length + dataLength > RESPONSE_BUFFER_SIZE - 2) {
+        throw new CardCommunicationException(
+            new CardResponse(apduResponses, true, false),
+            "Response chaining exceeds the maximum response length.");
+      }
+      data = Arrays.copyOf(data, data.length + dataLength);
+      System.arraycopy(responseBytes, 0, data, data.length - dataLength, dataLength);
+      byte[] getResponse =
+          new byte[] {
+            (byte) (commandBytes[0] & ~CLA_CHAINING_BIT),
+            (byte) 0xC0,
+            (byte) 0x00,
+            (byte) 0x00,
+            responseBytes[responseBytes.length - 1]
+          };
+      responseBytes = transmitBytes(getResponse, apduRequest, apduResponses, cardRequest);
+    } while ((responseBytes[responseBytes.length - 2] & 0xFF) == 0x61);
+    byte[] chainedResponse = Arrays.copyOf(data, data.length + responseBytes.length);
+    System.arraycopy(responseBytes, 0, chainedResponse, data.length, responseBytes.length);
+    return chainedResponse;
+  }
+
+  /**
+   * (private)<br>
+   * Indicates if a command ends with a short Le field (case 2 or case 4 with short encoding).
+   *
+   * @param commandBytes The command bytes.
+   * @return true if the last byte of the command is a short Le.
+   */
+  private static boolean hasShortLe(byte[] commandBytes) {
+    return commandBytes.length == 5
+        || (commandBytes.length > 5
+            && commandBytes[4] != 0
+            && commandBytes.length == 6 + (commandBytes[4] & 0xFF));
+  }
+
+  /**
+   * (private)<br>
+   * Notifies a failure to the observer, if any.
+   *
+   * @param observer The observer (could be null).
+   * @param e The exception.
+   */
+  private static void notifyFailure(CardExchangeObserver observer, AbstractApduException e) {
+    if (observer != null) {
+      observer.onFailure(e);
+    }
+  }
+
+  /**
+   * (private)<br>
+   * Throws an exception or requests an unexpected status code according to the fault probabilities.
+   *
+   * @param apduResponses The responses received so far.
+   * @param isStatusCodesVerificationEnabled The status code verification policy.
+   * @return true if an unexpected status code must be returned instead of the recorded response.
+   */
+  private boolean injectFaults(
+      List<ApduResponse> apduResponses, boolean isStatusCodesVerificationEnabled)
+      throws ReaderCommunicationException, CardCommunicationException {
+    double draw = random.nextDouble();
+    if (draw < readerFailureProbability) {
+      throw new ReaderCommunicationException(
+          new CardResponse(apduResponses, false, false), "Injected reader failure.");
+    }
+    draw -= readerFailureProbability;
+    if (draw < cardFailureProbability) {
+      throw new CardCommunicationException(
+          new CardResponse(apduResponses, false, false), "Injected card failure.");
+    }
+    draw -= cardFailureProbability;
+    return isStatusCodesVerificationEnabled && draw < unexpectedStatusCodeProbability;
+  }
+}
@@ -0,0 +1,9 @@
+/**
+ * Simulated readers replaying recorded card exchanges, intended for testing and load testing card
+ * extensions without physical readers.
+ *
+ * <p>They are not part of the main artifact and are provided with its test fixtures.
+ *
+ * @since 2.0
+ */
+package org.eclipse.keyple.core.card.replay;